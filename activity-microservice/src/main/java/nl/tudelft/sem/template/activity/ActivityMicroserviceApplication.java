@@ -2,8 +2,10 @@ package nl.tudelft.sem.template.activity;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ActivityMicroserviceApplication {
     public static void main(String[] args) {
         SpringApplication.run(ActivityMicroserviceApplication.class, args);
@@ -1,49 +1,107 @@
 package nl.tudelft.sem.template.activity.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashSet;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import nl.tudelft.sem.template.activity.domain.Activity;
+import nl.tudelft.sem.template.activity.domain.ActivityBusyException;
+import nl.tudelft.sem.template.activity.domain.ActivityCatalog;
+import nl.tudelft.sem.template.activity.domain.ActivityFeed;
+import nl.tudelft.sem.template.activity.domain.ActivityFingerprint;
+import nl.tudelft.sem.template.activity.domain.ActivityListing;
+import nl.tudelft.sem.template.activity.domain.ActivityLocks;
+import nl.tudelft.sem.template.activity.domain.ActivityRanking;
 import nl.tudelft.sem.template.activity.domain.ActivityRepository;
+import nl.tudelft.sem.template.activity.domain.ArchivalService;
+import nl.tudelft.sem.template.activity.domain.ArchivedActivity;
+import nl.tudelft.sem.template.activity.domain.BatchMatchingService;
+import nl.tudelft.sem.template.activity.domain.CompatibilityCache;
 import nl.tudelft.sem.template.activity.domain.Competition;
 import nl.tudelft.sem.template.activity.domain.CompetitionService;
+import nl.tudelft.sem.template.activity.domain.OptimisticRetry;
+import nl.tudelft.sem.template.activity.domain.PositionService;
 import nl.tudelft.sem.template.activity.domain.RequiredPositions;
 import nl.tudelft.sem.template.activity.domain.RequiredPositionsRepository;
 import nl.tudelft.sem.template.activity.domain.Training;
+import nl.tudelft.sem.template.activity.domain.TrainingSeries;
+import nl.tudelft.sem.template.activity.domain.TrainingSeriesService;
 import nl.tudelft.sem.template.activity.domain.TrainingService;
 import nl.tudelft.sem.template.activity.domain.User;
 import nl.tudelft.sem.template.activity.domain.enums.BoatType;
 import nl.tudelft.sem.template.activity.domain.enums.Gender;
 import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import nl.tudelft.sem.template.activity.models.ActivityPageResponseModel;
+import nl.tudelft.sem.template.activity.models.ActivityPositionsResponseModel;
+import nl.tudelft.sem.template.activity.models.BatchMatchResponseModel;
+import nl.tudelft.sem.template.activity.models.CacheStatsResponseModel;
 import nl.tudelft.sem.template.activity.models.CreateCompetitionRequestModel;
 import nl.tudelft.sem.template.activity.models.CreateTrainingRequestModel;
+import nl.tudelft.sem.template.activity.models.CreateTrainingSeriesRequestModel;
 import nl.tudelft.sem.template.activity.models.FillPositionRequestModel;
+import nl.tudelft.sem.template.activity.models.LockStatsResponseModel;
+import nl.tudelft.sem.template.activity.models.RetryStatsResponseModel;
 import nl.tudelft.sem.template.activity.models.UpdateCompetitionRequestModel;
 import nl.tudelft.sem.template.activity.models.UpdateTrainingRequestModel;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
 @Slf4j
 public class ActivityController {
+    // The number of compatible activities in a page if the caller does not ask for a size
+    private static final String DEFAULT_PAGE_SIZE = "50";
+
+    // The largest page of compatible activities a caller can ask for
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final transient ActivityRepository activityRepository;
     private final transient RequiredPositionsRepository positionsRepository;
     private final transient CompetitionService competitionService;
     private final transient TrainingService trainingService;
-
+    private final transient ActivityCatalog activityCatalog;
+    private final transient BatchMatchingService batchMatchingService;
+    private final transient CompatibilityCache compatibilityCache;
+    private final transient ActivityFeed activityFeed;
+    private final transient ArchivalService archivalService;
+    private final transient OptimisticRetry optimisticRetry;
+    private final transient ActivityLocks activityLocks;
+    private final transient TrainingSeriesService trainingSeriesService;
+    private final transient PositionService positionService;
+    private final transient ObjectMapper objectMapper;
 
     /**
      * Constructor for the activity controller.
@@ -51,16 +109,47 @@ public class ActivityController {
      * @param activityRepository the activity repository
      * @param competitionService the competition service
      * @param trainingService the training service
+     * @param positionsRepository the required positions repository
+     * @param activityCatalog the in-memory index of the activities
+     * @param batchMatchingService the service matching many users at once
+     * @param compatibilityCache the cache of compatibility results
+     * @param activityFeed the feed pushing activities to the subscribed users
+     * @param archivalService the service archiving the past activities
+     * @param optimisticRetry the runner retrying changes that conflict with concurrent ones
+     * @param activityLocks the locks serialising the removals of the same activity
+     * @param trainingSeriesService the service creating the trainings of the recurring series
+     * @param positionService the service filling the spots of the positions
+     * @param objectMapper the mapper used to write the streamed activities
      */
     @Autowired
     public ActivityController(ActivityRepository activityRepository,
                               CompetitionService competitionService,
                               TrainingService trainingService,
-                              RequiredPositionsRepository positionsRepository) {
+                              RequiredPositionsRepository positionsRepository,
+                              ActivityCatalog activityCatalog,
+                              BatchMatchingService batchMatchingService,
+                              CompatibilityCache compatibilityCache,
+                              ActivityFeed activityFeed,
+                              ArchivalService archivalService,
+                              OptimisticRetry optimisticRetry,
+                              ActivityLocks activityLocks,
+                              TrainingSeriesService trainingSeriesService,
+                              PositionService positionService,
+                              ObjectMapper objectMapper) {
         this.activityRepository = activityRepository;
         this.competitionService = competitionService;
         this.trainingService = trainingService;
         this.positionsRepository = positionsRepository;
+        this.activityCatalog = activityCatalog;
+        this.batchMatchingService = batchMatchingService;
+        this.compatibilityCache = compatibilityCache;
+        this.activityFeed = activityFeed;
+        this.archivalService = archivalService;
+        this.optimisticRetry = optimisticRetry;
+        this.activityLocks = activityLocks;
+        this.trainingSeriesService = trainingSeriesService;
+        this.positionService = positionService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -81,11 +170,11 @@ public class ActivityController {
         LocalTime startTime = requestModel.getStartTime();
         LocalTime endTime = requestModel.getEndTime();
 
-        if (ownerId != 0 && date != null && !positions.isEmpty()
-                && boatType != null && startTime != null && endTime != null) {
+        if (isComplete(requestModel)) {
 
-            trainingService.addNewTraining(new Training(ownerId, date, startTime, endTime, positions, boatType));
-            positions.stream().forEach(pos -> positionsRepository.save(pos));
+            Training training = trainingService.addNewTraining(
+                    new Training(ownerId, date, startTime, endTime, positions, boatType));
+            activityFeed.publish(training);
             return ResponseEntity.ok().body("Training successfully added!");
         }
         return ResponseEntity.badRequest().body("All fields must be introduced");
@@ -112,20 +201,137 @@ public class ActivityController {
         LocalTime endTime = requestModel.getEndTime();
         String organization = requestModel.getOrganization();
 
-        if (ownerId != 0 && date != null && !positions.isEmpty()
-                && boatType != null && startTime != null && endTime != null
-                && level != null && gender != null && organization != null) {
-            competitionService.addNewCompetition(
+        if (isComplete(requestModel)) {
+            Competition competition = competitionService.addNewCompetition(
                     new Competition(ownerId, date, startTime, endTime, positions,
                             level, gender, boatType, organization));
-            positions.stream().forEach(pos -> positionsRepository.save(pos));
+            activityFeed.publish(competition);
             return ResponseEntity.ok().body("Competition successfully added!");
         }
         return ResponseEntity.badRequest().body("All fields must be introduced");
     }
 
     /**
-     * Endpoint for retrieving an activity by id.
+     * Endpoint for adding many trainings at once. All the trainings are checked before any of
+     * them is stored, and they are then stored together in one transaction.
+     *
+     * @param requestModels the training request models
+     * @return String of request completion information
+     */
+    @PutMapping("/createActivities/training")
+    public ResponseEntity<String> createTrainings(@RequestBody List<CreateTrainingRequestModel> requestModels) {
+        if (requestModels == null || requestModels.isEmpty()) {
+            return ResponseEntity.badRequest().body("No trainings provided");
+        }
+        for (int i = 0; i < requestModels.size(); i++) {
+            if (requestModels.get(i) == null || !isComplete(requestModels.get(i))) {
+                return ResponseEntity.badRequest().body("All fields must be introduced for training " + i);
+            }
+        }
+
+        List<Training> trainings = new ArrayList<>();
+        for (CreateTrainingRequestModel model : requestModels) {
+            trainings.add(new Training(model.getOwnerId(), model.getDate(), model.getStartTime(),
+                    model.getEndTime(), model.getRequiredPositions(), model.getBoatType()));
+        }
+        List<Training> saved = trainingService.addNewTrainings(trainings);
+        saved.forEach(activityFeed::publish);
+        return ResponseEntity.ok().body(saved.size() + " trainings successfully added!");
+    }
+
+    /**
+     * Endpoint for adding many competitions at once. All the competitions are checked before
+     * any of them is stored, and they are then stored together in one transaction.
+     *
+     * @param requestModels the competition request models
+     * @return String of request completion information
+     */
+    @PutMapping("/createActivities/competition")
+    public ResponseEntity<String> createCompetitions(
+            @RequestBody List<CreateCompetitionRequestModel> requestModels) {
+        if (requestModels == null || requestModels.isEmpty()) {
+            return ResponseEntity.badRequest().body("No competitions provided");
+        }
+        for (int i = 0; i < requestModels.size(); i++) {
+            if (requestModels.get(i) == null || !isComplete(requestModels.get(i))) {
+                return ResponseEntity.badRequest().body("All fields must be introduced for competition " + i);
+            }
+        }
+
+        List<Competition> competitions = new ArrayList<>();
+        for (CreateCompetitionRequestModel model : requestModels) {
+            competitions.add(new Competition(model.getOwnerId(), model.getDate(), model.getStartTime(),
+                    model.getEndTime(), model.getRequiredPositions(), model.getAllowedLevel(),
+                    model.getAllowedGender(), model.getBoatType(), model.getOrganization()));
+        }
+        List<Competition> saved = competitionService.addNewCompetitions(competitions);
+        saved.forEach(activityFeed::publish);
+        return ResponseEntity.ok().body(saved.size() + " competitions successfully added!");
+    }
+
+    /**
+     * Endpoint for adding a training which repeats every week. Only its trainings within the
+     * next few days are stored right away; the later ones are stored as they come closer.
+     *
+     * @param requestModel the training series request model
+     * @return String of request completion information
+     */
+    @PutMapping("/createSeries/training")
+    public ResponseEntity<String> createTrainingSeries(@RequestBody CreateTrainingSeriesRequestModel requestModel) {
+        if (!isComplete(requestModel)) {
+            return ResponseEntity.badRequest().body("All fields must be introduced");
+        }
+        if (requestModel.getLastDate().before(requestModel.getFirstDate())) {
+            return ResponseEntity.badRequest().body("The last date cannot be before the first date");
+        }
+        trainingSeriesService.addNewSeries(new TrainingSeries(requestModel.getOwnerId(), requestModel.getFirstDate(),
+                requestModel.getLastDate(), requestModel.getStartTime(), requestModel.getEndTime(),
+                requestModel.getRequiredPositions(), requestModel.getBoatType()));
+        return ResponseEntity.ok().body("Training series successfully added!");
+    }
+
+    /**
+     * Endpoint for retrieving a training series by id.
+     *
+     * @param seriesId the id of the series
+     * @return the series with the given id
+     */
+    @GetMapping("/series/{seriesId}")
+    public ResponseEntity<TrainingSeries> retrieveSeriesById(@PathVariable int seriesId) {
+        return trainingSeriesService.getSeries(seriesId)
+                .map(series -> ResponseEntity.ok().body(series))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid id"));
+    }
+
+    /**
+     * Endpoint for deleting a training series, together with its trainings which have not started yet.
+     *
+     * @param seriesId the id of the series
+     * @param userId the id of the user
+     * @return message regarding the series removal
+     */
+    @DeleteMapping("/deleteSeries/{seriesId}/{userId}")
+    public ResponseEntity<String> deleteSeries(@PathVariable int seriesId, @PathVariable int userId) {
+        Optional<TrainingSeries> series = trainingSeriesService.getSeries(seriesId);
+        if (series.isEmpty()) {
+            return ResponseEntity.badRequest().body("Series not available");
+        }
+        if (series.get().getOwnerId() != userId) {
+            return ResponseEntity.badRequest().body("User does not have permissions to delete series!");
+        }
+        try {
+            int removed = trainingSeriesService.deleteSeries(series.get());
+            return ResponseEntity.ok("Series with id " + seriesId + " and " + removed
+                    + " upcoming trainings have been deleted");
+        } catch (ActivityBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Activity is busy, please try again");
+        }
+    }
+
+    /**
+     * Endpoint for retrieving an activity by id. The response is tagged with the version of the
+     * activity and its positions, so a request whose If-None-Match still matches gets a 304 without body.
      *
      * @param activityId - the id of the activity
      * @return the activity with the give id, or
@@ -135,44 +341,255 @@ public class ActivityController {
     public ResponseEntity<Activity> retrieveActivityById(@PathVariable Integer activityId) throws Exception {
         if (activityRepository.existsByActivityId(activityId)) {
             Activity activity = activityRepository.findByActivityId(activityId).get();
-            return ResponseEntity.ok().body(activity);
+            return ResponseEntity.ok().eTag(ActivityFingerprint.of(activity).toTag()).body(activity);
         } else {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid id");
         }
     }
 
     /**
-     * Endpoint for retrieving all the trainings.
+     * Endpoint for retrieving all the trainings. The response is tagged with the version of the
+     * catalog, so a request whose If-None-Match still matches gets a 304 without body.
      *
+     * @param request the request, with the entity tag the caller already has, if any
      * @return the trainings currently stored in the database.
      */
     @GetMapping("/retrieveActivities/training")
-    public ResponseEntity<List<Activity>> retrieveTrainings() {
-        return ResponseEntity.ok().body(trainingService.getAllTrainings());
+    public ResponseEntity<List<Activity>> retrieveTrainings(WebRequest request) {
+        return conditionally(request, activityCatalog.getVersionTag(), trainingService::getAllTrainings);
     }
 
 
     /**
-     * Endpoint for retrieving all the competitions.
+     * Endpoint for retrieving all the competitions, tagged with the version of the catalog like the trainings.
      *
+     * @param request the request, with the entity tag the caller already has, if any
      * @return the competitions currently stored in the database.
      */
     @GetMapping("/retrieveActivities/competition")
-    public ResponseEntity<List<Activity>> retrieveCompetitions() {
-        return ResponseEntity.ok().body(competitionService.getAllCompetitions());
+    public ResponseEntity<List<Activity>> retrieveCompetitions(WebRequest request) {
+        return conditionally(request, activityCatalog.getVersionTag(), competitionService::getAllCompetitions);
+    }
+
+    /**
+     * Endpoint for listing all the trainings as flat rows, with the spots left per position inlined,
+     * tagged with the version of the catalog.
+     *
+     * @param request the request, with the entity tag the caller already has, if any
+     * @return the listing rows of the trainings currently stored in the database.
+     */
+    @GetMapping("/retrieveActivities/training/listing")
+    public ResponseEntity<List<ActivityListing>> retrieveTrainingListings(WebRequest request) {
+        return conditionally(request, activityCatalog.getVersionTag(), trainingService::getTrainingListings);
+    }
+
+    /**
+     * Endpoint for listing all the competitions as flat rows, with the spots left per position inlined,
+     * tagged with the version of the catalog.
+     *
+     * @param request the request, with the entity tag the caller already has, if any
+     * @return the listing rows of the competitions currently stored in the database.
+     */
+    @GetMapping("/retrieveActivities/competition/listing")
+    public ResponseEntity<List<ActivityListing>> retrieveCompetitionListings(WebRequest request) {
+        return conditionally(request, activityCatalog.getVersionTag(), competitionService::getCompetitionListings);
+    }
+
+    /**
+     * Answers a read tagged with the given entity tag: with a 304 without body if the If-None-Match
+     * of the request still matches the tag, and otherwise with the body, which is only built then.
+     *
+     * @param request the request, with the entity tag the caller already has, if any
+     * @param tag the entity tag of the current response, taken before the body is built
+     * @param body builds the body of the response
+     * @param <T> the type of the body
+     * @return the response
+     */
+    private static <T> ResponseEntity<T> conditionally(WebRequest request, String tag, Supplier<T> body) {
+        if (request.checkNotModified(tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+        }
+        return ResponseEntity.ok().eTag(tag).body(body.get());
+    }
+
+    /**
+     * Endpoint for retrieving the activities which have taken place and were archived.
+     *
+     * @param ownerId the owner whose activities to retrieve, or none for the activities of all owners
+     * @return the archived activities, the most recent first
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<List<ArchivedActivity>> retrieveArchive(@RequestParam(required = false) Integer ownerId) {
+        return ResponseEntity.ok().body(archivalService.getHistory(ownerId));
     }
 
     /**
-     * Endpoint for retrieving a list of all the compatible competitions for a given user.
+     * Endpoint for retrieving an archived activity by the id it had.
+     *
+     * @param activityId the id of the activity
+     * @return the archived activity, or not found if no activity with the id was archived
+     */
+    @GetMapping("/archive/{activityId}")
+    public ResponseEntity<ArchivedActivity> retrieveArchivedActivity(@PathVariable int activityId) {
+        return archivalService.getArchivedActivity(activityId)
+                .map(activity -> ResponseEntity.ok().body(activity))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Endpoint for retrieving a list of all the compatible competitions for a given user. The response is
+     * tagged with the version of the catalog and the user, so a request whose If-None-Match still
+     * matches gets a 304 without body.
+     * With a limit, only the best competitions are returned, by default the ones starting soonest.
+     * A sort order is only accepted together with a limit of at most {@value #MAX_PAGE_SIZE}, so
+     * a ranked request is never cut off without the caller asking for it.
      *
      * @param user the user for which to retrieve the competitions
-     * @return the list of all the compatible competitions in which the given user can participate
+     * @param limit the maximum number of competitions to return, if only the best ones are wanted
+     * @param sort the order in which to rank the competitions; requires a limit
+     * @param request the request, with the entity tag the caller already has, if any
+     * @return the list of all the compatible competitions in which the given user can participate,
+     *         or bad request if a sort order is given without a limit or the limit is out of range
      */
     @GetMapping("/retrieveCompatible/competition")
+    public ResponseEntity<List<Activity>> retrieveCompatibleCompetitions(
+            @RequestBody User user, @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) ActivityRanking sort, WebRequest request) {
+        if (limit == null && sort == null) {
+            String tag = activityCatalog.getCompatibleTag(true, user);
+            return conditionally(request, tag, () -> competitionService.getAllCompatibleCompetitions(user));
+        }
+        if (limit == null || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        ActivityRanking ranking = sort == null ? ActivityRanking.SOONEST_START : sort;
+        String tag = activityCatalog.getCompatibleTag(true, user);
+        return conditionally(request, tag, () -> competitionService.getTopCompatibleCompetitions(user, ranking, limit));
+    }
+
+    /**
+     * Endpoint for retrieving one page of the compatible competitions for a given user.
+     *
+     * @param user the user for which to retrieve the competitions
+     * @param after the cursor returned with the previous page, or 0 for the first page
+     * @param limit the maximum number of competitions in the page
+     * @return the page of compatible competitions, with the cursor of the next page if there is one
+     */
+    @GetMapping("/retrieveCompatible/competition/page")
+    public ResponseEntity<ActivityPageResponseModel> retrieveCompatibleCompetitionsPage(
+            @RequestBody User user, @RequestParam(defaultValue = "0") int after,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok().body(competitionService.getCompatibleCompetitionsPage(user, after, limit));
+    }
+
+    /**
+     * Endpoint for retrieving the compatible competitions for a user who can fill several positions,
+     * together with the positions each of them can take, tagged like the list of compatible competitions.
+     *
+     * @param user the user for which to retrieve the competitions, with all the positions they can fill
+     * @param request the request, with the entity tag the caller already has, if any
+     * @return the compatible competitions with the positions they can take, ordered by their id
+     */
+    @GetMapping("/retrieveCompatible/competition/positions")
+    public ResponseEntity<List<ActivityPositionsResponseModel>> retrieveCompatibleCompetitionPositions(
+            @RequestBody User user, WebRequest request) {
+        return conditionally(request, activityCatalog.getCompatibleTag(true, user),
+                () -> competitionService.getCompatibleCompetitionPositions(user));
+    }
+
+    /**
+     * Endpoint for streaming the compatible competitions for a given user, as one JSON
+     * document per line. Every competition is written as soon as it passes the checks.
+     *
+     * @param user the user for which to retrieve the competitions
+     * @param after only competitions with a higher id are streamed
+     * @return the stream of compatible competitions, ordered by their id
+     */
+    @GetMapping(value = "/retrieveCompatible/competition/stream", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCompatibleCompetitions(
+            @RequestBody User user, @RequestParam(defaultValue = "0") int after) {
+        Stream<Activity> competitions = competitionService.streamCompatibleCompetitions(user, after);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_STREAM_JSON)
+                .body(out -> writeLines(competitions, out));
+    }
+
+    /**
+     * Endpoint for retrieving the compatible activities of many users at once, with a single
+     * scan over the activities.
+     *
+     * @param users the users for which to retrieve the activities, each with the position they want to fill
+     * @return the ids of the compatible trainings and competitions of every user, in the order of the users
+     */
+    @GetMapping("/retrieveCompatible/batch")
     @ResponseStatus(HttpStatus.OK)
-    public List<Activity> retrieveCompatibleCompetitions(@RequestBody User user) {
-        List<Activity> competitions = competitionService.getAllCompatibleCompetitions(user);
-        return competitions;
+    public List<BatchMatchResponseModel> retrieveCompatibleBatch(@RequestBody List<User> users) {
+        return batchMatchingService.match(users);
+    }
+
+    /**
+     * Endpoint for subscribing to the activities which become compatible with a user, as server-sent
+     * events. Every created or updated activity the user can join is sent with the positions it can take.
+     *
+     * @param user the user to subscribe, with the position or positions they can fill
+     * @return the emitter on which the compatible activities are sent
+     */
+    @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestBody User user) {
+        return activityFeed.subscribe(user);
+    }
+
+    /**
+     * Endpoint for retrieving the statistics of the cache of compatibility results.
+     *
+     * @return the number of hits, misses and evictions, and the current size of the cache
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsResponseModel> cacheStats() {
+        return ResponseEntity.ok().body(compatibilityCache.getStats());
+    }
+
+    /**
+     * Endpoint for retrieving how often changes to activities conflicted and were retried.
+     *
+     * @return the number of tries, retries and changes given up on
+     */
+    @GetMapping("/retry/stats")
+    public ResponseEntity<RetryStatsResponseModel> retryStats() {
+        return ResponseEntity.ok().body(optimisticRetry.getStats());
+    }
+
+    /**
+     * Endpoint for retrieving how much the writes to the activities waited for each other.
+     *
+     * @return the number of acquisitions, waits and timeouts and the wait times of every used stripe
+     */
+    @GetMapping("/locks/stats")
+    public ResponseEntity<LockStatsResponseModel> lockStats() {
+        return ResponseEntity.ok().body(activityLocks.getStats());
+    }
+
+    /**
+     * Endpoint for retrieving the order in which the competition checks currently run.
+     *
+     * @return the names of the validators, in the order in which they run
+     */
+    @GetMapping("/validatorOrder/competition")
+    public ResponseEntity<List<String>> competitionValidatorOrder() {
+        return ResponseEntity.ok().body(competitionService.getValidatorOrder());
+    }
+
+    /**
+     * Endpoint for retrieving the order in which the training checks currently run.
+     *
+     * @return the names of the validators, in the order in which they run
+     */
+    @GetMapping("/validatorOrder/training")
+    public ResponseEntity<List<String>> trainingValidatorOrder() {
+        return ResponseEntity.ok().body(trainingService.getValidatorOrder());
     }
 
     /**
@@ -185,22 +602,16 @@ public class ActivityController {
     public ResponseEntity<String> fillPosition(@RequestBody FillPositionRequestModel model) {
         try {
             int id = model.getActivityId();
+            Positions position = model.getPosition();
 
+            if (positionService.fill(id, position)) {
+                return ResponseEntity.ok("Position successfully filled");
+            }
             if (!activityRepository.existsByActivityId(id)) {
                 return ResponseEntity.badRequest().body("Activity does not exist");
             }
-
-            Activity activity = activityRepository.findByActivityId(id).get();
-            Set<RequiredPositions> positions = activity.getPositions();
-
-            for (RequiredPositions pos : positions) {
-                if (pos.getPosition().equals(model.getPosition())) {
-                    if (pos.fillPosition()) {
-                        activityRepository.save(activity);
-                        return ResponseEntity.ok("Position successfully filled");
-                    }
-                    return ResponseEntity.badRequest().body("Position already filled");
-                }
+            if (positionsRepository.existsInActivity(id, position)) {
+                return ResponseEntity.badRequest().body("Position already filled");
             }
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Incorrect format");
@@ -209,15 +620,96 @@ public class ActivityController {
     }
 
     /**
-     * Endpoint for retrieving a list of all the compatible trainings for a given user.
+     * Endpoint for retrieving a list of all the compatible trainings for a given user. The response is
+     * tagged with the version of the catalog and the user, so a request whose If-None-Match still
+     * matches gets a 304 without body.
+     * With a limit, only the best trainings are returned, by default the ones starting soonest.
+     * A sort order is only accepted together with a limit of at most {@value #MAX_PAGE_SIZE}, so
+     * a ranked request is never cut off without the caller asking for it.
      *
      * @param user the user for which to retrieve the trainings
-     * @return the list of all the compatible trainings in which the given user can participate
+     * @param limit the maximum number of trainings to return, if only the best ones are wanted
+     * @param sort the order in which to rank the trainings; requires a limit
+     * @param request the request, with the entity tag the caller already has, if any
+     * @return the list of all the compatible trainings in which the given user can participate,
+     *         or bad request if a sort order is given without a limit or the limit is out of range
      */
     @GetMapping("/retrieveCompatible/training")
-    @ResponseStatus(HttpStatus.OK)
-    public List<Activity> retrieveCompatibleTrainings(@RequestBody User user) {
-        return trainingService.getAllCompatibleTrainings(user);
+    public ResponseEntity<List<Activity>> retrieveCompatibleTrainings(
+            @RequestBody User user, @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) ActivityRanking sort, WebRequest request) {
+        if (limit == null && sort == null) {
+            String tag = activityCatalog.getCompatibleTag(false, user);
+            return conditionally(request, tag, () -> trainingService.getAllCompatibleTrainings(user));
+        }
+        if (limit == null || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        ActivityRanking ranking = sort == null ? ActivityRanking.SOONEST_START : sort;
+        String tag = activityCatalog.getCompatibleTag(false, user);
+        return conditionally(request, tag, () -> trainingService.getTopCompatibleTrainings(user, ranking, limit));
+    }
+
+    /**
+     * Endpoint for retrieving one page of the compatible trainings for a given user.
+     *
+     * @param user the user for which to retrieve the trainings
+     * @param after the cursor returned with the previous page, or 0 for the first page
+     * @param limit the maximum number of trainings in the page
+     * @return the page of compatible trainings, with the cursor of the next page if there is one
+     */
+    @GetMapping("/retrieveCompatible/training/page")
+    public ResponseEntity<ActivityPageResponseModel> retrieveCompatibleTrainingsPage(
+            @RequestBody User user, @RequestParam(defaultValue = "0") int after,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok().body(trainingService.getCompatibleTrainingsPage(user, after, limit));
+    }
+
+    /**
+     * Endpoint for retrieving the compatible trainings for a user who can fill several positions,
+     * together with the positions each of them can take, tagged like the list of compatible trainings.
+     *
+     * @param user the user for which to retrieve the trainings, with all the positions they can fill
+     * @param request the request, with the entity tag the caller already has, if any
+     * @return the compatible trainings with the positions they can take, ordered by their id
+     */
+    @GetMapping("/retrieveCompatible/training/positions")
+    public ResponseEntity<List<ActivityPositionsResponseModel>> retrieveCompatibleTrainingPositions(
+            @RequestBody User user, WebRequest request) {
+        return conditionally(request, activityCatalog.getCompatibleTag(false, user),
+                () -> trainingService.getCompatibleTrainingPositions(user));
+    }
+
+    /**
+     * Endpoint for streaming the compatible trainings for a given user, as one JSON
+     * document per line. Every training is written as soon as it passes the checks.
+     *
+     * @param user the user for which to retrieve the trainings
+     * @param after only trainings with a higher id are streamed
+     * @return the stream of compatible trainings, ordered by their id
+     */
+    @GetMapping(value = "/retrieveCompatible/training/stream", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCompatibleTrainings(
+            @RequestBody User user, @RequestParam(defaultValue = "0") int after) {
+        Stream<Activity> trainings = trainingService.streamCompatibleTrainings(user, after);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_STREAM_JSON)
+                .body(out -> writeLines(trainings, out));
+    }
+
+    /**
+     * Writes every activity as a JSON document on its own line, flushing after each one.
+     */
+    private void writeLines(Stream<Activity> activities, OutputStream out) throws IOException {
+        Iterator<Activity> iterator = activities.iterator();
+        while (iterator.hasNext()) {
+            out.write(objectMapper.writeValueAsBytes(iterator.next()));
+            out.write('\n');
+            out.flush();
+        }
     }
 
     /**
@@ -229,192 +721,312 @@ public class ActivityController {
      */
     @DeleteMapping("/deleteActivity/{id}/{userId}")
     public ResponseEntity deleteActivity(@PathVariable int id, @PathVariable int userId) {
-        if (!activityRepository.existsByActivityId(id)) {
-            return ResponseEntity.badRequest().body("Activity not available");
-        }
-        Activity activity = activityRepository.findByActivityId(id).get();
-        if (activity.getOwnerId() != userId) {
-            return ResponseEntity.badRequest()
-                    .body("User does not have permissions to delete activity!");
+        try {
+            return activityLocks.withLock(id, () -> {
+                if (!activityRepository.existsByActivityId(id)) {
+                    return ResponseEntity.badRequest().body("Activity not available");
+                }
+                Activity activity = activityRepository.findByActivityId(id).get();
+                if (activity.getOwnerId() != userId) {
+                    return ResponseEntity.badRequest()
+                            .body("User does not have permissions to delete activity!");
+                }
+                activityRepository.delete(activity);
+                activityCatalog.remove(id);
+                return ResponseEntity.ok("Activity with id " + id + " has been deleted");
+            });
+        } catch (ActivityBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Activity is busy, please try again");
         }
-        activityRepository.delete(activity);
-        return ResponseEntity.ok("Activity with id " + id + " has been deleted");
     }
 
     /**
-     * Endpoint for updating a training.
+     * Endpoint for updating a training. Only the fields present in the request are changed, and
+     * the positions are only changed if they are present, as far as they differ.
      *
      * @param model the updated training
      * @return whether the training was updated
      * @throws Exception if training couldn't be updated
      */
-    @PutMapping("/updateActivity/training")
+    @RequestMapping(value = "/updateActivity/training", method = {RequestMethod.PUT, RequestMethod.PATCH})
     public ResponseEntity updateTraining(@RequestBody UpdateTrainingRequestModel model) throws Exception {
-
         try {
-            if (model.getActivityId() == 0) {
-                return ResponseEntity.badRequest().body("Please provide an activity ID");
-            }
-
-            int id = model.getActivityId();
-
-            if (!activityRepository.existsByActivityId(id)) {
-                return ResponseEntity.badRequest().body("Activity does not exist");
-            }
-            Activity activity = activityRepository.findByActivityId(id).get();
-            if (activity instanceof Competition) {
-                return ResponseEntity.badRequest()
-                        .body("Id provided for competition, please use 'updateActivity/competition'");
-            }
-
-            if (activity.getOwnerId() != model.getOwnerId()) {
-                return ResponseEntity.badRequest()
-                        .body("User does not have permissions to edit activity!");
-            }
+            return runUpdate(updated -> applyTrainingUpdate(model, updated));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Activity is being modified by another request, please try again");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Incorrect format");
+        }
+    }
 
-            int ownerId = model.getOwnerId();
-            Date date = model.getDate();
-            Set<RequiredPositions> positions = model.getRequiredPositions();
-            BoatType boatType = model.getBoatType();
-            LocalTime startTime = model.getStartTime();
-            LocalTime endTime = model.getEndTime();
+    /**
+     * Applies an update to the latest version of a training. It is run again by the caller
+     * when the training or one of its positions was changed concurrently.
+     *
+     * @param model the updated training
+     * @param updated receives the saved training, if it was updated
+     * @return whether the training was updated
+     */
+    private ResponseEntity<String> applyTrainingUpdate(UpdateTrainingRequestModel model,
+                                                       AtomicReference<Activity> updated) {
+        if (model.getActivityId() == 0) {
+            return ResponseEntity.badRequest().body("Please provide an activity ID");
+        }
 
-            Set<RequiredPositions> currentPositions = new HashSet<>();
+        int id = model.getActivityId();
 
-            activity.getPositions().stream().forEach(pos -> {
-                currentPositions.add(pos);
-            });
+        Optional<Activity> found = activityRepository.findByActivityId(id);
+        if (found.isEmpty()) {
+            return ResponseEntity.badRequest().body("Activity does not exist");
+        }
+        Activity activity = found.get();
+        if (activity instanceof Competition) {
+            return ResponseEntity.badRequest()
+                    .body("Id provided for competition, please use 'updateActivity/competition'");
+        }
 
-            currentPositions.stream().forEach(pos -> {
-                activity.removePosition(pos);
-            });
+        if (activity.getOwnerId() != model.getOwnerId()) {
+            return ResponseEntity.badRequest()
+                    .body("User does not have permissions to edit activity!");
+        }
 
-            positions.stream().forEach(pos -> positionsRepository.save(pos));
+        int ownerId = model.getOwnerId();
+        Date date = model.getDate();
+        Set<RequiredPositions> positions = model.getRequiredPositions();
+        BoatType boatType = model.getBoatType();
+        LocalTime startTime = model.getStartTime();
+        LocalTime endTime = model.getEndTime();
 
-            Training source = new Training(ownerId, date, startTime, endTime, positions, boatType);
+        Training source = new Training(ownerId, date, startTime, endTime, positions, boatType);
 
-            Training target = (Training) activity;
+        Training target = (Training) claim(activity);
 
-            if (source.getOwnerId() != 0) {
-                target.setOwnerId(source.getOwnerId());
-            }
-            if (source.getActivityDate() != null) {
-                target.setActivityDate(source.getActivityDate());
-            }
-            if (source.getStartTime() != null) {
-                target.setStartTime(source.getStartTime());
-            }
-            if (source.getEndTime() != null) {
-                target.setEndTime(source.getEndTime());
-            }
-            if (source.getPositions() != null) {
-                positions.stream().forEach(pos -> {
-                    positionsRepository.save(pos);
-                    activity.addPosition(pos);
-                });
-            }
-            if (source.getBoatType() != null) {
-                target.setBoatType(source.getBoatType());
-            }
-            activityRepository.save(target);
-            return ResponseEntity.ok("Training successfully updated");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Incorrect format");
+        // Checked first, so a rejected update leaves the activity untouched
+        if (source.getPositions() != null && !updatePositions(target, positions)) {
+            return ResponseEntity.badRequest().body("Positions cannot be negative, nor removed while seats are filled");
+        }
+        if (source.getOwnerId() != 0) {
+            target.setOwnerId(source.getOwnerId());
+        }
+        if (source.getActivityDate() != null) {
+            target.setActivityDate(source.getActivityDate());
         }
+        if (source.getStartTime() != null) {
+            target.setStartTime(source.getStartTime());
+        }
+        if (source.getEndTime() != null) {
+            target.setEndTime(source.getEndTime());
+        }
+        if (source.getBoatType() != null) {
+            target.setBoatType(source.getBoatType());
+        }
+        updated.set(activityRepository.saveAndFlush(target));
+        return ResponseEntity.ok("Training successfully updated");
     }
 
 
     /**
-     * Endpoint for updating a competition.
+     * Endpoint for updating a competition. Only the fields present in the request are changed, and
+     * the positions are only changed if they are present, as far as they differ.
      *
      * @param model the updated competition
      * @return whether the competition was updated
      * @throws Exception if competition couldn't be updated
      */
-    @PutMapping("/updateActivity/competition")
+    @RequestMapping(value = "/updateActivity/competition", method = {RequestMethod.PUT, RequestMethod.PATCH})
     public ResponseEntity updateCompetition(@RequestBody UpdateCompetitionRequestModel model) {
         try {
-            if (model.getActivityId() == 0) {
-                return ResponseEntity.badRequest().body("Please provide an activity ID");
-            }
+            return runUpdate(updated -> applyCompetitionUpdate(model, updated));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Activity is being modified by another request, please try again");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Incorrect format");
+        }
+    }
 
-            int id = model.getActivityId();
+    /**
+     * Applies an update to the latest version of a competition. It is run again by the caller
+     * when the competition or one of its positions was changed concurrently.
+     *
+     * @param model the updated competition
+     * @param updated receives the saved competition, if it was updated
+     * @return whether the competition was updated
+     */
+    private ResponseEntity<String> applyCompetitionUpdate(UpdateCompetitionRequestModel model,
+                                                          AtomicReference<Activity> updated) {
+        if (model.getActivityId() == 0) {
+            return ResponseEntity.badRequest().body("Please provide an activity ID");
+        }
 
-            if (!activityRepository.existsByActivityId(id)) {
-                return ResponseEntity.badRequest().body("Activity does not exist");
-            }
-            Activity activity = activityRepository.findByActivityId(id).get();
-            if (activity instanceof Training) {
-                return ResponseEntity.badRequest()
-                        .body("Id provided for training, please use 'updateActivity/training'");
-            }
+        int id = model.getActivityId();
 
-            if (activity.getOwnerId() != model.getOwnerId()) {
-                return ResponseEntity.badRequest()
-                        .body("User does not have permissions to edit activity!");
-            }
+        Optional<Activity> found = activityRepository.findByActivityId(id);
+        if (found.isEmpty()) {
+            return ResponseEntity.badRequest().body("Activity does not exist");
+        }
+        Activity activity = found.get();
+        if (activity instanceof Training) {
+            return ResponseEntity.badRequest()
+                    .body("Id provided for training, please use 'updateActivity/training'");
+        }
 
-            int ownerId = model.getOwnerId();
-            Date date = model.getDate();
-            Set<RequiredPositions> positions = model.getRequiredPositions();
-            BoatType boatType = model.getBoatType();
-            LocalTime startTime = model.getStartTime();
-            LocalTime endTime = model.getEndTime();
-            Level level = model.getLevel();
-            Gender gender = model.getGender();
-            String organization = model.getOrganization();
+        if (activity.getOwnerId() != model.getOwnerId()) {
+            return ResponseEntity.badRequest()
+                    .body("User does not have permissions to edit activity!");
+        }
 
-            Set<RequiredPositions> currentPositions = new HashSet<>();
+        int ownerId = model.getOwnerId();
+        Date date = model.getDate();
+        Set<RequiredPositions> positions = model.getRequiredPositions();
+        BoatType boatType = model.getBoatType();
+        LocalTime startTime = model.getStartTime();
+        LocalTime endTime = model.getEndTime();
+        Level level = model.getLevel();
+        Gender gender = model.getGender();
+        String organization = model.getOrganization();
 
-            activity.getPositions().stream().forEach(pos -> {
-                currentPositions.add(pos);
-            });
+        Competition source = new Competition(ownerId, date, startTime, endTime, positions,
+                level, gender, boatType, organization);
 
-            currentPositions.stream().forEach(pos -> {
-                activity.removePosition(pos);
-            });
+        Competition target = (Competition) claim(activity);
 
-            positions.stream().forEach(pos -> positionsRepository.save(pos));
+        // Checked first, so a rejected update leaves the activity untouched
+        if (source.getPositions() != null && !updatePositions(target, positions)) {
+            return ResponseEntity.badRequest().body("Positions cannot be negative, nor removed while seats are filled");
+        }
+        if (source.getOwnerId() != 0) {
+            target.setOwnerId(source.getOwnerId());
+        }
+        if (source.getActivityDate() != null) {
+            target.setActivityDate(source.getActivityDate());
+        }
+        if (source.getStartTime() != null) {
+            target.setStartTime(source.getStartTime());
+        }
+        if (source.getEndTime() != null) {
+            target.setEndTime(source.getEndTime());
+        }
+        if (source.getBoatType() != null) {
+            target.setBoatType(source.getBoatType());
+        }
+        if (source.getAllowedGender() != null) {
+            target.setAllowedGender(gender);
+        }
+        if (source.getAllowedLevel() != null) {
+            target.setAllowedLevel(level);
+        }
+        if (source.getOrganization() != null) {
+            target.setOrganization(organization);
+        }
+        updated.set(activityRepository.saveAndFlush(target));
+        return ResponseEntity.ok("Competition successfully updated");
+    }
 
-            Competition source = new Competition(ownerId, date, startTime, endTime, positions,
-                    level, gender, boatType, organization);
+    /**
+     * Runs an update of an activity, again while it conflicts with a concurrent change. Conflicts are
+     * only detected through the versions of the activity and its positions, so updates do not take the
+     * stripe of the activity, and the fills, which change the positions without it, are caught as well.
+     * The catalog and the subscribers only hear of the activity once the update has committed; the
+     * catalog ignores it if it already holds a later version, or the activity was deleted meanwhile.
+     *
+     * @param update the update, which hands back the saved activity if it changed it
+     * @return the response of the update
+     */
+    private ResponseEntity<String> runUpdate(Function<AtomicReference<Activity>, ResponseEntity<String>> update) {
+        AtomicReference<Activity> updated = new AtomicReference<>();
+        ResponseEntity<String> response = optimisticRetry.run(() -> {
+            updated.set(null);
+            return update.apply(updated);
+        });
+        if (updated.get() != null) {
+            activityCatalog.refresh(updated.get());
+            activityFeed.publish(updated.get());
+        }
+        return response;
+    }
 
-            Competition target = (Competition) activity;
+    /**
+     * Claims an activity before anything of it is written: its version is increased, as long as it is
+     * still the version that was read. A concurrent change is thereby detected before the update writes
+     * anything, and the row of the activity is taken before its positions, in the same order as a fill
+     * takes them, so the two never wait on each other. The activity is read again at its new version.
+     *
+     * @param activity the activity as it was read
+     * @return the activity at its new version
+     * @throws ObjectOptimisticLockingFailureException if the activity changed since it was read
+     */
+    private Activity claim(Activity activity) {
+        int id = activity.getActivityId();
+        if (activityRepository.claim(id, activity.getVersion()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Activity.class, id);
+        }
+        return activityRepository.findByActivityId(id).orElseThrow();
+    }
 
-            if (source.getOwnerId() != 0) {
-                target.setOwnerId(source.getOwnerId());
-            }
-            if (source.getActivityDate() != null) {
-                target.setActivityDate(source.getActivityDate());
-            }
-            if (source.getStartTime() != null) {
-                target.setStartTime(source.getStartTime());
-            }
-            if (source.getEndTime() != null) {
-                target.setEndTime(source.getEndTime());
-            }
-            if (source.getPositions() != null) {
-                positions.stream().forEach(pos -> {
-                    positionsRepository.save(pos);
-                    activity.addPosition(pos);
-                });
-            }
-            if (source.getBoatType() != null) {
-                target.setBoatType(source.getBoatType());
-            }
-            if (source.getAllowedGender() != null) {
-                target.setAllowedGender(gender);
+    /**
+     * Brings the positions of an activity in line with the requested ones, writing only what
+     * differs: the open seats of the positions that stay are changed in place, and only the positions
+     * that were dropped or added are deleted or inserted. The requested counts are the open seats, as
+     * in the responses, so the seats filled so far stay filled; nothing is changed when a count is
+     * negative or when a position with filled seats would be dropped.
+     *
+     * @return whether the positions were updated
+     */
+    private static boolean updatePositions(Activity activity, Set<RequiredPositions> requested) {
+        Map<Positions, Integer> wanted = new EnumMap<>(Positions.class);
+        for (RequiredPositions pos : requested) {
+            if (pos.getRequiredOfPosition() < 0) {
+                return false;
             }
-            if (source.getAllowedLevel() != null) {
-                target.setAllowedLevel(level);
+            wanted.put(pos.getPosition(), pos.getRequiredOfPosition());
+        }
+        for (RequiredPositions current : activity.getPositions()) {
+            if (current.getFilledOfPosition() > 0 && !wanted.containsKey(current.getPosition())) {
+                return false;
             }
-            if (source.getOrganization() != null) {
-                target.setOrganization(organization);
+        }
+        for (RequiredPositions current : new ArrayList<>(activity.getPositions())) {
+            Integer open = wanted.remove(current.getPosition());
+            if (open == null) {
+                activity.removePosition(current);
+            } else if (open != current.getRequiredOfPosition()) {
+                current.setRequiredOfPosition(open);
             }
-            activityRepository.save(target);
-            return ResponseEntity.ok("Competition successfully updated");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Incorrect format");
         }
+        wanted.forEach((position, open) -> activity.addPosition(new RequiredPositions(position, open)));
+        activity.refreshOpenPositions();
+        return true;
+    }
+
+    /**
+     * Check whether a training request has all the fields a training needs.
+     */
+    private static boolean isComplete(CreateTrainingRequestModel model) {
+        return model.getOwnerId() != 0 && model.getDate() != null
+                && model.getRequiredPositions() != null && !model.getRequiredPositions().isEmpty()
+                && model.getBoatType() != null && model.getStartTime() != null && model.getEndTime() != null;
+    }
+
+    /**
+     * Check whether a training series request has all the fields a series needs.
+     */
+    private static boolean isComplete(CreateTrainingSeriesRequestModel model) {
+        return model.getOwnerId() != 0 && model.getFirstDate() != null && model.getLastDate() != null
+                && model.getRequiredPositions() != null && !model.getRequiredPositions().isEmpty()
+                && model.getBoatType() != null && model.getStartTime() != null && model.getEndTime() != null;
+    }
+
+    /**
+     * Check whether a competition request has all the fields a competition needs.
+     */
+    private static boolean isComplete(CreateCompetitionRequestModel model) {
+        return model.getOwnerId() != 0 && model.getDate() != null
+                && model.getRequiredPositions() != null && !model.getRequiredPositions().isEmpty()
+                && model.getBoatType() != null && model.getStartTime() != null && model.getEndTime() != null
+                && model.getAllowedLevel() != null && model.getAllowedGender() != null
+                && model.getOrganization() != null;
     }
 }
@@ -1,7 +1,11 @@
 package nl.tudelft.sem.template.activity.domain;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.Date;
 import java.util.Set;
 import javax.persistence.CascadeType;
@@ -10,17 +14,30 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderColumn;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.format.annotation.DateTimeFormat;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_activity_schedule", columnList = "dayOfWeek, startInstant"),
+    @Index(name = "idx_activity_boat_type", columnList = "boatType, startInstant"),
+    @Index(name = "idx_competition_requirements", columnList = "allowedGender, organization, allowedLevel")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -58,12 +75,40 @@ public abstract class Activity {
     @OneToMany(cascade = CascadeType.ALL,
                 orphanRemoval = true)
     @OrderColumn
+    @BatchSize(size = 100)
+    @Setter(AccessLevel.NONE)
     private Set<RequiredPositions> positions;
 
     // The type of boat in which the current activity takes place.
     @Column
     private BoatType boatType;
 
+    // The moment the activity starts, in epoch milliseconds, derived from the date and start time.
+    @Column
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private long startInstant;
+
+    // The day of the week on which the activity takes place, from 1 (Monday) to 7 (Sunday).
+    @Column
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private int dayOfWeek;
+
+    // The positions that still have to be filled, one bit per position by its ordinal, derived from the positions.
+    @Column
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private int openPositions;
+
+    // The version of the activity, increased on every write so concurrent changes are detected.
+    @Version
+    @Column
+    @JsonIgnore
+    @Setter(AccessLevel.PACKAGE)
+    @EqualsAndHashCode.Exclude
+    private long version;
+
     /**
      * Constructor method.
      *
@@ -80,14 +125,136 @@ public abstract class Activity {
         this.endTime = endTime;
         this.positions = positions;
         this.boatType = boatType;
+        updateSchedule();
+        refreshOpenPositions();
+    }
+
+    public void setPositions(Set<RequiredPositions> positions) {
+        this.positions = positions;
+        refreshOpenPositions();
+    }
+
+    public void setActivityDate(Date activityDate) {
+        this.activityDate = activityDate;
+        updateSchedule();
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+        updateSchedule();
+    }
+
+    /**
+     * Recomputes the columns derived from the other fields before the activity is written.
+     */
+    @PrePersist
+    @PreUpdate
+    private void updateDerivedColumns() {
+        updateSchedule();
+        refreshOpenPositions();
+    }
+
+    /**
+     * Recomputes the start instant and the day of the week from the date and the start time.
+     * It is called whenever one of them changes and before the activity is written.
+     */
+    private void updateSchedule() {
+        if (activityDate == null || startTime == null) {
+            return;
+        }
+        startInstant = activityDate.getTime()
+                + (startTime.getHour() * 60L + startTime.getMinute()) * 60 * 1000;
+        dayOfWeek = activityDate.toInstant().atZone(ZoneId.systemDefault()).getDayOfWeek().getValue();
+    }
+
+    /**
+     * Recomputes which positions still have to be filled. It has to be called after the required
+     * amount of one of the positions changes, since the activity is not told about that.
+     */
+    public void refreshOpenPositions() {
+        openPositions = openPositionsOf(positions);
+    }
+
+    /**
+     * Computes the mask of open positions from the given positions, without touching any activity.
+     * The readers which index activities use it, so they never write to an entity which may still
+     * be managed; the activity itself only recomputes its mask when it is written.
+     *
+     * @param positions the positions of an activity, or null
+     * @return the mask with the bit of every position which still has an open spot
+     */
+    public static int openPositionsOf(Collection<RequiredPositions> positions) {
+        int mask = 0;
+        if (positions != null) {
+            for (RequiredPositions rp : positions) {
+                if (rp.getRequiredOfPosition() > 0) {
+                    mask |= bit(rp.getPosition());
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Check whether the activity is a competition rather than a training. It is sent along with the
+     * activity, like in its listing row, so a client can tell which of the two it received.
+     *
+     * @return true for a competition, false for a training
+     */
+    @JsonProperty(value = "competition", access = JsonProperty.Access.READ_ONLY)
+    public boolean isCompetition() {
+        return this instanceof Competition;
+    }
+
+    /**
+     * Check whether the given position still has to be filled, without reading the positions.
+     *
+     * @param position the position to check
+     * @return true if at least one spot of the position is open
+     */
+    public boolean hasOpenPosition(Positions position) {
+        return position != null && (openPositions & bit(position)) != 0;
+    }
+
+    /**
+     * Get the bit of the given position in the mask of open positions.
+     *
+     * @param position the position
+     * @return the mask with only the bit of the position set
+     */
+    public static int bit(Positions position) {
+        return 1 << position.ordinal();
+    }
+
+    /**
+     * Fills one spot of the given position and recomputes the open positions. The version of the
+     * position is checked when it is written, so of two requests taking the same spot concurrently
+     * only one can succeed; the other has to read the activity again.
+     *
+     * @param position the position to fill
+     * @return true if a spot was filled, false if the activity has no open spot for the position
+     */
+    public boolean fillPosition(Positions position) {
+        if (positions == null) {
+            return false;
+        }
+        for (RequiredPositions rp : positions) {
+            if (rp.getPosition() == position && rp.fillPosition()) {
+                refreshOpenPositions();
+                return true;
+            }
+        }
+        return false;
     }
 
     public void removePosition(RequiredPositions position) {
         positions.remove(position);
+        refreshOpenPositions();
     }
 
     public void addPosition(RequiredPositions position) {
         positions.add(position);
+        refreshOpenPositions();
     }
 
 }
@@ -0,0 +1,18 @@
+package nl.tudelft.sem.template.activity.domain;
+
+/**
+ * Thrown when a write to an activity could not get the lock of the activity in time,
+ * because other writes to it (or to activities sharing its stripe) are holding it.
+ */
+public class ActivityBusyException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor method.
+     *
+     * @param activityId the id of the activity that could not be locked
+     */
+    public ActivityBusyException(int activityId) {
+        super("Activity " + activityId + " is busy");
+    }
+}
@@ -0,0 +1,425 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import nl.tudelft.sem.template.activity.domain.filters.StartTimeValidator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-memory copy of all the activities, kept in step with the repository by the writers. The
+ * catalog guards the index of the activities by the attributes the validators check and their
+ * listing rows with one lock, and versions them, so results computed from an older version can be
+ * recognized. It is filled on first access by the loader, from the snapshot where possible.
+ */
+@Component
+@Slf4j
+public class ActivityCatalog {
+    // Reads the activities the catalog is filled with
+    private final transient CatalogLoader catalogLoader;
+
+    // Guards the index and the listings
+    private final transient ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Whether the catalog has been filled from the repository
+    private transient volatile boolean loaded;
+
+    // Bumped on every change to the activities, so results computed before it can be recognized
+    private final transient AtomicLong version = new AtomicLong();
+
+    // Tells the versions of this run of the service apart from those of earlier runs, which also start at zero
+    private final transient String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // The activities, indexed by the attributes the validators check
+    private final transient ActivityIndex index = new ActivityIndex();
+
+    // The flat listing row of every activity
+    private final transient ActivityListings listings = new ActivityListings();
+
+    // The clock used to decide which activities can no longer be joined
+    private transient MyClock myClock = new MyClock();
+
+    /**
+     * Constructor method.
+     *
+     * @param catalogLoader Reads the activities the catalog is filled with
+     */
+    public ActivityCatalog(CatalogLoader catalogLoader) {
+        this.catalogLoader = catalogLoader;
+    }
+
+    /**
+     * Adds an activity to the catalog, or re-indexes it if it was already present.
+     *
+     * @param activity the activity that was created or modified
+     */
+    @Transactional(readOnly = true)
+    public void put(Activity activity) {
+        putAll(List.of(activity));
+    }
+
+    /**
+     * Adds many activities to the catalog at once, taking the lock and changing the version only once.
+     *
+     * @param added the activities that were created or modified
+     */
+    @Transactional(readOnly = true)
+    public void putAll(Collection<? extends Activity> added) {
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            for (Activity activity : added) {
+                index.put(activity);
+                listings.put(activity);
+            }
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes an activity which was modified, unless the catalog holds a later version of it or
+     * no longer holds it at all. The writers which do not hold the stripe of the activity use it, as
+     * their changes can reach the catalog in another order than they were committed, or after the
+     * activity was deleted. When the catalog is not filled, it reads the change from the repository.
+     *
+     * @param activity the activity that was modified, as it was committed
+     */
+    @Transactional(readOnly = true)
+    public void refresh(Activity activity) {
+        lock.writeLock().lock();
+        try {
+            Activity current = loaded ? index.get(activity.getActivityId()) : null;
+            if (current == null || current.getVersion() >= activity.getVersion()) {
+                return;
+            }
+            index.put(activity);
+            listings.put(activity);
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an activity from the catalog.
+     *
+     * @param activityId the id of the activity that was deleted
+     */
+    @Transactional(readOnly = true)
+    public void remove(int activityId) {
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            index.remove(activityId);
+            listings.remove(activityId);
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the current version of the activities. It changes whenever an activity is created,
+     * modified or deleted, or the catalog is invalidated.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get a strong entity tag for the listings of the activities, which changes whenever an activity
+     * is created, modified or deleted, and differs between runs of the service. It has to be taken
+     * before the listing is read, so a listing is never sent with the tag of a later version.
+     *
+     * @return the entity tag, without quotes
+     */
+    public String getVersionTag() {
+        return epoch + "-" + version.get();
+    }
+
+    /**
+     * Get a strong entity tag for the trainings or competitions compatible with a user. Besides the
+     * version of the activities and the attributes of the user, it holds the start of the first
+     * activity which can still be joined, so it also changes as soon as that one can no longer be
+     * joined. Like the version tag, it has to be taken before the activities are matched.
+     *
+     * @param competition whether the tag is for the competitions, rather than the trainings
+     * @param user the user the activities are matched for
+     * @return the entity tag, without quotes
+     */
+    @Transactional(readOnly = true)
+    public String getCompatibleTag(boolean competition, User user) {
+        long earliestStart = StartTimeValidator.earliestStart(competition, myClock.getCurrentTime());
+        return read(() -> getVersionTag() + "-" + Long.toString(index.firstStart(competition, earliestStart), 36)
+                + "-" + Integer.toHexString(user.hashCode()));
+    }
+
+    public void setMyClock(MyClock myClock) {
+        this.myClock = myClock;
+    }
+
+    /**
+     * Drops the whole catalog; it will be filled again from the repository on the next access.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            listings.clear();
+            loaded = false;
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get a copy of all the activities, without filling the catalog first.
+     *
+     * @return the activities in no particular order, or nothing if the catalog is not filled
+     */
+    public Optional<List<Activity>> copyActivities() {
+        lock.readLock().lock();
+        try {
+            return loaded ? Optional.of(new ArrayList<>(index.activities())) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get all the trainings, without reading the database.
+     *
+     * @return the trainings, ordered by their id
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> allTrainings() {
+        return read(index::trainings);
+    }
+
+    /**
+     * Get all the competitions, without reading the database.
+     *
+     * @return the competitions, ordered by their id
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> allCompetitions() {
+        return read(index::competitions);
+    }
+
+    /**
+     * Get the listing rows of all the trainings, without reading the database.
+     *
+     * @return the listing rows, ordered by the id of their training
+     */
+    @Transactional(readOnly = true)
+    public List<ActivityListing> trainingListings() {
+        return read(listings::trainings);
+    }
+
+    /**
+     * Get the listing rows of all the competitions, without reading the database.
+     *
+     * @return the listing rows, ordered by the id of their competition
+     */
+    @Transactional(readOnly = true)
+    public List<ActivityListing> competitionListings() {
+        return read(listings::competitions);
+    }
+
+    /**
+     * Get a page of the trainings, whatever their attributes, without reading the database.
+     *
+     * @param after only trainings with a higher id are returned
+     * @param limit the maximum number of trainings in the page
+     * @return the trainings, ordered by their id
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> trainingsAfter(int after, int limit) {
+        return read(() -> index.trainingsAfter(after, limit));
+    }
+
+    /**
+     * Get a page of the competitions, whatever their attributes, without reading the database.
+     *
+     * @param after only competitions with a higher id are returned
+     * @param limit the maximum number of competitions in the page
+     * @return the competitions, ordered by their id
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> competitionsAfter(int after, int limit) {
+        return read(() -> index.competitionsAfter(after, limit));
+    }
+
+    /**
+     * Get all the activities starting at or after the given moment, whatever their attributes.
+     *
+     * @param earliestStart the earliest start, in epoch milliseconds
+     * @return the activities, ordered by their start and then by their id
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> activitiesStartingFrom(long earliestStart) {
+        return read(() -> index.startingFrom(earliestStart));
+    }
+
+    /**
+     * Get a page of the trainings that are in every bucket the given user matches, fit in one of
+     * the availability windows of the user and start late enough to still be joined.
+     * The result still has to be checked against the validators.
+     *
+     * @param user the user for which to retrieve the trainings
+     * @param after only trainings with a higher id are returned
+     * @param limit the maximum number of trainings in the page
+     * @return the candidate trainings, ordered by their id
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> candidateTrainings(User user, int after, int limit) {
+        long earliestStart = StartTimeValidator.earliestStart(false, myClock.getCurrentTime());
+        return read(() -> index.candidateTrainings(user, earliestStart, after, limit));
+    }
+
+    /**
+     * Get the trainings that are in every bucket the given user matches, with an open spot
+     * for at least one of the given positions. The result still has to be checked against
+     * the validators for each of the positions.
+     *
+     * @param user the user for which to retrieve the trainings
+     * @param positions the positions the user can fill
+     * @return the candidate trainings, ordered by their id
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> candidateTrainings(User user, Set<Positions> positions) {
+        long earliestStart = StartTimeValidator.earliestStart(false, myClock.getCurrentTime());
+        return read(() -> index.candidateTrainings(user, positions, earliestStart));
+    }
+
+    /**
+     * Get a page of the competitions that are in every bucket the given user matches, fit in one
+     * of the availability windows of the user and start late enough to still be joined.
+     * The result still has to be checked against the validators.
+     *
+     * @param user the user for which to retrieve the competitions
+     * @param after only competitions with a higher id are returned
+     * @param limit the maximum number of competitions in the page
+     * @return the candidate competitions, ordered by their id
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> candidateCompetitions(User user, int after, int limit) {
+        long earliestStart = StartTimeValidator.earliestStart(true, myClock.getCurrentTime());
+        return read(() -> index.candidateCompetitions(user, earliestStart, after, limit));
+    }
+
+    /**
+     * Get the competitions that are in every bucket the given user matches, with an open spot
+     * for at least one of the given positions. The result still has to be checked against
+     * the validators for each of the positions.
+     *
+     * @param user the user for which to retrieve the competitions
+     * @param positions the positions the user can fill
+     * @return the candidate competitions, ordered by their id
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> candidateCompetitions(User user, Set<Positions> positions) {
+        long earliestStart = StartTimeValidator.earliestStart(true, myClock.getCurrentTime());
+        return read(() -> index.candidateCompetitions(user, positions, earliestStart));
+    }
+
+    /**
+     * Get the ids of the trainings which the matching engine finds compatible with the given user
+     * and which fit in one of the availability windows of the user. The engine matches all the
+     * trainings in one pass over its columns; {@link #activitiesAfter} resolves the ids page by page.
+     * Together, the engine and the availability windows cover every rule of the validators, so the
+     * result is not checked against them again.
+     *
+     * @param user the user for which to retrieve the trainings
+     * @return the ids of the matching trainings, in ascending order
+     */
+    @Transactional(readOnly = true)
+    public List<Integer> matchTrainings(User user) {
+        long earliestStart = StartTimeValidator.earliestStart(false, myClock.getCurrentTime());
+        return read(() -> index.matchTrainings(user, earliestStart));
+    }
+
+    /**
+     * Get the ids of the competitions which the matching engine finds compatible with the given user
+     * and which fit in one of the availability windows of the user. The engine matches all the
+     * competitions in one pass over its columns; {@link #activitiesAfter} resolves the ids page by page.
+     * Together, the engine and the availability windows cover every rule of the validators, so the
+     * result is not checked against them again.
+     *
+     * @param user the user for which to retrieve the competitions
+     * @return the ids of the matching competitions, in ascending order
+     */
+    @Transactional(readOnly = true)
+    public List<Integer> matchCompetitions(User user) {
+        long earliestStart = StartTimeValidator.earliestStart(true, myClock.getCurrentTime());
+        return read(() -> index.matchCompetitions(user, earliestStart));
+    }
+
+    /**
+     * Get a page of the activities with the given ids which are still in the catalog.
+     *
+     * @param ids the ids of the activities, in ascending order
+     * @param after only activities with a higher id are returned
+     * @param limit the maximum number of activities in the page
+     * @return the activities, ordered by their id
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> activitiesAfter(List<Integer> ids, int after, int limit) {
+        return read(() -> index.activitiesAfter(ids, after, limit));
+    }
+
+    /**
+     * Runs a query on the index or the listings under the read lock, filling the catalog first
+     * if this was not done yet.
+     */
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        if (!loaded) {
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                ensureLoaded();
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fills the catalog from the repository if this was not done yet; the write lock must be held.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        index.clear();
+        listings.clear();
+        List<Activity> all = catalogLoader.load();
+        for (Activity activity : all) {
+            index.put(activity);
+            listings.put(activity);
+        }
+        loaded = true;
+        log.info("Indexed {} activities", all.size());
+    }
+}
@@ -0,0 +1,280 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import nl.tudelft.sem.template.activity.domain.filters.Validator;
+import nl.tudelft.sem.template.activity.models.ActivityPositionsResponseModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes activities to the users subscribed to them, as server-sent events. The profiles of the
+ * subscribers are indexed by their attributes, so a created or updated activity is only checked
+ * against the subscribers whose profile can match it, instead of every subscriber polling the catalog.
+ * The events are sent on a thread of the feed, so a slow subscriber never holds up the write which
+ * published the activity.
+ */
+@Component
+@Slf4j
+public class ActivityFeed {
+    // The name of the events carrying a compatible activity
+    public static final String EVENT_NAME = "activity";
+
+    // How long a subscription stays open, in milliseconds
+    private final transient long timeout;
+
+    // Matches the activities against each of the positions a subscriber can fill
+    private final transient PositionMatcher positionMatcher;
+
+    // Builds the checks an activity has to pass for a subscriber
+    private final transient ActivityValidators activityValidators;
+
+    // Sends the events, one at a time, so every subscriber gets them in the order they were published
+    private final transient ExecutorService dispatcher;
+
+    // The id given to the next subscriber
+    private final transient AtomicLong nextId = new AtomicLong();
+
+    // The subscribers, by their id
+    private final transient Map<Long, Subscriber> subscribers = new HashMap<>();
+
+    // The subscribers by each of the positions they can fill
+    private final transient Map<Positions, Set<Long>> byPosition = new EnumMap<>(Positions.class);
+
+    // The subscribers by their boat certificate
+    private final transient Map<BoatType, Set<Long>> byCertificate = new EnumMap<>(BoatType.class);
+
+    // The subscribers by each day of the week on which they are available
+    private final transient Map<Integer, Set<Long>> byDay = new HashMap<>();
+
+    // The subscribers by their gender
+    private final transient Map<Gender, Set<Long>> byGender = new EnumMap<>(Gender.class);
+
+    // The subscribers by their organisation
+    private final transient Map<String, Set<Long>> byOrganisation = new HashMap<>();
+
+    // The subscribers by their level
+    private final transient Map<Level, Set<Long>> byLevel = new EnumMap<>(Level.class);
+
+    // The clock used to decide which activities can no longer be joined
+    private transient MyClock myClock = new MyClock();
+
+    /**
+     * Constructor method.
+     *
+     * @param timeout how long a subscription stays open, in milliseconds
+     * @param positionMatcher matches the activities against each of the positions a subscriber can fill
+     * @param activityValidators builds the checks an activity has to pass for a subscriber
+     */
+    @Autowired
+    public ActivityFeed(@Value("${activity.feed.timeout:1800000}") long timeout, PositionMatcher positionMatcher,
+                        ActivityValidators activityValidators) {
+        this(timeout, positionMatcher, activityValidators, Executors.newSingleThreadExecutor());
+    }
+
+    /**
+     * Creates a feed which sends its events on the given executor.
+     *
+     * @param timeout how long a subscription stays open, in milliseconds
+     * @param positionMatcher matches the activities against each of the positions a subscriber can fill
+     * @param activityValidators builds the checks an activity has to pass for a subscriber
+     * @param dispatcher sends the events; it should run them one at a time, in order
+     */
+    ActivityFeed(long timeout, PositionMatcher positionMatcher, ActivityValidators activityValidators,
+                 ExecutorService dispatcher) {
+        this.timeout = timeout;
+        this.positionMatcher = positionMatcher;
+        this.activityValidators = activityValidators;
+        this.dispatcher = dispatcher;
+    }
+
+    public void setMyClock(MyClock myClock) {
+        this.myClock = myClock;
+    }
+
+    /**
+     * Subscribes a user to the activities which become compatible with their profile.
+     *
+     * @param user the user to subscribe, with the position or positions they can fill
+     * @return the emitter on which the compatible activities are sent
+     */
+    public SseEmitter subscribe(User user) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        long id = nextId.incrementAndGet();
+        add(id, new Subscriber(user, positionMatcher.positionsOf(user), emitter));
+        emitter.onCompletion(() -> remove(id));
+        emitter.onTimeout(() -> remove(id));
+        emitter.onError(e -> remove(id));
+        log.info("User {} subscribed to the activity feed", user.getId());
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Queues the given activity for every subscriber it is compatible with. The subscribers are
+     * matched on the calling thread, but the events are sent on the thread of the feed.
+     *
+     * @param activity the created or updated activity
+     * @return the number of subscribers the activity is sent to
+     */
+    public int publish(Activity activity) {
+        Validator validator = activityValidators.chainFor(activity, myClock);
+        int queued = 0;
+        for (Subscriber subscriber : candidates(activity)) {
+            List<ActivityPositionsResponseModel> match = positionMatcher.match(
+                    List.of(activity), subscriber.user, subscriber.positions, validator);
+            if (!match.isEmpty()) {
+                dispatcher.execute(() -> send(subscriber, match.get(0)));
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Get the number of open subscriptions.
+     *
+     * @return the number of subscribers
+     */
+    public synchronized int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Get the subscribers which are in every bucket the given activity matches.
+     * They still have to be checked against the validators.
+     */
+    private synchronized List<Subscriber> candidates(Activity activity) {
+        List<Set<Long>> required = new ArrayList<>();
+        Set<Positions> open = EnumSet.noneOf(Positions.class);
+        for (RequiredPositions position : activity.getPositions()) {
+            if (position.getRequiredOfPosition() > 0) {
+                open.add(position.getPosition());
+            }
+        }
+        required.add(union(byPosition, open::contains));
+        required.add(union(byCertificate, certificate -> certificate.label >= activity.getBoatType().label));
+        required.add(byDay.getOrDefault(activity.getDayOfWeek(), Collections.emptySet()));
+        if (activity instanceof Competition) {
+            Competition competition = (Competition) activity;
+            required.add(byGender.getOrDefault(competition.getAllowedGender(), Collections.emptySet()));
+            required.add(byOrganisation.getOrDefault(competition.getOrganization(), Collections.emptySet()));
+            required.add(union(byLevel, level -> level.label <= competition.getAllowedLevel().label));
+        }
+
+        Set<Long> smallest = required.get(0);
+        for (Set<Long> bucket : required) {
+            if (bucket.size() < smallest.size()) {
+                smallest = bucket;
+            }
+        }
+        List<Subscriber> result = new ArrayList<>();
+        for (Long id : smallest) {
+            if (required.stream().allMatch(bucket -> bucket.contains(id))) {
+                result.add(subscribers.get(id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sends a compatible activity to a subscriber, dropping the subscriber if the connection is gone.
+     */
+    private void send(Subscriber subscriber, ActivityPositionsResponseModel match) {
+        try {
+            subscriber.emitter.send(SseEmitter.event().name(EVENT_NAME).data(match));
+        } catch (IOException | IllegalStateException e) {
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Adds a subscriber and its profile to the index.
+     */
+    private synchronized void add(long id, Subscriber subscriber) {
+        subscribers.put(id, subscriber);
+        User user = subscriber.user;
+        for (Positions position : subscriber.positions) {
+            byPosition.computeIfAbsent(position, p -> new HashSet<>()).add(id);
+        }
+        if (user.getAvailabilities() != null) {
+            for (Availability availability : user.getAvailabilities()) {
+                byDay.computeIfAbsent(availability.getDayOfWeek(), d -> new HashSet<>()).add(id);
+            }
+        }
+        index(byCertificate, user.getCertificate(), id);
+        index(byGender, user.getGender(), id);
+        index(byOrganisation, user.getOrganisation(), id);
+        index(byLevel, user.getLevel(), id);
+    }
+
+    /**
+     * Removes a subscriber and its profile from the index.
+     */
+    private synchronized void remove(long id) {
+        if (subscribers.remove(id) == null) {
+            return;
+        }
+        for (Map<?, Set<Long>> buckets : List.of(byPosition, byCertificate, byDay, byGender, byOrganisation, byLevel)) {
+            buckets.values().removeIf(bucket -> bucket.remove(id) && bucket.isEmpty());
+        }
+    }
+
+    private static <K> void index(Map<K, Set<Long>> buckets, K key, long id) {
+        if (key != null) {
+            buckets.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    /**
+     * Get the subscribers in the buckets whose key meets the given condition.
+     */
+    private static <K> Set<Long> union(Map<K, Set<Long>> buckets, Predicate<K> condition) {
+        Set<Long> result = new HashSet<>();
+        buckets.forEach((key, ids) -> {
+            if (condition.test(key)) {
+                result.addAll(ids);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * A subscribed user and the emitter on which their activities are sent.
+     */
+    private static class Subscriber {
+        private final transient User user;
+        private final transient Set<Positions> positions;
+        private final transient SseEmitter emitter;
+
+        Subscriber(User user, Set<Positions> positions, SseEmitter emitter) {
+            this.user = user;
+            this.positions = positions;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * What identifies the state of an activity and its positions without loading them. Every write
+ * to an activity or one of its positions increases their version, and new positions always get a
+ * higher id, so any change since a copy of the activity was made gives it another fingerprint.
+ */
+@Data
+@AllArgsConstructor
+public class ActivityFingerprint {
+    // ID of the activity
+    private int activityId;
+
+    // The version of the activity
+    private long version;
+
+    // The number of positions of the activity
+    private long positionCount;
+
+    // The sum of the versions of the positions
+    private long positionVersions;
+
+    // The sum of the ids of the positions
+    private long positionIds;
+
+    /**
+     * Constructor used by the fingerprint query, which returns the aggregates as objects.
+     */
+    public ActivityFingerprint(Integer activityId, Long version, Long positionCount,
+                               Long positionVersions, Long positionIds) {
+        this(activityId.intValue(), version.longValue(), positionCount.longValue(),
+                positionVersions.longValue(), positionIds.longValue());
+    }
+
+    /**
+     * Get a strong entity tag for the activity, which changes whenever the activity or one of its
+     * positions is written.
+     *
+     * @return the entity tag, without quotes
+     */
+    public String toTag() {
+        return activityId + "-" + version + "-" + positionCount + "-" + positionVersions + "-" + positionIds;
+    }
+
+    /**
+     * Get the fingerprint of a loaded activity.
+     *
+     * @param activity the activity, with its positions
+     * @return the fingerprint of the activity
+     */
+    public static ActivityFingerprint of(Activity activity) {
+        long count = 0;
+        long versions = 0;
+        long ids = 0;
+        if (activity.getPositions() != null) {
+            for (RequiredPositions position : activity.getPositions()) {
+                count++;
+                versions += position.getVersion();
+                ids += position.getId();
+            }
+        }
+        return new ActivityFingerprint(activity.getActivityId(), activity.getVersion(), count, versions, ids);
+    }
+}
@@ -0,0 +1,467 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+
+/**
+ * Index of the activities by the attributes the validators check. A compatibility query only
+ * visits the activities that are in every bucket matching the user, instead of scanning all the
+ * activities. The same attributes are also kept column-wise in the matching engine, and the times
+ * in the availability index. The index is not thread-safe; the owner has to guard it.
+ */
+public class ActivityIndex {
+    // All the indexed activities, by their id
+    private final transient Map<Integer, Activity> activities = new HashMap<>();
+
+    // The ids of all the trainings and competitions
+    private final transient NavigableSet<Integer> trainings = new TreeSet<>();
+    private final transient NavigableSet<Integer> competitions = new TreeSet<>();
+
+    // The activity ids grouped by the attributes the validators check
+    private final transient Map<BoatType, NavigableSet<Integer>> byBoatType = new EnumMap<>(BoatType.class);
+    private final transient Map<Positions, NavigableSet<Integer>> byOpenPosition = new EnumMap<>(Positions.class);
+    private final transient Map<Gender, NavigableSet<Integer>> byGender = new EnumMap<>(Gender.class);
+    private final transient Map<Level, NavigableSet<Integer>> byLevel = new EnumMap<>(Level.class);
+    private final transient Map<String, NavigableSet<Integer>> byOrganisation = new HashMap<>();
+
+    // The same attributes, stored column-wise
+    private final transient MatchingEngine engine = new MatchingEngine();
+
+    // The activities by day of the week and start time, to match them against availability windows
+    private final transient AvailabilityIndex availabilityIndex = new AvailabilityIndex();
+
+    // The activity ids ordered by the moment they start, to skip the ones that can no longer be joined
+    private final transient NavigableMap<Long, Set<Integer>> byStartInstant = new TreeMap<>();
+    private final transient Map<Integer, Long> startInstants = new HashMap<>();
+
+    /**
+     * Stores an activity, replacing the version it had before.
+     *
+     * @param activity the activity that was created or modified
+     */
+    public void put(Activity activity) {
+        remove(activity.getActivityId());
+        int id = activity.getActivityId();
+        // The positions may have been filled in place since the activity last computed its mask
+        int openPositions = Activity.openPositionsOf(activity.getPositions());
+        activities.put(id, activity);
+        engine.put(activity, openPositions);
+        availabilityIndex.put(activity);
+        byStartInstant.computeIfAbsent(activity.getStartInstant(), t -> new TreeSet<>()).add(id);
+        startInstants.put(id, activity.getStartInstant());
+        bucket(byBoatType, activity.getBoatType(), id);
+        for (Positions position : Positions.values()) {
+            if ((openPositions & Activity.bit(position)) != 0) {
+                bucket(byOpenPosition, position, id);
+            }
+        }
+        if (activity instanceof Competition) {
+            Competition competition = (Competition) activity;
+            competitions.add(id);
+            bucket(byGender, competition.getAllowedGender(), id);
+            bucket(byLevel, competition.getAllowedLevel(), id);
+            bucket(byOrganisation, competition.getOrganization(), id);
+        } else {
+            trainings.add(id);
+        }
+    }
+
+    /**
+     * Get a stored activity.
+     *
+     * @param id the id of the activity
+     * @return the activity, or null if it is not stored
+     */
+    public Activity get(int id) {
+        return activities.get(id);
+    }
+
+    /**
+     * Removes an activity, if it was stored.
+     *
+     * @param id the id of the activity that was deleted
+     */
+    public void remove(int id) {
+        if (activities.remove(id) == null) {
+            return;
+        }
+        trainings.remove(id);
+        competitions.remove(id);
+        byBoatType.values().forEach(ids -> ids.remove(id));
+        byOpenPosition.values().forEach(ids -> ids.remove(id));
+        byGender.values().forEach(ids -> ids.remove(id));
+        byLevel.values().forEach(ids -> ids.remove(id));
+        byOrganisation.values().forEach(ids -> ids.remove(id));
+        engine.remove(id);
+        availabilityIndex.remove(id);
+        Long startInstant = startInstants.remove(id);
+        Set<Integer> sameStart = byStartInstant.get(startInstant);
+        sameStart.remove(id);
+        if (sameStart.isEmpty()) {
+            byStartInstant.remove(startInstant);
+        }
+    }
+
+    /**
+     * Removes all the activities from the index.
+     */
+    public void clear() {
+        activities.clear();
+        trainings.clear();
+        competitions.clear();
+        byBoatType.clear();
+        byOpenPosition.clear();
+        byGender.clear();
+        byLevel.clear();
+        byOrganisation.clear();
+        engine.clear();
+        availabilityIndex.clear();
+        byStartInstant.clear();
+        startInstants.clear();
+    }
+
+    /**
+     * Get all the stored activities, in no particular order.
+     *
+     * @return a view of the activities
+     */
+    public Collection<Activity> activities() {
+        return Collections.unmodifiableCollection(activities.values());
+    }
+
+    /**
+     * Get all the trainings.
+     *
+     * @return the trainings, ordered by their id
+     */
+    public List<Activity> trainings() {
+        return resolve(trainings);
+    }
+
+    /**
+     * Get all the competitions.
+     *
+     * @return the competitions, ordered by their id
+     */
+    public List<Activity> competitions() {
+        return resolve(competitions);
+    }
+
+    /**
+     * Get a page of the trainings, whatever their attributes.
+     *
+     * @param after only trainings with a higher id are returned
+     * @param limit the maximum number of trainings in the page
+     * @return the trainings, ordered by their id
+     */
+    public List<Activity> trainingsAfter(int after, int limit) {
+        return walk(List.of(trainings), after, limit, id -> true);
+    }
+
+    /**
+     * Get a page of the competitions, whatever their attributes.
+     *
+     * @param after only competitions with a higher id are returned
+     * @param limit the maximum number of competitions in the page
+     * @return the competitions, ordered by their id
+     */
+    public List<Activity> competitionsAfter(int after, int limit) {
+        return walk(List.of(competitions), after, limit, id -> true);
+    }
+
+    /**
+     * Get all the activities starting at or after the given moment, whatever their attributes.
+     *
+     * @param earliestStart the earliest start, in epoch milliseconds
+     * @return the activities, ordered by their start and then by their id
+     */
+    public List<Activity> startingFrom(long earliestStart) {
+        List<Activity> result = new ArrayList<>();
+        for (Set<Integer> sameStart : byStartInstant.tailMap(earliestStart, true).values()) {
+            for (Integer id : sameStart) {
+                result.add(activities.get(id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the start of the first training or competition starting at or after the given moment.
+     *
+     * @param competition whether to look at the competitions, rather than the trainings
+     * @param earliestStart the earliest start, in epoch milliseconds
+     * @return the start, in epoch milliseconds, or {@link Long#MAX_VALUE} if there is none
+     */
+    public long firstStart(boolean competition, long earliestStart) {
+        NavigableSet<Integer> ofKind = competition ? competitions : trainings;
+        for (Map.Entry<Long, Set<Integer>> sameStart : byStartInstant.tailMap(earliestStart, true).entrySet()) {
+            for (Integer id : sameStart.getValue()) {
+                if (ofKind.contains(id)) {
+                    return sameStart.getKey();
+                }
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Get a page of the trainings that are in every bucket the given user matches, fit in one of
+     * the availability windows of the user and start late enough to still be joined. Only the
+     * smaller of the trainings and the bucket of the position is walked, from the cursor on,
+     * and the other attributes are looked up per training, so nothing beyond the page is collected.
+     *
+     * @param user the user for which to retrieve the trainings
+     * @param earliestStart the earliest start a training can have, in epoch milliseconds
+     * @param after only trainings with a higher id are returned
+     * @param limit the maximum number of trainings in the page
+     * @return the candidate trainings, ordered by their id
+     */
+    public List<Activity> candidateTrainings(User user, long earliestStart, int after, int limit) {
+        List<NavigableSet<Integer>> required = List.of(trainings,
+                byOpenPosition.getOrDefault(user.getPosition(), Collections.emptyNavigableSet()));
+        return walk(required, after, limit, id -> fits(id, user, earliestStart));
+    }
+
+    /**
+     * Get the trainings that are in every bucket the given user matches, with an open spot
+     * for at least one of the given positions.
+     *
+     * @param user the user for which to retrieve the trainings
+     * @param positions the positions the user can fill
+     * @param earliestStart the earliest start a training can have, in epoch milliseconds
+     * @return the candidate trainings, ordered by their id
+     */
+    public List<Activity> candidateTrainings(User user, Set<Positions> positions, long earliestStart) {
+        if (byStartInstant.ceilingKey(earliestStart) == null) {
+            return new ArrayList<>();
+        }
+        List<Set<Integer>> required = commonBuckets(user, positions);
+        required.add(trainings);
+        return intersect(required, earliestStart);
+    }
+
+    /**
+     * Get a page of the competitions that are in every bucket the given user matches, fit in one
+     * of the availability windows of the user and start late enough to still be joined. Only the
+     * smallest of the exact buckets is walked, from the cursor on, and the other attributes are
+     * looked up per competition, so nothing beyond the page is collected.
+     *
+     * @param user the user for which to retrieve the competitions
+     * @param earliestStart the earliest start a competition can have, in epoch milliseconds
+     * @param after only competitions with a higher id are returned
+     * @param limit the maximum number of competitions in the page
+     * @return the candidate competitions, ordered by their id
+     */
+    public List<Activity> candidateCompetitions(User user, long earliestStart, int after, int limit) {
+        List<NavigableSet<Integer>> required = List.of(competitions,
+                byOpenPosition.getOrDefault(user.getPosition(), Collections.emptyNavigableSet()),
+                byGender.getOrDefault(user.getGender(), Collections.emptyNavigableSet()),
+                byOrganisation.getOrDefault(user.getOrganisation(), Collections.emptyNavigableSet()));
+        return walk(required, after, limit, id -> {
+            Level level = ((Competition) activities.get(id)).getAllowedLevel();
+            return level != null && level.label >= user.getLevel().label && fits(id, user, earliestStart);
+        });
+    }
+
+    /**
+     * Get the competitions that are in every bucket the given user matches, with an open spot
+     * for at least one of the given positions.
+     *
+     * @param user the user for which to retrieve the competitions
+     * @param positions the positions the user can fill
+     * @param earliestStart the earliest start a competition can have, in epoch milliseconds
+     * @return the candidate competitions, ordered by their id
+     */
+    public List<Activity> candidateCompetitions(User user, Set<Positions> positions, long earliestStart) {
+        if (byStartInstant.ceilingKey(earliestStart) == null) {
+            return new ArrayList<>();
+        }
+        List<Set<Integer>> required = commonBuckets(user, positions);
+        required.add(competitions);
+        required.add(byGender.getOrDefault(user.getGender(), Collections.emptyNavigableSet()));
+        required.add(byOrganisation.getOrDefault(user.getOrganisation(), Collections.emptyNavigableSet()));
+        required.add(union(byLevel, level -> level.label >= user.getLevel().label));
+        return intersect(required, earliestStart);
+    }
+
+    /**
+     * Get the ids of the trainings which the matching engine finds compatible with the given user
+     * and which fit in one of the availability windows of the user.
+     *
+     * @param user the user for which to retrieve the trainings
+     * @param earliestStart the earliest start a training can have, in epoch milliseconds
+     * @return the ids of the matching trainings, in ascending order
+     */
+    public List<Integer> matchTrainings(User user, long earliestStart) {
+        List<Integer> ids = engine.matchTrainings(user, earliestStart);
+        ids.removeIf(id -> !availabilityIndex.fitsIn(id, user.getAvailabilities()));
+        return ids;
+    }
+
+    /**
+     * Get the ids of the competitions which the matching engine finds compatible with the given user
+     * and which fit in one of the availability windows of the user.
+     *
+     * @param user the user for which to retrieve the competitions
+     * @param earliestStart the earliest start a competition can have, in epoch milliseconds
+     * @return the ids of the matching competitions, in ascending order
+     */
+    public List<Integer> matchCompetitions(User user, long earliestStart) {
+        List<Integer> ids = engine.matchCompetitions(user, earliestStart);
+        ids.removeIf(id -> !availabilityIndex.fitsIn(id, user.getAvailabilities()));
+        return ids;
+    }
+
+    /**
+     * Get a page of the activities with the given ids which are still stored.
+     *
+     * @param ids the ids of the activities, in ascending order
+     * @param after only activities with a higher id are returned
+     * @param limit the maximum number of activities in the page
+     * @return the activities, ordered by their id
+     */
+    public List<Activity> activitiesAfter(List<Integer> ids, int after, int limit) {
+        int from = Collections.binarySearch(ids, after);
+        from = from >= 0 ? from + 1 : -from - 1;
+        List<Activity> page = new ArrayList<>();
+        for (Integer id : ids.subList(from, ids.size())) {
+            Activity activity = activities.get(id);
+            if (activity != null) {
+                page.add(activity);
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Get the activities with the given ids, in the order of the ids.
+     */
+    private List<Activity> resolve(Set<Integer> ids) {
+        List<Activity> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            result.add(activities.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Get the buckets that both trainings and competitions have to be in for the given user,
+     * who can fill any of the given positions.
+     */
+    private List<Set<Integer>> commonBuckets(User user, Set<Positions> positions) {
+        List<Set<Integer>> required = new ArrayList<>();
+        if (positions.size() == 1) {
+            required.add(byOpenPosition.getOrDefault(positions.iterator().next(), Collections.emptyNavigableSet()));
+        } else {
+            required.add(union(byOpenPosition, positions::contains));
+        }
+        required.add(union(byBoatType, boatType -> boatType.label <= user.getCertificate().label));
+        required.add(availabilityIndex.containedIn(user.getAvailabilities()));
+        return required;
+    }
+
+    /**
+     * Walks the smallest bucket and keeps the activities that are present in all the others
+     * and start late enough. The start is looked up per activity rather than collected into
+     * another bucket, so the activities which can still be joined are never copied.
+     *
+     * @param required the buckets an activity has to be in
+     * @param earliestStart the earliest start an activity can have, in epoch milliseconds
+     * @return the activities present in all the buckets, ordered by their id
+     */
+    private List<Activity> intersect(List<Set<Integer>> required, long earliestStart) {
+        Set<Integer> smallest = required.get(0);
+        for (Set<Integer> bucket : required) {
+            if (bucket.size() < smallest.size()) {
+                smallest = bucket;
+            }
+        }
+
+        List<Activity> result = new ArrayList<>();
+        for (Integer id : smallest) {
+            if (startInstants.get(id) >= earliestStart && required.stream().allMatch(bucket -> bucket.contains(id))) {
+                result.add(activities.get(id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Walks the smallest of the given buckets from the cursor on, and keeps the activities that are
+     * present in all the others and pass the given condition, until the page is full.
+     *
+     * @param required the buckets an activity has to be in
+     * @param after only activities with a higher id are returned
+     * @param limit the maximum number of activities in the page
+     * @param condition the remaining condition an activity has to pass, looked up by its id
+     * @return the activities present in all the buckets, ordered by their id
+     */
+    private List<Activity> walk(List<NavigableSet<Integer>> required, int after, int limit,
+                                Predicate<Integer> condition) {
+        NavigableSet<Integer> smallest = required.get(0);
+        for (NavigableSet<Integer> bucket : required) {
+            if (bucket.size() < smallest.size()) {
+                smallest = bucket;
+            }
+        }
+
+        List<Activity> page = new ArrayList<>();
+        for (Integer id : smallest.tailSet(after, false)) {
+            if (required.stream().allMatch(bucket -> bucket.contains(id)) && condition.test(id)) {
+                page.add(activities.get(id));
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Checks whether an activity starts late enough, needs a boat the user is certified for
+     * and fits in one of the availability windows of the user.
+     */
+    private boolean fits(int id, User user, long earliestStart) {
+        BoatType boatType = activities.get(id).getBoatType();
+        return startInstants.get(id) >= earliestStart
+                && boatType != null && boatType.label <= user.getCertificate().label
+                && availabilityIndex.fitsIn(id, user.getAvailabilities());
+    }
+
+    /**
+     * Merges all the buckets whose key matches the given condition.
+     */
+    private static <K> Set<Integer> union(Map<K, NavigableSet<Integer>> buckets, Predicate<K> condition) {
+        Set<Integer> result = new TreeSet<>();
+        buckets.forEach((key, ids) -> {
+            if (condition.test(key)) {
+                result.addAll(ids);
+            }
+        });
+        return result;
+    }
+
+    private static <K> void bucket(Map<K, NavigableSet<Integer>> buckets, K key, int id) {
+        if (key != null) {
+            buckets.computeIfAbsent(key, k -> new TreeSet<>()).add(id);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+
+/**
+ * A flat row describing an activity for the listings, with the number of spots left for every
+ * position inlined instead of a collection of position entities. The rows are kept by the activity
+ * catalog and replaced whenever their activity is written, so listing them never reads the database.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityListing {
+    // ID of the activity
+    private int activityId;
+
+    // Whether the activity is a competition rather than a training
+    private boolean competition;
+
+    // The ID of the owner of the activity
+    private int ownerId;
+
+    // The date when the activity takes place
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private Date activityDate;
+
+    // The hour when the activity starts.
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm")
+    private LocalTime startTime;
+
+    // The hour when the activity ends.
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm")
+    private LocalTime endTime;
+
+    // The type of boat in which the activity takes place.
+    private BoatType boatType;
+
+    // The number of spots left for every position of the activity
+    private Map<Positions, Integer> positions;
+
+    // The total number of spots left
+    private int openSpots;
+
+    // The level, gender and organization required for a competition; empty for a training
+    private Level allowedLevel;
+    private Gender allowedGender;
+    private String organization;
+
+    /**
+     * Get the listing row of an activity.
+     *
+     * @param activity the activity, with its positions
+     * @return the listing row of the activity
+     */
+    public static ActivityListing of(Activity activity) {
+        ActivityListing listing = new ActivityListing();
+        listing.activityId = activity.getActivityId();
+        listing.ownerId = activity.getOwnerId();
+        listing.activityDate = activity.getActivityDate();
+        listing.startTime = activity.getStartTime();
+        listing.endTime = activity.getEndTime();
+        listing.boatType = activity.getBoatType();
+        listing.positions = new EnumMap<>(Positions.class);
+        if (activity.getPositions() != null) {
+            for (RequiredPositions position : activity.getPositions()) {
+                listing.positions.merge(position.getPosition(), position.getRequiredOfPosition(), Integer::sum);
+                listing.openSpots += position.getRequiredOfPosition();
+            }
+        }
+        if (activity instanceof Competition) {
+            Competition source = (Competition) activity;
+            listing.competition = true;
+            listing.allowedLevel = source.getAllowedLevel();
+            listing.allowedGender = source.getAllowedGender();
+            listing.organization = source.getOrganization();
+        }
+        return listing;
+    }
+}
@@ -0,0 +1,64 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The flat listing rows of the activities, kept apart for trainings and competitions and ordered
+ * by the id of their activity, so a listing is served without building the rows again.
+ * The listings are not thread-safe; the owner has to guard them.
+ */
+public class ActivityListings {
+    // The listing row of every training and competition, by the id of its activity
+    private final transient NavigableMap<Integer, ActivityListing> trainings = new TreeMap<>();
+    private final transient NavigableMap<Integer, ActivityListing> competitions = new TreeMap<>();
+
+    /**
+     * Stores the listing row of an activity, replacing the one it had before.
+     *
+     * @param activity the activity that was created or modified
+     */
+    public void put(Activity activity) {
+        remove(activity.getActivityId());
+        NavigableMap<Integer, ActivityListing> rows = activity instanceof Competition ? competitions : trainings;
+        rows.put(activity.getActivityId(), ActivityListing.of(activity));
+    }
+
+    /**
+     * Removes the listing row of an activity, if it was stored.
+     *
+     * @param activityId the id of the activity that was deleted
+     */
+    public void remove(int activityId) {
+        trainings.remove(activityId);
+        competitions.remove(activityId);
+    }
+
+    /**
+     * Removes all the listing rows.
+     */
+    public void clear() {
+        trainings.clear();
+        competitions.clear();
+    }
+
+    /**
+     * Get the listing rows of all the trainings.
+     *
+     * @return the listing rows, ordered by the id of their training
+     */
+    public List<ActivityListing> trainings() {
+        return new ArrayList<>(trainings.values());
+    }
+
+    /**
+     * Get the listing rows of all the competitions.
+     *
+     * @return the listing rows, ordered by the id of their competition
+     */
+    public List<ActivityListing> competitions() {
+        return new ArrayList<>(competitions.values());
+    }
+}
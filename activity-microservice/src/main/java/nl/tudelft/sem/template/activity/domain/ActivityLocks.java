@@ -0,0 +1,146 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import nl.tudelft.sem.template.activity.models.LockStatsResponseModel;
+import nl.tudelft.sem.template.activity.models.StripeStatsResponseModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Striped in-process locks serialising the removals of the same activity: deleting it, archiving it
+ * and deleting its series. Every activity id maps to one of a fixed number of stripes, so removals
+ * of different activities almost always run in parallel, while two removals of the same activity
+ * never interleave. A removal which cannot get its stripe within the timeout is refused.
+ * Updates and fills do not take the stripes; they are ordered by the versions of the activities.
+ */
+@Component
+public class ActivityLocks {
+    // The exclusive upper bounds of the wait time buckets, in milliseconds; the last bucket is unbounded
+    private static final long[] BUCKET_BOUNDS = {1, 5, 25, 100, 500};
+
+    // The locks, one per stripe
+    private final transient ReentrantLock[] locks;
+
+    // How long a write waits for its stripe before it is refused, in milliseconds
+    private final transient long timeout;
+
+    // Per stripe: the number of acquisitions, how many of them had to wait, how many timed out
+    // and the total time waited in nanoseconds
+    private final transient AtomicLongArray acquisitions;
+    private final transient AtomicLongArray contended;
+    private final transient AtomicLongArray timeouts;
+    private final transient AtomicLongArray waitNanos;
+
+    // Per stripe and bucket, the number of waits which fell in the bucket
+    private final transient AtomicLongArray histogram;
+
+    /**
+     * Constructor method.
+     *
+     * @param stripes the number of stripes, rounded up to a power of two
+     * @param timeout how long a write waits for its stripe before it is refused, in milliseconds
+     */
+    public ActivityLocks(@Value("${activity.locks.stripes:64}") int stripes,
+                         @Value("${activity.locks.timeout:2000}") long timeout) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.timeout = timeout;
+        this.acquisitions = new AtomicLongArray(size);
+        this.contended = new AtomicLongArray(size);
+        this.timeouts = new AtomicLongArray(size);
+        this.waitNanos = new AtomicLongArray(size);
+        this.histogram = new AtomicLongArray(size * (BUCKET_BOUNDS.length + 1));
+    }
+
+    /**
+     * Runs the given write while holding the lock of the stripe of the activity.
+     *
+     * @param activityId the id of the activity that is written
+     * @param write the write to run
+     * @param <T> the type of the result of the write
+     * @return the result of the write
+     * @throws ActivityBusyException if the stripe could not be locked within the timeout
+     */
+    public <T> T withLock(int activityId, Supplier<T> write) {
+        int stripe = stripe(activityId);
+        ReentrantLock lock = locks[stripe];
+        if (!lock.tryLock()) {
+            contended.incrementAndGet(stripe);
+            long start = System.nanoTime();
+            boolean locked;
+            try {
+                locked = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                locked = false;
+            }
+            long waited = System.nanoTime() - start;
+            waitNanos.addAndGet(stripe, waited);
+            histogram.incrementAndGet(stripe * (BUCKET_BOUNDS.length + 1) + bucket(waited));
+            if (!locked) {
+                timeouts.incrementAndGet(stripe);
+                throw new ActivityBusyException(activityId);
+            }
+        }
+        acquisitions.incrementAndGet(stripe);
+        try {
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the contention of every stripe that was locked or waited on so far.
+     *
+     * @return the bounds of the wait time buckets and the statistics of the stripes
+     */
+    public LockStatsResponseModel getStats() {
+        List<Long> bounds = new ArrayList<>();
+        for (long bound : BUCKET_BOUNDS) {
+            bounds.add(bound);
+        }
+        List<StripeStatsResponseModel> stripes = new ArrayList<>();
+        for (int stripe = 0; stripe < locks.length; stripe++) {
+            if (acquisitions.get(stripe) == 0 && timeouts.get(stripe) == 0) {
+                continue;
+            }
+            List<Long> waits = new ArrayList<>();
+            for (int bucket = 0; bucket <= BUCKET_BOUNDS.length; bucket++) {
+                waits.add(histogram.get(stripe * (BUCKET_BOUNDS.length + 1) + bucket));
+            }
+            stripes.add(new StripeStatsResponseModel(stripe, acquisitions.get(stripe), contended.get(stripe),
+                    timeouts.get(stripe), TimeUnit.NANOSECONDS.toMillis(waitNanos.get(stripe)), waits));
+        }
+        return new LockStatsResponseModel(bounds, stripes);
+    }
+
+    /**
+     * Get the stripe of an activity; the id is mixed first so consecutive ids spread over the stripes.
+     */
+    int stripe(int activityId) {
+        int hash = activityId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (locks.length - 1);
+    }
+
+    private static int bucket(long waitedNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(waitedNanos);
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            if (millis < BUCKET_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS.length;
+    }
+}
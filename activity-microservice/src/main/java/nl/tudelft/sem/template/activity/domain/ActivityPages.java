@@ -0,0 +1,59 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks a source of activities page by page, with keyset paging on the activity id. A page is
+ * only fetched once the previous one has been consumed, so a consumer which stops early never
+ * causes the remaining activities to be read, and activities added in the meantime behind the
+ * cursor are still found.
+ */
+final class ActivityPages {
+    private ActivityPages() {
+    }
+
+    /**
+     * Get the pages of activities after the given cursor, as a lazy stream.
+     *
+     * @param after only activities with a higher id are returned
+     * @param nextPage fetches the page of activities after the given id, ordered by their id;
+     *                 an empty page ends the stream
+     * @return the pages, in the order of the ids of their activities
+     */
+    static Stream<List<Activity>> after(int after, IntFunction<List<Activity>> nextPage) {
+        Iterator<List<Activity>> pages = new Iterator<>() {
+            private int cursor = after;
+            private List<Activity> page;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (page == null && !done) {
+                    page = nextPage.apply(cursor);
+                    done = page.isEmpty();
+                }
+                return !done;
+            }
+
+            @Override
+            public List<Activity> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<Activity> current = page;
+                cursor = current.get(current.size() - 1).getActivityId();
+                page = null;
+                return current;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
@@ -0,0 +1,101 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * The orders in which the best compatible activities can be picked for a user.
+ */
+public enum ActivityRanking {
+    // The activities starting first
+    SOONEST_START,
+    // The activities leaving the least room in the availability window they fit in
+    TIGHTEST_FIT,
+    // The activities with the most positions still to be filled
+    MOST_OPEN_SEATS;
+
+    /**
+     * Get the comparator ordering the activities from best to worst for the given user.
+     * Activities which rank the same are ordered by their id.
+     *
+     * @param user the user the activities are compatible with
+     * @return the comparator
+     */
+    public Comparator<Activity> comparator(User user) {
+        Comparator<Activity> comparator;
+        switch (this) {
+            case TIGHTEST_FIT:
+                comparator = Comparator.comparingLong(activity -> slack(user, activity));
+                break;
+            case MOST_OPEN_SEATS:
+                comparator = Comparator.comparingInt(ActivityRanking::openSeats).reversed();
+                break;
+            default:
+                comparator = Comparator.comparingLong(Activity::getStartInstant);
+                break;
+        }
+        return comparator.thenComparingInt(Activity::getActivityId);
+    }
+
+    /**
+     * Picks the best activities of the given matches. Only the best ones seen so far are kept,
+     * in a heap holding at most the requested number of activities, so the matches are never
+     * collected and sorted as a whole.
+     *
+     * @param matches the compatible activities
+     * @param user the user the activities are compatible with
+     * @param limit the maximum number of activities to pick
+     * @return the best activities, from best to worst
+     */
+    public List<Activity> top(Stream<Activity> matches, User user, int limit) {
+        Comparator<Activity> comparator = comparator(user);
+        PriorityQueue<Activity> heap = new PriorityQueue<>(limit, comparator.reversed());
+        matches.forEach(activity -> {
+            if (heap.size() < limit) {
+                heap.add(activity);
+            } else if (comparator.compare(activity, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(activity);
+            }
+        });
+        List<Activity> result = new ArrayList<>(heap);
+        result.sort(comparator);
+        return result;
+    }
+
+    /**
+     * Get the number of minutes the tightest availability window of the user around the activity
+     * leaves free, or the largest value if none of the windows holds the activity.
+     */
+    private static long slack(User user, Activity activity) {
+        long best = Long.MAX_VALUE;
+        if (user.getAvailabilities() == null) {
+            return best;
+        }
+        for (Availability availability : user.getAvailabilities()) {
+            if (availability.getDayOfWeek() == activity.getDayOfWeek()
+                    && !activity.getStartTime().isBefore(availability.getStartTime())
+                    && !activity.getEndTime().isAfter(availability.getEndTime())) {
+                long window = Duration.between(availability.getStartTime(), availability.getEndTime()).toMinutes();
+                long length = Duration.between(activity.getStartTime(), activity.getEndTime()).toMinutes();
+                best = Math.min(best, window - length);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get the number of positions of the activity that still have to be filled.
+     */
+    private static int openSeats(Activity activity) {
+        int seats = 0;
+        for (RequiredPositions position : activity.getPositions()) {
+            seats += Math.max(0, position.getRequiredOfPosition());
+        }
+        return seats;
+    }
+}
@@ -1,8 +1,26 @@
 package nl.tudelft.sem.template.activity.domain;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import nl.tudelft.sem.template.activity.domain.filters.StartTimeValidator;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * A DDD repository for querying and persisting user aggregate roots.
@@ -10,13 +28,187 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ActivityRepository extends JpaRepository<Activity, String> {
     /**
-     * Find activity by its ID.
+     * Find all the activities, with their positions fetched in the same query.
      */
-    Optional<Activity> findByActivityId(int activityId);
+    @Override
+    @Query("SELECT DISTINCT a FROM Activity a LEFT JOIN FETCH a.positions")
+    List<Activity> findAll();
+
+    /**
+     * Find activity by its ID, with its positions fetched in the same query.
+     */
+    @Query("SELECT a FROM Activity a LEFT JOIN FETCH a.positions WHERE a.activityId = :activityId")
+    Optional<Activity> findByActivityId(@Param("activityId") int activityId);
+
+    /**
+     * Increases the version of an activity, without loading it. The row of the activity stays
+     * taken until the transaction ends, so writes which change its positions directly in the
+     * database still run one after another, and the catalog can tell their results apart.
+     *
+     * @param activityId the id of the activity
+     * @return 1 if the activity exists, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Activity a SET a.version = a.version + 1 WHERE a.activityId = :activityId")
+    int bumpVersion(@Param("activityId") int activityId);
+
+    /**
+     * Increases the version of an activity, without loading it, as long as it is still the given one.
+     * The row of the activity stays taken until the transaction ends.
+     *
+     * @param activityId the id of the activity
+     * @param version the version of the activity that was read
+     * @return 1 if the activity was still at the given version, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Activity a SET a.version = a.version + 1"
+            + " WHERE a.activityId = :activityId AND a.version = :version")
+    int claim(@Param("activityId") int activityId, @Param("version") long version);
+
+    /**
+     * Find all the trainings, with their positions fetched in the same query.
+     */
+    @Query("SELECT DISTINCT t FROM Training t LEFT JOIN FETCH t.positions ORDER BY t.activityId")
+    List<Activity> findAllTrainings();
+
+    /**
+     * Find all the competitions, with their positions fetched in the same query.
+     */
+    @Query("SELECT DISTINCT c FROM Competition c LEFT JOIN FETCH c.positions ORDER BY c.activityId")
+    List<Activity> findAllCompetitions();
+
+    /**
+     * Find the activities with the given ids, with their positions fetched in the same query.
+     */
+    @Query("SELECT DISTINCT a FROM Activity a LEFT JOIN FETCH a.positions WHERE a.activityId IN :ids")
+    List<Activity> findAllWithPositions(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Find the fingerprint of every activity, computed by the database without loading the activities.
+     */
+    @Query("SELECT new nl.tudelft.sem.template.activity.domain.ActivityFingerprint(a.activityId, a.version, "
+            + "COUNT(p), COALESCE(SUM(p.version), 0L), COALESCE(SUM(p.id), 0L)) "
+            + "FROM Activity a LEFT JOIN a.positions p GROUP BY a.activityId, a.version")
+    List<ActivityFingerprint> findFingerprints();
 
     /**
      * Check if an existing activity already uses an ID.
      */
     boolean existsByActivityId(int activityId);
-}
 
+    /**
+     * Find the activities starting before the given moment, with all their positions.
+     */
+    @Query("SELECT DISTINCT a FROM Activity a LEFT JOIN FETCH a.positions WHERE a.startInstant < :cutoff")
+    List<Activity> findStartingBefore(@Param("cutoff") long cutoff);
+
+    /**
+     * Find the ids of a page of the trainings after the given id, starting from the given moment,
+     * on one of the given days of the week, with one of the given boat types and an open spot for
+     * the given position. Only the ids are paged, so the limit is applied by the database
+     * and not after fetching the positions of every training.
+     */
+    @Query("SELECT t.activityId FROM Training t"
+            + " WHERE t.activityId > :after AND t.startInstant >= :earliestStart AND t.dayOfWeek IN :days"
+            + " AND t.boatType IN :boatTypes"
+            + " AND EXISTS (SELECT p FROM Activity b JOIN b.positions p WHERE b.activityId = t.activityId"
+            + " AND p.position = :position AND p.requiredOfPosition > 0)"
+            + " ORDER BY t.activityId")
+    List<Integer> findTrainingIds(@Param("after") int after,
+                                  @Param("earliestStart") long earliestStart,
+                                  @Param("days") Collection<Integer> days,
+                                  @Param("boatTypes") Collection<BoatType> boatTypes,
+                                  @Param("position") Positions position,
+                                  Pageable page);
+
+    /**
+     * Find the ids of a page of the competitions after the given id, starting from the given moment,
+     * on one of the given days of the week, with one of the given boat types and levels, the given
+     * gender and organization and an open spot for the given position. Only the ids are
+     * paged, so the limit is applied by the database and not after fetching the positions of every
+     * competition.
+     */
+    @Query("SELECT c.activityId FROM Competition c"
+            + " WHERE c.activityId > :after AND c.startInstant >= :earliestStart AND c.dayOfWeek IN :days"
+            + " AND c.boatType IN :boatTypes AND c.allowedLevel IN :levels"
+            + " AND c.allowedGender = :gender AND c.organization = :organization"
+            + " AND EXISTS (SELECT p FROM Activity b JOIN b.positions p WHERE b.activityId = c.activityId"
+            + " AND p.position = :position AND p.requiredOfPosition > 0)"
+            + " ORDER BY c.activityId")
+    List<Integer> findCompetitionIds(@Param("after") int after,
+                                     @Param("earliestStart") long earliestStart,
+                                     @Param("days") Collection<Integer> days,
+                                     @Param("boatTypes") Collection<BoatType> boatTypes,
+                                     @Param("levels") Collection<Level> levels,
+                                     @Param("gender") Gender gender,
+                                     @Param("organization") String organization,
+                                     @Param("position") Positions position,
+                                     Pageable page);
+
+    /**
+     * Find a page of the trainings which pass the certificate, position and start time checks for
+     * the given user and take place on one of the days the user is available.
+     *
+     * @param user the user for which to find the trainings
+     * @param currentTime the current time, in epoch milliseconds
+     * @param after only trainings with a higher id are returned
+     * @param limit the maximum number of trainings in the page
+     * @return the trainings, with their positions, ordered by their id
+     */
+    default List<Activity> findCompatibleTrainings(User user, long currentTime, int after, int limit) {
+        Set<Integer> days = availableDays(user);
+        if (days.isEmpty()) {
+            return List.of();
+        }
+        return findInOrder(findTrainingIds(after, StartTimeValidator.earliestStart(false, currentTime), days,
+                certifiedBoatTypes(user), user.getPosition(), PageRequest.of(0, limit)));
+    }
+
+    /**
+     * Find a page of the competitions which pass the certificate, gender, organization, experience,
+     * position and start time checks for the given user and take place on one of the days the user
+     * is available.
+     *
+     * @param user the user for which to find the competitions
+     * @param currentTime the current time, in epoch milliseconds
+     * @param after only competitions with a higher id are returned
+     * @param limit the maximum number of competitions in the page
+     * @return the competitions, with their positions, ordered by their id
+     */
+    default List<Activity> findCompatibleCompetitions(User user, long currentTime, int after, int limit) {
+        Set<Integer> days = availableDays(user);
+        if (days.isEmpty()) {
+            return List.of();
+        }
+        List<Level> levels = Arrays.stream(Level.values())
+                .filter(level -> level.label >= user.getLevel().label)
+                .collect(Collectors.toList());
+        return findInOrder(findCompetitionIds(after, StartTimeValidator.earliestStart(true, currentTime), days,
+                certifiedBoatTypes(user), levels, user.getGender(), user.getOrganisation(),
+                user.getPosition(), PageRequest.of(0, limit)));
+    }
+
+    /**
+     * Find the activities with the given ids, with their positions, in the order of their ids.
+     */
+    private List<Activity> findInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Activity> activities = new ArrayList<>(findAllWithPositions(ids));
+        activities.sort(Comparator.comparingInt(Activity::getActivityId));
+        return activities;
+    }
+
+    private static Set<Integer> availableDays(User user) {
+        return user.getAvailabilities().stream().map(Availability::getDayOfWeek).collect(Collectors.toSet());
+    }
+
+    private static List<BoatType> certifiedBoatTypes(User user) {
+        return Arrays.stream(BoatType.values())
+                .filter(boatType -> boatType.label <= user.getCertificate().label)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,54 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.List;
+import nl.tudelft.sem.template.activity.domain.filters.AdaptiveValidator;
+import nl.tudelft.sem.template.activity.domain.filters.AvailabilityValidator;
+import nl.tudelft.sem.template.activity.domain.filters.CertificateValidator;
+import nl.tudelft.sem.template.activity.domain.filters.ExperienceValidator;
+import nl.tudelft.sem.template.activity.domain.filters.GenderValidator;
+import nl.tudelft.sem.template.activity.domain.filters.OrganizationValidator;
+import nl.tudelft.sem.template.activity.domain.filters.PositionValidator;
+import nl.tudelft.sem.template.activity.domain.filters.StartTimeValidator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the validators which run every check an activity has to pass, including availability
+ * and start time. Everything that checks activities one by one without the catalog or the
+ * database narrowing them down first uses these, so they all apply the same requirements.
+ */
+@Component
+public class ActivityValidators {
+    /**
+     * All the checks a training has to pass.
+     *
+     * @param myClock the clock used to decide which trainings can no longer be joined
+     * @return a new validator running the training checks
+     */
+    public AdaptiveValidator trainingChain(MyClock myClock) {
+        return new AdaptiveValidator(List.of(new CertificateValidator(), new PositionValidator(),
+                new AvailabilityValidator(), new StartTimeValidator(myClock)));
+    }
+
+    /**
+     * All the checks a competition has to pass.
+     *
+     * @param myClock the clock used to decide which competitions can no longer be joined
+     * @return a new validator running the competition checks
+     */
+    public AdaptiveValidator competitionChain(MyClock myClock) {
+        return new AdaptiveValidator(List.of(new CertificateValidator(), new GenderValidator(),
+                new OrganizationValidator(), new ExperienceValidator(), new PositionValidator(),
+                new AvailabilityValidator(), new StartTimeValidator(myClock)));
+    }
+
+    /**
+     * All the checks the given activity has to pass.
+     *
+     * @param activity the training or competition to check
+     * @param myClock the clock used to decide which activities can no longer be joined
+     * @return a new validator running the checks of the kind of the activity
+     */
+    public AdaptiveValidator chainFor(Activity activity, MyClock myClock) {
+        return activity instanceof Competition ? competitionChain(myClock) : trainingChain(myClock);
+    }
+}
@@ -0,0 +1,140 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Moves the activities whose date has passed, with their positions, from the activity table to
+ * the archive, so the activity table and the in-memory indexes only hold the activities that can
+ * still be joined. The archive stays available for history queries.
+ */
+@Service
+@Slf4j
+public class ArchivalService {
+    // The repository containing all the activities
+    private final transient ActivityRepository activityRepository;
+
+    // The repository containing the archived activities
+    private final transient ArchivedActivityRepository archivedActivityRepository;
+
+    // The in-memory index of the activities
+    private final transient ActivityCatalog activityCatalog;
+
+    // Serialises the removals of the same activity
+    private final transient ActivityLocks activityLocks;
+
+    // The clock used to decide which activities have passed
+    private transient MyClock myClock = new MyClock();
+
+    /**
+     * Constructor method.
+     *
+     * @param activityRepository The repository containing all the activities
+     * @param archivedActivityRepository The repository containing the archived activities
+     * @param activityCatalog The in-memory index of the activities
+     * @param activityLocks Serialises the removals of the same activity
+     */
+    public ArchivalService(ActivityRepository activityRepository,
+                           ArchivedActivityRepository archivedActivityRepository,
+                           ActivityCatalog activityCatalog, ActivityLocks activityLocks) {
+        this.activityRepository = activityRepository;
+        this.archivedActivityRepository = archivedActivityRepository;
+        this.activityCatalog = activityCatalog;
+        this.activityLocks = activityLocks;
+    }
+
+    public void setMyClock(MyClock myClock) {
+        this.myClock = myClock;
+    }
+
+    /**
+     * Archives every activity taking place on a day before the current one. The activities are only
+     * dropped from the catalog once the transaction has committed, so a rollback leaves it intact.
+     *
+     * @return the number of archived activities
+     */
+    @Scheduled(fixedDelayString = "${activity.archive.interval:3600000}",
+            initialDelayString = "${activity.archive.interval:3600000}")
+    @Transactional
+    public int archivePastActivities() {
+        long now = myClock.getCurrentTime();
+        LocalDate today = Instant.ofEpochMilli(now).atZone(ZoneId.systemDefault()).toLocalDate();
+        long cutoff = today.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<Activity> past = activityRepository.findStartingBefore(cutoff);
+        if (past.isEmpty()) {
+            return 0;
+        }
+
+        List<ArchivedActivity> archived = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        for (Activity activity : past) {
+            archived.add(new ArchivedActivity(activity, now));
+            ids.add(activity.getActivityId());
+        }
+        archivedActivityRepository.saveAll(archived);
+        activityRepository.deleteAll(past);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                evict(ids);
+            }
+        });
+        log.info("Archived {} activities which took place before {}", past.size(), today);
+        return past.size();
+    }
+
+    /**
+     * Drops the archived activities from the catalog, each while holding the stripe of the activity,
+     * like any other removal of it. If a stripe stays busy, the whole catalog is dropped instead, to
+     * be filled again from the repository.
+     */
+    private void evict(List<Integer> ids) {
+        for (Integer id : ids) {
+            try {
+                activityLocks.withLock(id, () -> {
+                    activityCatalog.remove(id);
+                    return null;
+                });
+            } catch (ActivityBusyException e) {
+                log.warn("Activity {} stayed busy while it was archived, the catalog will be reloaded", id);
+                activityCatalog.invalidate();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the archived activities, the most recent first.
+     *
+     * @param ownerId the owner whose activities to return, or null for the activities of all owners
+     * @return the archived activities with their positions
+     */
+    @Transactional(readOnly = true)
+    public List<ArchivedActivity> getHistory(Integer ownerId) {
+        if (ownerId == null) {
+            return archivedActivityRepository.findHistory();
+        }
+        return archivedActivityRepository.findHistoryOfOwner(ownerId);
+    }
+
+    /**
+     * Get an archived activity by the ID it had in the activity table.
+     *
+     * @param activityId the ID of the activity
+     * @return the archived activity with its positions, if it was archived
+     */
+    @Transactional(readOnly = true)
+    public Optional<ArchivedActivity> getArchivedActivity(int activityId) {
+        return archivedActivityRepository.findWithPositions(activityId);
+    }
+}
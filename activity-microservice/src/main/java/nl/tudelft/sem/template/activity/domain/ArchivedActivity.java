@@ -0,0 +1,118 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.OrderColumn;
+import javax.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+
+/**
+ * A training or competition whose date has passed, moved out of the activity table so the
+ * matching only ever looks at activities that can still be joined.
+ */
+@Entity
+@Table(name = "archived_activity", indexes = {
+    @Index(name = "idx_archived_activity_owner", columnList = "ownerId, startInstant"),
+    @Index(name = "idx_archived_activity_start", columnList = "startInstant")
+})
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ArchivedActivity {
+    // ID the activity had in the activity table
+    @Id
+    private int activityId;
+
+    // Whether the activity was a competition rather than a training
+    @Column
+    private boolean competition;
+
+    // The ID of the owner of the activity
+    @Column
+    private int ownerId;
+
+    // The date when the activity took place
+    @Column
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private Date activityDate;
+
+    // The hour when the activity started.
+    @Column
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm")
+    private LocalTime startTime;
+
+    // The hour when the activity ended.
+    @Column
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm")
+    private LocalTime endTime;
+
+    // The moment the activity started, in epoch milliseconds
+    @Column
+    private long startInstant;
+
+    // The type of boat in which the activity took place.
+    @Column
+    private BoatType boatType;
+
+    // The positions of the activity, as they were when it was archived
+    @ElementCollection
+    @CollectionTable(name = "archived_required_positions", joinColumns = @JoinColumn(name = "activityId"))
+    @OrderColumn
+    private List<ArchivedPosition> positions = new ArrayList<>();
+
+    // The level, gender and organization required for a competition; empty for a training
+    @Column
+    private Level allowedLevel;
+    @Column
+    private Gender allowedGender;
+    @Column
+    private String organization;
+
+    // The moment the activity was archived, in epoch milliseconds
+    @Column
+    private long archivedAt;
+
+    /**
+     * Constructor method, copying an activity into the archive.
+     *
+     * @param activity the activity to archive
+     * @param archivedAt the moment the activity is archived, in epoch milliseconds
+     */
+    public ArchivedActivity(Activity activity, long archivedAt) {
+        this.activityId = activity.getActivityId();
+        this.ownerId = activity.getOwnerId();
+        this.activityDate = activity.getActivityDate();
+        this.startTime = activity.getStartTime();
+        this.endTime = activity.getEndTime();
+        this.startInstant = activity.getStartInstant();
+        this.boatType = activity.getBoatType();
+        for (RequiredPositions position : activity.getPositions()) {
+            positions.add(new ArchivedPosition(position.getPosition(), position.getRequiredOfPosition()));
+        }
+        if (activity instanceof Competition) {
+            Competition source = (Competition) activity;
+            this.competition = true;
+            this.allowedLevel = source.getAllowedLevel();
+            this.allowedGender = source.getAllowedGender();
+            this.organization = source.getOrganization();
+        }
+        this.archivedAt = archivedAt;
+    }
+}
@@ -0,0 +1,33 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A DDD repository for querying and persisting the archived activities.
+ */
+@Repository
+public interface ArchivedActivityRepository extends JpaRepository<ArchivedActivity, Integer> {
+    /**
+     * Find an archived activity by the ID it had, with its positions.
+     */
+    @Query("SELECT a FROM ArchivedActivity a LEFT JOIN FETCH a.positions WHERE a.activityId = :activityId")
+    Optional<ArchivedActivity> findWithPositions(@Param("activityId") int activityId);
+
+    /**
+     * Find all the archived activities with their positions, the most recent first.
+     */
+    @Query("SELECT DISTINCT a FROM ArchivedActivity a LEFT JOIN FETCH a.positions ORDER BY a.startInstant DESC")
+    List<ArchivedActivity> findHistory();
+
+    /**
+     * Find the archived activities of an owner with their positions, the most recent first.
+     */
+    @Query("SELECT DISTINCT a FROM ArchivedActivity a LEFT JOIN FETCH a.positions"
+            + " WHERE a.ownerId = :ownerId ORDER BY a.startInstant DESC")
+    List<ArchivedActivity> findHistoryOfOwner(@Param("ownerId") int ownerId);
+}
@@ -0,0 +1,125 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Index of the activities by day of the week and start time. Finding the activities which fit
+ * entirely in an availability window is a range seek on the start times of that day, followed by
+ * a check of the end times, instead of a loop over all the windows of the user for every activity.
+ * The index is not thread-safe; the owner has to guard it.
+ */
+public class AvailabilityIndex {
+    // For every day of the week, the end time of every activity, grouped by start time
+    private final transient Map<Integer, NavigableMap<LocalTime, Map<Integer, LocalTime>>> byDay = new HashMap<>();
+
+    // The day of the week and start time under which every activity is stored
+    private final transient Map<Integer, Integer> days = new HashMap<>();
+    private final transient Map<Integer, LocalTime> startTimes = new HashMap<>();
+
+    /**
+     * Stores the times of an activity, replacing the ones it had before.
+     *
+     * @param activity the activity that was created or modified
+     */
+    public void put(Activity activity) {
+        remove(activity.getActivityId());
+        if (activity.getActivityDate() == null || activity.getStartTime() == null || activity.getEndTime() == null) {
+            return;
+        }
+        int day = activity.getDayOfWeek();
+
+        byDay.computeIfAbsent(day, d -> new TreeMap<>())
+                .computeIfAbsent(activity.getStartTime(), t -> new HashMap<>())
+                .put(activity.getActivityId(), activity.getEndTime());
+        days.put(activity.getActivityId(), day);
+        startTimes.put(activity.getActivityId(), activity.getStartTime());
+    }
+
+    /**
+     * Removes the times of an activity, if they were stored.
+     *
+     * @param activityId the id of the activity that was deleted
+     */
+    public void remove(int activityId) {
+        Integer day = days.remove(activityId);
+        if (day == null) {
+            return;
+        }
+        LocalTime startTime = startTimes.remove(activityId);
+        NavigableMap<LocalTime, Map<Integer, LocalTime>> starts = byDay.get(day);
+        Map<Integer, LocalTime> ends = starts.get(startTime);
+        ends.remove(activityId);
+        if (ends.isEmpty()) {
+            starts.remove(startTime);
+        }
+    }
+
+    /**
+     * Removes all the activities from the index.
+     */
+    public void clear() {
+        byDay.clear();
+        days.clear();
+        startTimes.clear();
+    }
+
+    /**
+     * Get the activities which start and end within at least one of the given availability windows,
+     * on the same day of the week.
+     *
+     * @param availabilities the availability windows of a user
+     * @return the ids of the activities which fit in one of the windows, in ascending order
+     */
+    public Set<Integer> containedIn(List<Availability> availabilities) {
+        Set<Integer> result = new TreeSet<>();
+        for (Availability availability : availabilities) {
+            NavigableMap<LocalTime, Map<Integer, LocalTime>> starts = byDay.get(availability.getDayOfWeek());
+            LocalTime from = availability.getStartTime();
+            LocalTime to = availability.getEndTime();
+            if (starts == null || from.isAfter(to)) {
+                continue;
+            }
+            for (Map<Integer, LocalTime> ends : starts.subMap(from, true, to, true).values()) {
+                ends.forEach((id, endTime) -> {
+                    if (!endTime.isBefore(from) && !endTime.isAfter(to)) {
+                        result.add(id);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a single activity starts and ends within at least one of the given availability
+     * windows, on the same day of the week, without collecting the other activities of those windows.
+     *
+     * @param activityId the id of the activity
+     * @param availabilities the availability windows of a user
+     * @return whether the activity fits in one of the windows
+     */
+    public boolean fitsIn(int activityId, List<Availability> availabilities) {
+        Integer day = days.get(activityId);
+        if (day == null) {
+            return false;
+        }
+        LocalTime startTime = startTimes.get(activityId);
+        LocalTime endTime = byDay.get(day).get(startTime).get(activityId);
+        for (Availability availability : availabilities) {
+            LocalTime from = availability.getStartTime();
+            LocalTime to = availability.getEndTime();
+            if (availability.getDayOfWeek() == day && !startTime.isBefore(from) && !startTime.isAfter(to)
+                    && !endTime.isBefore(from) && !endTime.isAfter(to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,97 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.template.activity.domain.filters.StartTimeValidator;
+import nl.tudelft.sem.template.activity.domain.filters.Validator;
+import nl.tudelft.sem.template.activity.models.BatchMatchResponseModel;
+import org.springframework.stereotype.Service;
+
+/**
+ * Matches many users against the activities at once. The activities are scanned a single time,
+ * and every activity is checked for each distinct matching profile among the users with the
+ * same validators the compatible-activity endpoints run.
+ */
+@Service
+@Slf4j
+public class BatchMatchingService {
+    // The in-memory index of the activities
+    private final transient ActivityCatalog activityCatalog;
+
+    // Builds the checks an activity has to pass for a user
+    private final transient ActivityValidators activityValidators;
+
+    // The clock used to decide which activities can no longer be joined
+    private transient MyClock myClock = new MyClock();
+
+    /**
+     * Constructor method.
+     *
+     * @param activityCatalog The in-memory index of the activities
+     * @param activityValidators Builds the checks an activity has to pass for a user
+     */
+    public BatchMatchingService(ActivityCatalog activityCatalog, ActivityValidators activityValidators) {
+        this.activityCatalog = activityCatalog;
+        this.activityValidators = activityValidators;
+    }
+
+    public void setMyClock(MyClock myClock) {
+        this.myClock = myClock;
+    }
+
+    /**
+     * Get the compatible trainings and competitions of every given user.
+     *
+     * @param users the users to match, each with the position they want to fill
+     * @return the ids of the compatible activities of every user, in the order of the users
+     */
+    public List<BatchMatchResponseModel> match(List<User> users) {
+        Map<MatchingProfile, Match> matches = new LinkedHashMap<>();
+        for (User user : users) {
+            matches.computeIfAbsent(MatchingProfile.of(user), profile -> new Match(profile.toUser()));
+        }
+        log.info("Matching {} users with {} distinct profiles", users.size(), matches.size());
+
+        Validator trainingValidator = activityValidators.trainingChain(myClock);
+        Validator competitionValidator = activityValidators.competitionChain(myClock);
+        long earliestStart = StartTimeValidator.earliestStart(false, myClock.getCurrentTime());
+        for (Activity activity : activityCatalog.activitiesStartingFrom(earliestStart)) {
+            boolean competition = activity instanceof Competition;
+            Validator validator = competition ? competitionValidator : trainingValidator;
+            for (Match match : matches.values()) {
+                if (validator.handle(match.user, activity)) {
+                    (competition ? match.competitionIds : match.trainingIds).add(activity.getActivityId());
+                }
+            }
+        }
+        // The catalog returns the activities by their start
+        for (Match match : matches.values()) {
+            Collections.sort(match.trainingIds);
+            Collections.sort(match.competitionIds);
+        }
+
+        List<BatchMatchResponseModel> result = new ArrayList<>();
+        for (User user : users) {
+            Match match = matches.get(MatchingProfile.of(user));
+            result.add(new BatchMatchResponseModel(user.getId(), match.trainingIds, match.competitionIds));
+        }
+        return result;
+    }
+
+    /**
+     * The activities matched so far for one profile.
+     */
+    private static class Match {
+        private final transient User user;
+        private final transient List<Integer> trainingIds = new ArrayList<>();
+        private final transient List<Integer> competitionIds = new ArrayList<>();
+
+        Match(User user) {
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the activities the catalog is filled with. When there is a valid snapshot, the activities
+ * are taken from it and only the ones which changed since it was written are loaded from the
+ * repository; otherwise all of them are loaded from the repository.
+ */
+@Component
+@Slf4j
+public class CatalogLoader {
+    // How many changed activities are loaded per query when the catalog is filled from the snapshot
+    private static final int RELOAD_CHUNK = 500;
+
+    // The repository containing all the activities
+    private final transient ActivityRepository activityRepository;
+
+    // The snapshot the catalog is filled from
+    private final transient CatalogSnapshot snapshot;
+
+    /**
+     * Constructor method.
+     *
+     * @param activityRepository The repository containing all the activities
+     * @param snapshot The snapshot the catalog is filled from
+     */
+    public CatalogLoader(ActivityRepository activityRepository, CatalogSnapshot snapshot) {
+        this.activityRepository = activityRepository;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Get all the activities, as they are in the repository.
+     *
+     * @return the activities, with their positions
+     */
+    @Transactional(readOnly = true)
+    public List<Activity> load() {
+        return snapshot.isEnabled() ? loadFromSnapshot() : activityRepository.findAll();
+    }
+
+    /**
+     * Get the activities from the snapshot, if there is a valid one, and from the repository only
+     * the ones whose fingerprint changed since it was written. Activities which are no longer in
+     * the repository are left out.
+     */
+    private List<Activity> loadFromSnapshot() {
+        Optional<List<Activity>> saved = snapshot.read();
+        if (saved.isEmpty()) {
+            return activityRepository.findAll();
+        }
+        Map<Integer, Activity> savedById = new HashMap<>();
+        saved.get().forEach(activity -> savedById.put(activity.getActivityId(), activity));
+
+        List<Activity> result = new ArrayList<>();
+        List<Integer> changed = new ArrayList<>();
+        for (ActivityFingerprint fingerprint : activityRepository.findFingerprints()) {
+            Activity activity = savedById.get(fingerprint.getActivityId());
+            if (activity != null && ActivityFingerprint.of(activity).equals(fingerprint)) {
+                result.add(activity);
+            } else {
+                changed.add(fingerprint.getActivityId());
+            }
+        }
+        int restored = result.size();
+        for (int from = 0; from < changed.size(); from += RELOAD_CHUNK) {
+            result.addAll(activityRepository.findAllWithPositions(
+                    changed.subList(from, Math.min(from + RELOAD_CHUNK, changed.size()))));
+        }
+        log.info("Restored {} activities from the snapshot and reloaded {} new or changed ones",
+                restored, changed.size());
+        return result;
+    }
+}
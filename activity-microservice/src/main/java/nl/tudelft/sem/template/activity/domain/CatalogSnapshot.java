@@ -0,0 +1,279 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the activities of the catalog, with their positions and versions, to a compact binary
+ * file, and reads them back on startup. The file is memory-mapped when it is read, and both its
+ * header and its content are checked against a CRC32 checksum, so a truncated or damaged snapshot
+ * is never used. Without a configured path, no snapshot is written or read.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshot {
+    // Marks the file as a catalog snapshot: "ACTS"
+    private static final int MAGIC = 0x41435453;
+
+    // The layout of the file; a snapshot with another layout is ignored
+    private static final int FORMAT = 2;
+
+    // Magic, format, time written, number of activities, payload length, payload checksum, header checksum
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 8 + 4;
+
+    // Where the number of activities is in the header; the payload length and checksum follow it
+    private static final int COUNT_OFFSET = 16;
+
+    private static final byte TRAINING = 0;
+    private static final byte COMPETITION = 1;
+
+    // Where the snapshot is stored, or null if snapshots are disabled
+    private final transient Path path;
+
+    /**
+     * Constructor method.
+     *
+     * @param path where the snapshot is stored; empty to disable the snapshots
+     */
+    public CatalogSnapshot(@Value("${activity.snapshot.path:}") String path) {
+        this.path = path == null || path.isBlank() ? null : Paths.get(path);
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    /**
+     * Writes the given activities to the snapshot. The snapshot is first written next to the
+     * previous one and then moved over it, so a crash while writing never leaves half a snapshot.
+     *
+     * @param activities the activities to write, with their positions
+     * @throws IOException if the snapshot could not be written
+     */
+    public void write(Collection<Activity> activities) throws IOException {
+        if (path == null) {
+            return;
+        }
+        byte[] payload = encode(activities);
+        CRC32 payloadCrc = new CRC32();
+        payloadCrc.update(payload);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT).putLong(System.currentTimeMillis())
+                .putInt(activities.size()).putInt(payload.length).putLong(payloadCrc.getValue());
+        CRC32 headerCrc = new CRC32();
+        headerCrc.update(header.array(), 0, header.position());
+        header.putInt((int) headerCrc.getValue());
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            header.flip();
+            channel.write(new ByteBuffer[] {header, ByteBuffer.wrap(payload)});
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Wrote a snapshot of {} activities ({} bytes)", activities.size(), HEADER_SIZE + payload.length);
+    }
+
+    /**
+     * Reads the activities from the snapshot, if there is a valid one.
+     *
+     * @return the activities with their positions and versions, or nothing if there is no snapshot,
+     *      or it is damaged or has another layout
+     */
+    public Optional<List<Activity>> read() {
+        if (path == null || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                log.warn("Ignoring the snapshot {}: it is too short", path);
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!isIntact(buffer, channel.size())) {
+                return Optional.empty();
+            }
+            int count = buffer.getInt(COUNT_OFFSET);
+            return Optional.of(decode(buffer.position(HEADER_SIZE).slice(), count));
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            log.warn("Ignoring the snapshot {}: it could not be read", path, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checks the header and the payload of the snapshot against their checksums.
+     */
+    private boolean isIntact(ByteBuffer buffer, long size) {
+        CRC32 headerCrc = new CRC32();
+        headerCrc.update(buffer.duplicate().limit(HEADER_SIZE - 4));
+        if ((int) headerCrc.getValue() != buffer.getInt(HEADER_SIZE - 4) || buffer.getInt(0) != MAGIC) {
+            log.warn("Ignoring the snapshot {}: its header is damaged", path);
+            return false;
+        }
+        int format = buffer.getInt(4);
+        if (format != FORMAT) {
+            log.warn("Ignoring the snapshot {}: it has layout {} instead of {}", path, format, FORMAT);
+            return false;
+        }
+        if (size != HEADER_SIZE + (long) buffer.getInt(COUNT_OFFSET + 4)) {
+            log.warn("Ignoring the snapshot {}: it is truncated", path);
+            return false;
+        }
+        CRC32 payloadCrc = new CRC32();
+        payloadCrc.update(buffer.duplicate().position(HEADER_SIZE));
+        if (payloadCrc.getValue() != buffer.getLong(COUNT_OFFSET + 8)) {
+            log.warn("Ignoring the snapshot {}: its content is damaged", path);
+            return false;
+        }
+        return true;
+    }
+
+    private static byte[] encode(Collection<Activity> activities) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (Activity activity : activities) {
+                boolean competition = activity instanceof Competition;
+                out.writeByte(competition ? COMPETITION : TRAINING);
+                out.writeInt(activity.getActivityId());
+                out.writeLong(activity.getVersion());
+                out.writeInt(activity.getOwnerId());
+                out.writeLong(activity.getActivityDate().getTime());
+                writeTime(out, activity.getStartTime());
+                writeTime(out, activity.getEndTime());
+                writeOrdinal(out, activity.getBoatType());
+                if (competition) {
+                    Competition c = (Competition) activity;
+                    writeOrdinal(out, c.getAllowedLevel());
+                    writeOrdinal(out, c.getAllowedGender());
+                    writeString(out, c.getOrganization());
+                } else {
+                    Integer seriesId = ((Training) activity).getSeriesId();
+                    out.writeInt(seriesId == null ? -1 : seriesId);
+                }
+                Set<RequiredPositions> positions = activity.getPositions();
+                out.writeInt(positions == null ? 0 : positions.size());
+                if (positions != null) {
+                    for (RequiredPositions position : positions) {
+                        out.writeInt(position.getId());
+                        out.writeLong(position.getVersion());
+                        writeOrdinal(out, position.getPosition());
+                        out.writeInt(position.getRequiredOfPosition());
+                        out.writeInt(position.getFilledOfPosition());
+                    }
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Activity> decode(ByteBuffer in, int count) {
+        List<Activity> activities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte kind = in.get();
+            int activityId = in.getInt();
+            long version = in.getLong();
+            int ownerId = in.getInt();
+            Date activityDate = new Date(in.getLong());
+            LocalTime startTime = readTime(in);
+            LocalTime endTime = readTime(in);
+            BoatType boatType = readOrdinal(in, BoatType.values());
+            Activity activity;
+            if (kind == COMPETITION) {
+                Level level = readOrdinal(in, Level.values());
+                Gender gender = readOrdinal(in, Gender.values());
+                activity = new Competition(ownerId, activityDate, startTime, endTime, null, level, gender,
+                        boatType, readString(in));
+            } else {
+                Training training = new Training(ownerId, activityDate, startTime, endTime, null, boatType);
+                int seriesId = in.getInt();
+                training.setSeriesId(seriesId < 0 ? null : seriesId);
+                activity = training;
+            }
+            int positionCount = in.getInt();
+            Set<RequiredPositions> positions = new HashSet<>();
+            for (int j = 0; j < positionCount; j++) {
+                int id = in.getInt();
+                long positionVersion = in.getLong();
+                RequiredPositions position = new RequiredPositions(readOrdinal(in, Positions.values()), 0);
+                position.setRequiredOfPosition(in.getInt());
+                position.setFilledOfPosition(in.getInt());
+                position.setId(id);
+                position.setVersion(positionVersion);
+                positions.add(position);
+            }
+            activity.setPositions(positions);
+            activity.setActivityId(activityId);
+            activity.setVersion(version);
+            activities.add(activity);
+        }
+        return activities;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalTime time) throws IOException {
+        out.writeLong(time == null ? -1 : time.toNanoOfDay());
+    }
+
+    private static LocalTime readTime(ByteBuffer in) {
+        long nanos = in.getLong();
+        return nanos < 0 ? null : LocalTime.ofNanoOfDay(nanos);
+    }
+
+    private static void writeOrdinal(DataOutputStream out, Enum<?> value) throws IOException {
+        out.writeByte(value == null ? -1 : value.ordinal());
+    }
+
+    private static <E extends Enum<E>> E readOrdinal(ByteBuffer in, E[] values) {
+        byte ordinal = in.get();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,65 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the activity catalog to the snapshot periodically and on shutdown, so the next run of the
+ * service can fill the catalog from it instead of loading every activity from the repository.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotWriter {
+    // The catalog which is written
+    private final transient ActivityCatalog activityCatalog;
+
+    // The snapshot the catalog is written to
+    private final transient CatalogSnapshot snapshot;
+
+    // The version of the activities when the snapshot was last written, guarded by this
+    private transient long snapshotVersion = -1;
+
+    /**
+     * Constructor method.
+     *
+     * @param activityCatalog The catalog which is written
+     * @param snapshot The snapshot the catalog is written to
+     */
+    public CatalogSnapshotWriter(ActivityCatalog activityCatalog, CatalogSnapshot snapshot) {
+        this.activityCatalog = activityCatalog;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Writes the catalog to the snapshot, if it changed since the snapshot was last written.
+     * The version is taken before the activities are copied, so a change made in between is
+     * written again the next time rather than skipped.
+     */
+    @Scheduled(fixedDelayString = "${activity.snapshot.interval:300000}",
+            initialDelayString = "${activity.snapshot.interval:300000}")
+    @PreDestroy
+    public synchronized void writeSnapshot() {
+        if (!snapshot.isEnabled()) {
+            return;
+        }
+        long current = activityCatalog.getVersion();
+        if (current == snapshotVersion) {
+            return;
+        }
+        Optional<List<Activity>> copy = activityCatalog.copyActivities();
+        if (copy.isEmpty()) {
+            return;
+        }
+        try {
+            snapshot.write(copy.get());
+            snapshotVersion = current;
+        } catch (IOException e) {
+            log.warn("Could not write the snapshot of the catalog", e);
+        }
+    }
+}
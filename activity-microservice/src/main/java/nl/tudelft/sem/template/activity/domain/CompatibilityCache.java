@@ -0,0 +1,109 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import nl.tudelft.sem.template.activity.models.CacheStatsResponseModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of compatible-activity results, keyed by the type of activity and the matching
+ * profile of the user. Every entry remembers the catalog version it was computed for, and is
+ * ignored once the activities changed. Since time passing can only remove activities from a
+ * result, an entry also stays valid until the first of its activities can no longer be joined.
+ * The least recently used entry is evicted when the cache is full.
+ */
+@Component
+public class CompatibilityCache {
+    // The maximum number of entries
+    private final transient int capacity;
+
+    // The entries, from least to most recently used; guarded by this
+    private final transient Map<Key, Entry> entries;
+
+    private final transient AtomicLong hits = new AtomicLong();
+    private final transient AtomicLong misses = new AtomicLong();
+    private final transient AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructor method.
+     *
+     * @param capacity the maximum number of results to keep
+     */
+    public CompatibilityCache(@Value("${activity.cache.capacity:1024}") int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get a cached result, if there is one which is still valid.
+     *
+     * @param type the type of the activities, training or competition
+     * @param profile the matching profile of the user
+     * @param version the current version of the activity catalog
+     * @param currentTime the current time, in epoch milliseconds
+     * @return the cached activities, or null if the result has to be computed
+     */
+    public synchronized List<Activity> get(Class<? extends Activity> type, MatchingProfile profile,
+                                           long version, long currentTime) {
+        Key key = new Key(type, profile);
+        Entry entry = entries.get(key);
+        if (entry == null || entry.version != version || currentTime > entry.validUntil) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.activities;
+    }
+
+    /**
+     * Stores a computed result.
+     *
+     * @param type the type of the activities, training or competition
+     * @param profile the matching profile of the user
+     * @param version the version of the activity catalog read before computing the result
+     * @param validUntil the last moment at which the result is still correct, in epoch milliseconds
+     * @param activities the compatible activities
+     */
+    public synchronized void put(Class<? extends Activity> type, MatchingProfile profile,
+                                 long version, long validUntil, List<Activity> activities) {
+        entries.put(new Key(type, profile), new Entry(version, validUntil, List.copyOf(activities)));
+        while (entries.size() > capacity) {
+            Key eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the number of hits, misses and evictions so far, and the current size.
+     *
+     * @return the statistics of the cache
+     */
+    public synchronized CacheStatsResponseModel getStats() {
+        return new CacheStatsResponseModel(hits.get(), misses.get(), evictions.get(), entries.size());
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @Getter
+    private static class Key {
+        private final Class<? extends Activity> type;
+        private final MatchingProfile profile;
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final transient long version;
+        private final transient long validUntil;
+        private final transient List<Activity> activities;
+    }
+}
@@ -0,0 +1,155 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import nl.tudelft.sem.template.activity.domain.filters.AdaptiveValidator;
+import nl.tudelft.sem.template.activity.domain.filters.AvailabilityValidator;
+import nl.tudelft.sem.template.activity.domain.filters.Validator;
+import nl.tudelft.sem.template.activity.models.ActivityPositionsResponseModel;
+
+/**
+ * Finds the trainings or the competitions which are compatible with a user, in the way the
+ * matching mode asks for. The training and the competition service each own one, so the choice
+ * between the matching modes is made in this one place for both kinds of activity.
+ */
+class CompatibilityMatcher {
+    // Whether the competitions are matched, rather than the trainings
+    private final transient boolean competition;
+    // The in-memory index of the activities, used to narrow down the compatibility checks
+    private final transient ActivityCatalog activityCatalog;
+    // The repository containing all the activities, for the database mode
+    private final transient ActivityRepository activityRepository;
+    // Checks the candidates against the validators, in parallel for large candidate lists
+    private final transient SegmentedMatcher segmentedMatcher;
+    // Matches the activities against each of the positions a user can fill
+    private final transient PositionMatcher positionMatcher;
+    // Builds the validator which checks every requirement of an activity, for the validator chain mode
+    private final transient ActivityValidators activityValidators;
+
+    // The validator which checks the requirements of an activity the catalog indexes do not cover
+    private final transient AdaptiveValidator handler;
+    // The validator which checks every requirement of an activity, without any narrowing down beforehand
+    private transient AdaptiveValidator chainHandler;
+    // The validator which checks the requirements the database queries do not cover
+    private final transient Validator residualHandler = new AvailabilityValidator();
+    // Whether to use the validator chain, the catalog indexes, the matching engine or the database queries
+    private transient MatchingMode matchingMode;
+    // The clock used to decide which activities can no longer be joined, outside the catalog
+    private transient MyClock myClock = new MyClock();
+
+    /**
+     * Constructor method.
+     *
+     * @param competition Whether the competitions are matched, rather than the trainings
+     * @param activityCatalog The in-memory index of the activities
+     * @param activityRepository The repository containing all the activities
+     * @param segmentedMatcher Checks the candidates against the validators
+     * @param positionMatcher Matches the activities against each of the positions a user can fill
+     * @param activityValidators Builds the validator which checks every requirement of an activity
+     * @param handler The validator which checks the requirements the catalog indexes do not cover
+     * @param matchingMode Whether to use the validator chain, the catalog indexes, the matching engine
+     *                     or the database queries
+     */
+    CompatibilityMatcher(boolean competition, ActivityCatalog activityCatalog, ActivityRepository activityRepository,
+                         SegmentedMatcher segmentedMatcher, PositionMatcher positionMatcher,
+                         ActivityValidators activityValidators, AdaptiveValidator handler, MatchingMode matchingMode) {
+        this.competition = competition;
+        this.activityCatalog = activityCatalog;
+        this.activityRepository = activityRepository;
+        this.segmentedMatcher = segmentedMatcher;
+        this.positionMatcher = positionMatcher;
+        this.activityValidators = activityValidators;
+        this.handler = handler;
+        this.matchingMode = matchingMode;
+        this.chainHandler = chain(myClock);
+    }
+
+    void setMatchingMode(MatchingMode matchingMode) {
+        this.matchingMode = matchingMode;
+    }
+
+    void setMyClock(MyClock myClock) {
+        this.myClock = myClock;
+        this.chainHandler = chain(myClock);
+    }
+
+    /**
+     * Get the order in which the checks of the activities currently run, in the current matching
+     * mode. The engine mode runs no validators; it reports the engine and the availability index,
+     * which make up its checks.
+     *
+     * @return the names of the validators, in the order in which they run
+     */
+    List<String> getValidatorOrder() {
+        if (matchingMode == MatchingMode.VALIDATOR_CHAIN) {
+            return chainHandler.getOrder();
+        }
+        if (matchingMode == MatchingMode.BITSET_ENGINE) {
+            return List.of(MatchingEngine.class.getSimpleName(), AvailabilityIndex.class.getSimpleName());
+        }
+        if (matchingMode == MatchingMode.DATABASE) {
+            return List.of(residualHandler.getClass().getSimpleName());
+        }
+        return handler.getOrder();
+    }
+
+    /**
+     * Get the compatible activities for a given user as a lazy stream, ordered by their id.
+     * The candidates are fetched page by page from the cursor on, and a page is only fetched and
+     * checked once the matches of the previous one have been consumed, so a consumer which stops
+     * early never causes the remaining activities to be read. Full pages are checked in parallel,
+     * segment by segment.
+     *
+     * @param user the user for which we have to retrieve the activities
+     * @param after only activities with a higher id are returned
+     * @return the compatible activities with an id higher than the given one
+     */
+    Stream<Activity> stream(User user, int after) {
+        int pageSize = segmentedMatcher.getPageSize();
+        if (matchingMode == MatchingMode.VALIDATOR_CHAIN) {
+            return segmentedMatcher.matchPages(ActivityPages.after(after, cursor -> competition
+                    ? activityCatalog.competitionsAfter(cursor, pageSize)
+                    : activityCatalog.trainingsAfter(cursor, pageSize)), a -> chainHandler.handle(user, a));
+        }
+        if (matchingMode == MatchingMode.BITSET_ENGINE) {
+            List<Integer> ids = competition ? activityCatalog.matchCompetitions(user) : activityCatalog.matchTrainings(user);
+            return ActivityPages.after(after, cursor -> activityCatalog.activitiesAfter(ids, cursor, pageSize))
+                    .flatMap(List::stream);
+        }
+        if (matchingMode == MatchingMode.DATABASE) {
+            long currentTime = myClock.getCurrentTime();
+            return segmentedMatcher.matchPages(ActivityPages.after(after, cursor -> competition
+                    ? activityRepository.findCompatibleCompetitions(user, currentTime, cursor, pageSize)
+                    : activityRepository.findCompatibleTrainings(user, currentTime, cursor, pageSize)),
+                    a -> residualHandler.handle(user, a));
+        }
+        return segmentedMatcher.matchPages(ActivityPages.after(after, cursor -> competition
+                ? activityCatalog.candidateCompetitions(user, cursor, pageSize)
+                : activityCatalog.candidateTrainings(user, cursor, pageSize)), a -> handler.handle(user, a));
+    }
+
+    /**
+     * Get the compatible activities for a user who can fill several positions, together with the
+     * positions each of them can take. The catalog is searched once for all the positions, and
+     * only the candidates are checked per position.
+     *
+     * @param user the user for which we have to retrieve the activities, with the positions they can fill
+     * @return the compatible activities with the positions they can take, ordered by their id
+     */
+    List<ActivityPositionsResponseModel> matchPositions(User user) {
+        Set<Positions> positions = positionMatcher.positionsOf(user);
+        if (matchingMode == MatchingMode.VALIDATOR_CHAIN) {
+            List<Activity> all = competition ? activityCatalog.allCompetitions() : activityCatalog.allTrainings();
+            return positionMatcher.match(all, user, positions, chainHandler);
+        }
+        List<Activity> candidates = competition ? activityCatalog.candidateCompetitions(user, positions)
+                : activityCatalog.candidateTrainings(user, positions);
+        return positionMatcher.match(candidates, user, positions, handler);
+    }
+
+    private AdaptiveValidator chain(MyClock myClock) {
+        return competition ? activityValidators.competitionChain(myClock) : activityValidators.trainingChain(myClock);
+    }
+}
@@ -2,15 +2,18 @@ package nl.tudelft.sem.template.activity.domain;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
-import nl.tudelft.sem.template.activity.domain.filters.AvailabilityValidator;
+import nl.tudelft.sem.template.activity.domain.filters.AdaptiveValidator;
 import nl.tudelft.sem.template.activity.domain.filters.CertificateValidator;
 import nl.tudelft.sem.template.activity.domain.filters.ExperienceValidator;
 import nl.tudelft.sem.template.activity.domain.filters.GenderValidator;
 import nl.tudelft.sem.template.activity.domain.filters.OrganizationValidator;
 import nl.tudelft.sem.template.activity.domain.filters.PositionValidator;
 import nl.tudelft.sem.template.activity.domain.filters.StartTimeValidator;
-import nl.tudelft.sem.template.activity.domain.filters.Validator;
+import nl.tudelft.sem.template.activity.models.ActivityPageResponseModel;
+import nl.tudelft.sem.template.activity.models.ActivityPositionsResponseModel;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -18,46 +21,68 @@ import org.springframework.stereotype.Service;
 public class CompetitionService {
     // The repository containing all the activities
     private final transient ActivityRepository activityRepository;
-    // The validator which checks if a user matches all the requirements of a competition.
-    private final transient Validator handler;
+    // The in-memory index of the activities
+    private final transient ActivityCatalog activityCatalog;
+    // The results of earlier compatibility queries
+    private final transient CompatibilityCache compatibilityCache;
+    // Finds the compatible competitions in the way the matching mode asks for
+    private final transient CompatibilityMatcher compatibilityMatcher;
+    // The clock used to decide which competitions can no longer be joined, outside the catalog.
+    private transient MyClock myClock = new MyClock();
 
     /**
      * Constructor method.
      *
      * @param activityRepository The repository containing all the activities
+     * @param activityCatalog The in-memory index of the activities
+     * @param segmentedMatcher Checks the candidates against the validators
+     * @param compatibilityCache The results of earlier compatibility queries
+     * @param positionMatcher Matches the competitions against each of the positions a user can fill
+     * @param activityValidators Builds the validator which checks every requirement of a competition
+     * @param matchingMode Whether to use the validator chain, the catalog indexes, the matching engine
+     *                     or the database queries
      */
-    public CompetitionService(ActivityRepository activityRepository) {
+    public CompetitionService(ActivityRepository activityRepository, ActivityCatalog activityCatalog,
+                              SegmentedMatcher segmentedMatcher, CompatibilityCache compatibilityCache,
+                              PositionMatcher positionMatcher,
+                              ActivityValidators activityValidators,
+                              @Value("${activity.matching.mode:CATALOG_INDEX}") MatchingMode matchingMode) {
         this.activityRepository = activityRepository;
-        this.handler = setupValidator();
+        this.activityCatalog = activityCatalog;
+        this.compatibilityCache = compatibilityCache;
+        this.compatibilityMatcher = new CompatibilityMatcher(true, activityCatalog, activityRepository,
+                segmentedMatcher, positionMatcher, activityValidators, setupValidator(), matchingMode);
+    }
+
+    public void setMatchingMode(MatchingMode matchingMode) {
+        compatibilityMatcher.setMatchingMode(matchingMode);
+    }
+
+    public void setMyClock(MyClock myClock) {
+        this.myClock = myClock;
+        compatibilityMatcher.setMyClock(myClock);
     }
 
     /**
-     * Sets up all the validators in the chain of responsibility for the competition checks.
+     * Sets up the validators for the competition checks, fused into a single validator
+     * which reorders them based on their cost and rejection rate. Availability and
+     * start time are not part of it, since the activity catalog only returns activities
+     * which fit in the availability windows of the user and can still be joined.
      *
-     * @return a validator with all the connections created
+     * @return a validator running the competition checks
      */
-    public static Validator setupValidator() {
-        Validator certificateValidator = new CertificateValidator();
-        Validator genderValidator = new GenderValidator();
-        certificateValidator.setNext(genderValidator);
-
-        Validator organizationValidator = new OrganizationValidator();
-        genderValidator.setNext(organizationValidator);
-
-        Validator experienceValidator = new ExperienceValidator();
-        organizationValidator.setNext(experienceValidator);
-
-        Validator availabilityValidator = new AvailabilityValidator();
-        experienceValidator.setNext(availabilityValidator);
-
-        Validator startTimeValidator = new StartTimeValidator();
-        ((StartTimeValidator) startTimeValidator).setMyClock(new MyClock());
-        availabilityValidator.setNext(startTimeValidator);
-
-        Validator positionValidator = new PositionValidator();
-        startTimeValidator.setNext(positionValidator);
+    public static AdaptiveValidator setupValidator() {
+        return new AdaptiveValidator(List.of(new CertificateValidator(), new GenderValidator(),
+                new OrganizationValidator(), new ExperienceValidator(), new PositionValidator()));
+    }
 
-        return certificateValidator;
+    /**
+     * Get the order in which the competition checks currently run, in the current matching mode.
+     *
+     * @return the names of the validators, in the order in which they run
+     */
+    public List<String> getValidatorOrder() {
+        return compatibilityMatcher.getValidatorOrder();
     }
 
     /**
@@ -69,33 +94,116 @@ public class CompetitionService {
      */
     public Competition addNewCompetition(Competition newCompetition) throws Exception {
         if (!activityRepository.existsByActivityId(newCompetition.getActivityId())) {
-            return activityRepository.save(newCompetition);
+            Competition saved = activityRepository.save(newCompetition);
+            activityCatalog.put(saved);
+            return saved;
         }
         throw new Exception();
     }
 
     /**
-     * Get all activities from database and filter only competitions.
+     * Adds many new competitions to the database in one transaction. The competitions and their positions
+     * are inserted in JDBC batches, and the catalog is updated once for all of them.
+     *
+     * @param newCompetitions the competitions to be added to the database, without ids
+     * @return the added competitions, with their generated ids
+     */
+    public List<Competition> addNewCompetitions(List<Competition> newCompetitions) {
+        List<Competition> saved = activityRepository.saveAll(newCompetitions);
+        activityCatalog.putAll(saved);
+        return saved;
+    }
+
+    /**
+     * Get all the competitions from the catalog, which keeps them apart from the trainings.
      *
      * @return all the competitions stored in the database
      */
     public List<Activity> getAllCompetitions() {
-        return activityRepository.findAll().stream()
-                        .filter(a -> a instanceof Competition).collect(Collectors.toList());
+        return activityCatalog.allCompetitions();
     }
 
     /**
-     * Get all the compatible competitions for a given user.
+     * Get the flat listing rows of all the competitions, with the spots left per position inlined.
+     *
+     * @return the listing rows of all the competitions, ordered by their id
+     */
+    public List<ActivityListing> getCompetitionListings() {
+        return activityCatalog.competitionListings();
+    }
+
+    /**
+     * Get all the compatible competitions for a given user. The result is cached for users with the
+     * same matching profile, until the activities change or one of the competitions can no longer be joined.
      *
      * @param user the user for which we have to retrieve the competitions.
      * @return all the compatible competitions for a given user in the database.
      */
     public List<Activity> getAllCompatibleCompetitions(User user) {
+        MatchingProfile profile = MatchingProfile.of(user);
+        long version = activityCatalog.getVersion();
+        List<Activity> cached = compatibilityCache.get(Competition.class, profile, version, myClock.getCurrentTime());
+        if (cached != null) {
+            return cached;
+        }
+        List<Activity> competitions = streamCompatibleCompetitions(user, 0).collect(Collectors.toList());
+        long validUntil = competitions.stream()
+                .mapToLong(a -> StartTimeValidator.latestJoin(true, a.getStartInstant()))
+                .min().orElse(Long.MAX_VALUE);
+        compatibilityCache.put(Competition.class, profile, version, validUntil, competitions);
+        return competitions;
+    }
+
+    /**
+     * Get the best compatible competitions for a given user, in the given order. The matches are ranked
+     * as they are found, keeping only the best ones, instead of collecting and sorting all of them.
+     *
+     * @param user the user for which we have to retrieve the competitions.
+     * @param ranking the order in which the competitions are ranked
+     * @param limit the maximum number of competitions to return
+     * @return the best compatible competitions, from best to worst
+     */
+    public List<Activity> getTopCompatibleCompetitions(User user, ActivityRanking ranking, int limit) {
+        return ranking.top(streamCompatibleCompetitions(user, 0), user, limit);
+    }
+
+    /**
+     * Get one page of the compatible competitions for a given user, ordered by their id.
+     *
+     * @param user the user for which we have to retrieve the competitions.
+     * @param after the id of the last competition of the previous page, or 0 for the first page
+     * @param limit the maximum number of competitions in the page
+     * @return the page, with the cursor of the next page if there are more competitions
+     */
+    public ActivityPageResponseModel getCompatibleCompetitionsPage(User user, int after, int limit) {
+        return ActivityPageResponseModel.fromMatches(streamCompatibleCompetitions(user, after), limit);
+    }
+
+    /**
+     * Get the compatible competitions for a user who can fill several positions, together with the
+     * positions each of them can take. The catalog is searched once for all the positions, and
+     * only the candidates are checked per position.
+     *
+     * @param user the user for which we have to retrieve the competitions, with the positions they can fill
+     * @return the compatible competitions with the positions they can take, ordered by their id
+     */
+    public List<ActivityPositionsResponseModel> getCompatibleCompetitionPositions(User user) {
+        return compatibilityMatcher.matchPositions(user);
+    }
+
+    /**
+     * Get the compatible competitions for a given user as a lazy stream, ordered by their id.
+     * The candidates are fetched page by page from the cursor on, and a page is only fetched and
+     * checked once the matches of the previous one have been consumed, so a consumer which stops
+     * early never causes the remaining competitions to be read. Full pages are checked in parallel,
+     * segment by segment.
+     *
+     * @param user the user for which we have to retrieve the competitions.
+     * @param after only competitions with a higher id are returned
+     * @return the compatible competitions with an id higher than the given one
+     */
+    public Stream<Activity> streamCompatibleCompetitions(User user, int after) {
         log.info("Trying to find all the competitions for user {}", user.getId());
-        List<Activity> activities = activityRepository.findAll()
-                .stream()
-                .filter(a -> a instanceof Competition && handler.handle(user, a))
-                .collect(Collectors.toList());
-        return activities;
+        return compatibilityMatcher.stream(user, after);
     }
 }
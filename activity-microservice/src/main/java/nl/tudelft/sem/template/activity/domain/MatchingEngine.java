@@ -0,0 +1,268 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matching engine which keeps the attributes the validators check in primitive columns,
+ * one slot per activity. Each rule of the certificate, gender, experience, organization,
+ * position and start time validators is evaluated as a single pass over a column, producing
+ * a bitset of the slots that pass it; the bitsets of all the rules are then intersected.
+ * Availability is not covered, apart from a day-of-week prefilter, so the result still has
+ * to be matched against the availability windows of the user.
+ * The engine is not thread-safe; the owner has to guard it.
+ */
+public class MatchingEngine {
+    // Value of the gender, level and organization columns for activities without them
+    private static final int NONE = -1;
+
+    // Organization id used for users whose organization no competition has
+    private static final int UNKNOWN = -2;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // The slot of every activity, by its id
+    private final transient Map<Integer, Integer> slots = new HashMap<>();
+
+    // Maps each organization name to the id stored in the organization column
+    private final transient Map<String, Integer> organizationIds = new HashMap<>();
+
+    // The slots currently in use, split by type of activity
+    private final transient BitSet trainingSlots = new BitSet();
+    private final transient BitSet competitionSlots = new BitSet();
+
+    // The number of slots ever used; every column is valid up to this index
+    private transient int size;
+
+    // The columns, indexed by slot
+    private transient int[] activityIds = new int[INITIAL_CAPACITY];
+    private transient int[] boatTypeLabels = new int[INITIAL_CAPACITY];
+    private transient int[] genders = new int[INITIAL_CAPACITY];
+    private transient int[] levelLabels = new int[INITIAL_CAPACITY];
+    private transient int[] organizations = new int[INITIAL_CAPACITY];
+    private transient int[] openPositions = new int[INITIAL_CAPACITY];
+    private transient int[] daysOfWeek = new int[INITIAL_CAPACITY];
+    private transient long[] startInstants = new long[INITIAL_CAPACITY];
+
+    /**
+     * Stores the attributes of an activity, replacing the ones it had before.
+     *
+     * @param activity the activity that was created or modified
+     * @param openPositions the mask of the positions of the activity which still have an open spot
+     */
+    public void put(Activity activity, int openPositions) {
+        remove(activity.getActivityId());
+        int slot = freeSlot();
+        slots.put(activity.getActivityId(), slot);
+
+        activityIds[slot] = activity.getActivityId();
+        boatTypeLabels[slot] = activity.getBoatType().label;
+        this.openPositions[slot] = openPositions;
+        daysOfWeek[slot] = activity.getDayOfWeek();
+        startInstants[slot] = activity.getStartInstant();
+
+        if (activity instanceof Competition) {
+            Competition competition = (Competition) activity;
+            genders[slot] = competition.getAllowedGender().ordinal();
+            levelLabels[slot] = competition.getAllowedLevel().label;
+            organizations[slot] = organizationId(competition.getOrganization());
+            competitionSlots.set(slot);
+        } else {
+            genders[slot] = NONE;
+            levelLabels[slot] = NONE;
+            organizations[slot] = NONE;
+            trainingSlots.set(slot);
+        }
+    }
+
+    /**
+     * Frees the slot of an activity, if it has one.
+     *
+     * @param activityId the id of the activity that was deleted
+     */
+    public void remove(int activityId) {
+        Integer slot = slots.remove(activityId);
+        if (slot != null) {
+            trainingSlots.clear(slot);
+            competitionSlots.clear(slot);
+        }
+    }
+
+    /**
+     * Removes all the activities from the engine.
+     */
+    public void clear() {
+        slots.clear();
+        organizationIds.clear();
+        trainingSlots.clear();
+        competitionSlots.clear();
+        size = 0;
+    }
+
+    /**
+     * Get the ids of the trainings which pass the certificate, position and start time rules
+     * for the given user.
+     *
+     * @param user the user for which to match the trainings
+     * @param earliestStart the earliest start a training can have, in epoch milliseconds
+     * @return the ids of the matching trainings, in ascending order
+     */
+    public List<Integer> matchTrainings(User user, long earliestStart) {
+        BitSet result = (BitSet) trainingSlots.clone();
+        matchCommon(user, earliestStart, result);
+        return toIds(result);
+    }
+
+    /**
+     * Get the ids of the competitions which pass the certificate, gender, organization,
+     * experience, position and start time rules for the given user.
+     *
+     * @param user the user for which to match the competitions
+     * @param earliestStart the earliest start a competition can have, in epoch milliseconds
+     * @return the ids of the matching competitions, in ascending order
+     */
+    public List<Integer> matchCompetitions(User user, long earliestStart) {
+        BitSet result = (BitSet) competitionSlots.clone();
+        matchCommon(user, earliestStart, result);
+        if (!result.isEmpty()) {
+            result.and(equalTo(genders, user.getGender().ordinal()));
+        }
+        if (!result.isEmpty()) {
+            Integer organization = organizationIds.get(user.getOrganisation());
+            result.and(equalTo(organizations, organization == null ? UNKNOWN : organization));
+        }
+        if (!result.isEmpty()) {
+            result.and(atLeast(levelLabels, user.getLevel().label));
+        }
+        return toIds(result);
+    }
+
+    /**
+     * Applies the rules shared by trainings and competitions.
+     */
+    private void matchCommon(User user, long earliestStart, BitSet result) {
+        if (!result.isEmpty()) {
+            result.and(startsFrom(earliestStart));
+        }
+        if (!result.isEmpty()) {
+            result.and(atMost(boatTypeLabels, user.getCertificate().label));
+        }
+        if (!result.isEmpty()) {
+            result.and(anyBit(openPositions, Activity.bit(user.getPosition())));
+        }
+        if (!result.isEmpty()) {
+            int days = 0;
+            for (Availability availability : user.getAvailabilities()) {
+                days |= 1 << availability.getDayOfWeek();
+            }
+            result.and(inMask(daysOfWeek, days));
+        }
+    }
+
+    private BitSet startsFrom(long earliestStart) {
+        BitSet bits = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (startInstants[i] >= earliestStart) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private BitSet equalTo(int[] column, int value) {
+        BitSet bits = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (column[i] == value) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private BitSet atMost(int[] column, int value) {
+        BitSet bits = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (column[i] <= value) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private BitSet atLeast(int[] column, int value) {
+        BitSet bits = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (column[i] >= value) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private BitSet anyBit(int[] column, int mask) {
+        BitSet bits = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if ((column[i] & mask) != 0) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private BitSet inMask(int[] column, int mask) {
+        BitSet bits = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if ((mask & (1 << column[i])) != 0) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private List<Integer> toIds(BitSet result) {
+        int[] ids = new int[result.cardinality()];
+        int count = 0;
+        for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+            ids[count++] = activityIds[slot];
+        }
+        Arrays.sort(ids);
+        List<Integer> list = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    /**
+     * Get the first slot not in use, growing the columns if all of them are taken.
+     */
+    private int freeSlot() {
+        BitSet used = (BitSet) trainingSlots.clone();
+        used.or(competitionSlots);
+        int slot = used.nextClearBit(0);
+        if (slot == activityIds.length) {
+            int capacity = activityIds.length * 2;
+            activityIds = Arrays.copyOf(activityIds, capacity);
+            boatTypeLabels = Arrays.copyOf(boatTypeLabels, capacity);
+            genders = Arrays.copyOf(genders, capacity);
+            levelLabels = Arrays.copyOf(levelLabels, capacity);
+            organizations = Arrays.copyOf(organizations, capacity);
+            openPositions = Arrays.copyOf(openPositions, capacity);
+            daysOfWeek = Arrays.copyOf(daysOfWeek, capacity);
+            startInstants = Arrays.copyOf(startInstants, capacity);
+        }
+        size = Math.max(size, slot + 1);
+        return slot;
+    }
+
+    private int organizationId(String organization) {
+        if (organization == null) {
+            return NONE;
+        }
+        return organizationIds.computeIfAbsent(organization, o -> organizationIds.size());
+    }
+}
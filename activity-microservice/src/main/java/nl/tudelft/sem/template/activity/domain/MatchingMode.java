@@ -0,0 +1,16 @@
+package nl.tudelft.sem.template.activity.domain;
+
+/**
+ * The ways in which the compatible activities of a user can be computed.
+ */
+public enum MatchingMode {
+    // Run the whole chain of validators on every activity of the kind asked for, without narrowing them down
+    VALIDATOR_CHAIN,
+    // Narrow the candidates down with the indexes of the activity catalog, then run the remaining validators
+    CATALOG_INDEX,
+    // Match certificate, gender, experience, organization, open position and start time with the columnar engine,
+    // then check only the availability windows with the availability index; no validators run afterwards
+    BITSET_ENGINE,
+    // Filter on the static attributes and the start time in the database, then check availability
+    DATABASE
+}
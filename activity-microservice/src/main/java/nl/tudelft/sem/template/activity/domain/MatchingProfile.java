@@ -0,0 +1,55 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Value;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+
+/**
+ * The attributes of a user the validators look at. Users with equal profiles are compatible
+ * with exactly the same activities, so a profile can stand in for all of them.
+ */
+@Value
+public class MatchingProfile {
+    BoatType certificate;
+    Gender gender;
+    Level level;
+    String organisation;
+    Positions position;
+
+    // The availability windows, without duplicates and sorted by day, start and end time
+    List<Availability> availabilities;
+
+    /**
+     * Get the profile of a user.
+     *
+     * @param user the user whose attributes to take
+     * @return the profile, with the availabilities in canonical order
+     */
+    public static MatchingProfile of(User user) {
+        List<Availability> availabilities = user.getAvailabilities().stream()
+                .map(a -> new Availability(a.getDayOfWeek(), a.getStartTime(), a.getEndTime()))
+                .distinct()
+                .sorted(Comparator.comparingInt(Availability::getDayOfWeek)
+                        .thenComparing(Availability::getStartTime)
+                        .thenComparing(Availability::getEndTime))
+                .collect(Collectors.toUnmodifiableList());
+        return new MatchingProfile(user.getCertificate(), user.getGender(), user.getLevel(),
+                user.getOrganisation(), user.getPosition(), availabilities);
+    }
+
+    /**
+     * Get a user with the attributes of this profile, to run the validators on.
+     *
+     * @return a user without id or name
+     */
+    public User toUser() {
+        return new User(null, null, null, null, organisation, certificate, gender, level, position,
+                new ArrayList<>(availabilities));
+    }
+}
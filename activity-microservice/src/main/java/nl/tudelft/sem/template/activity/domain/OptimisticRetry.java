@@ -0,0 +1,111 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.template.activity.models.RetryStatsResponseModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs changes to activities in their own transaction, and runs them again when another request
+ * modified the same activity or position in the meantime. Since the versions of the entities are
+ * checked when they are written, a change is never silently overwritten: the losing request reads
+ * the activity again and reapplies its change, after a short, growing pause.
+ */
+@Component
+@Slf4j
+public class OptimisticRetry {
+    // How many times a change is tried before the conflict is given up on
+    private final transient int maxAttempts;
+
+    // The pause before the first retry, in milliseconds; it doubles on every next retry
+    private final transient long backoff;
+
+    // The longest pause between two tries, in milliseconds
+    private final transient long maxBackoff;
+
+    // Runs every try in a new transaction
+    private final transient TransactionTemplate transactionTemplate;
+
+    private final transient AtomicLong attempts = new AtomicLong();
+    private final transient AtomicLong retries = new AtomicLong();
+    private final transient AtomicLong failures = new AtomicLong();
+
+    /**
+     * Constructor method.
+     *
+     * @param transactionManager the manager of the transactions in which the changes run
+     * @param maxAttempts how many times a change is tried before giving up
+     * @param backoff the pause before the first retry, in milliseconds
+     * @param maxBackoff the longest pause between two tries, in milliseconds
+     */
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           @Value("${activity.retry.attempts:5}") int maxAttempts,
+                           @Value("${activity.retry.backoff:10}") long backoff,
+                           @Value("${activity.retry.max-backoff:200}") long maxBackoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Runs the given change in a transaction, and again in a new one while it conflicts with
+     * a concurrent change. The change has to read the entities it modifies itself, so every
+     * try works on their latest version.
+     *
+     * @param change the change to run
+     * @param <T> the type of the result of the change
+     * @return the result of the first try which did not conflict
+     * @throws OptimisticLockingFailureException if every try conflicted
+     */
+    public <T> T run(Supplier<T> change) {
+        for (int attempt = 1; ; attempt++) {
+            attempts.incrementAndGet();
+            try {
+                return transactionTemplate.execute(status -> change.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    failures.incrementAndGet();
+                    log.warn("Giving up on a change after {} conflicting tries", attempt);
+                    throw e instanceof OptimisticLockingFailureException ? (OptimisticLockingFailureException) e
+                            : new OptimisticLockingFailureException(e.getMessage(), e);
+                }
+                retries.incrementAndGet();
+                pause(attempt);
+            }
+        }
+    }
+
+    /**
+     * Get the number of tries, retries and changes given up on so far.
+     *
+     * @return the statistics of the retries
+     */
+    public RetryStatsResponseModel getStats() {
+        return new RetryStatsResponseModel(attempts.get(), retries.get(), failures.get());
+    }
+
+    /**
+     * Waits before the next try, twice as long as before the previous one, up to the maximum,
+     * with some jitter so the conflicting requests do not retry in lockstep.
+     */
+    private void pause(int attempt) {
+        long delay = Math.min(maxBackoff, backoff << Math.min(attempt - 1, 20));
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("Interrupted while waiting to retry", e);
+        }
+    }
+}
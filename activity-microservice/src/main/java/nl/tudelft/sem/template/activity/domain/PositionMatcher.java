@@ -0,0 +1,66 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import nl.tudelft.sem.template.activity.domain.filters.Validator;
+import nl.tudelft.sem.template.activity.models.ActivityPositionsResponseModel;
+import org.springframework.stereotype.Component;
+
+/**
+ * Matches activities against a user who can fill several positions. Every activity is checked
+ * once for each of the positions, and kept together with the positions it can take the user in.
+ */
+@Component
+public class PositionMatcher {
+    /**
+     * Get the positions a user can fill: the set of positions if given, otherwise the single position.
+     *
+     * @param user the user, with the position or positions they can fill
+     * @return the positions of the user, in the order of the enum
+     */
+    public Set<Positions> positionsOf(User user) {
+        Set<Positions> positions = EnumSet.noneOf(Positions.class);
+        if (user.getPositions() != null) {
+            positions.addAll(user.getPositions());
+        }
+        if (positions.isEmpty() && user.getPosition() != null) {
+            positions.add(user.getPosition());
+        }
+        return positions;
+    }
+
+    /**
+     * Checks every candidate once for each of the given positions, and keeps the candidates
+     * which can take the user in at least one of them.
+     *
+     * @param candidates the candidate activities, ordered by their id
+     * @param user the user to match
+     * @param positions the positions the user can fill, ordered as they should be returned
+     * @param validator the checks an activity has to pass for a position
+     * @return the compatible activities with the positions they can take, ordered by their id
+     */
+    public List<ActivityPositionsResponseModel> match(List<Activity> candidates, User user,
+                                                      Set<Positions> positions, Validator validator) {
+        List<User> applicants = new ArrayList<>();
+        for (Positions position : positions) {
+            applicants.add(user.withPosition(position));
+        }
+
+        List<ActivityPositionsResponseModel> result = new ArrayList<>();
+        for (Activity activity : candidates) {
+            List<Positions> fitting = new ArrayList<>();
+            for (User applicant : applicants) {
+                if (validator.handle(applicant, activity)) {
+                    fitting.add(applicant.getPosition());
+                }
+            }
+            if (!fitting.isEmpty()) {
+                result.add(new ActivityPositionsResponseModel(activity, fitting));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Fills the spots of the positions of the activities. A spot is taken with a conditional update
+ * in the database, so filling needs neither the stripe of the activity nor a retry.
+ */
+@Service
+public class PositionService {
+    // The repository containing all the activities
+    private final transient ActivityRepository activityRepository;
+
+    // The repository containing the positions of the activities
+    private final transient RequiredPositionsRepository positionsRepository;
+
+    // The in-memory index of the activities
+    private final transient ActivityCatalog activityCatalog;
+
+    /**
+     * Constructor method.
+     *
+     * @param activityRepository The repository containing all the activities
+     * @param positionsRepository The repository containing the positions of the activities
+     * @param activityCatalog The in-memory index of the activities
+     */
+    public PositionService(ActivityRepository activityRepository, RequiredPositionsRepository positionsRepository,
+                           ActivityCatalog activityCatalog) {
+        this.activityRepository = activityRepository;
+        this.positionsRepository = positionsRepository;
+        this.activityCatalog = activityCatalog;
+    }
+
+    /**
+     * Fills one spot of the given position of an activity, and recomputes the open positions of the
+     * activity in the same transaction. The row of the activity is taken first, so the fills of one
+     * activity each recompute the open positions from the spots the previous ones left, and always
+     * take the rows in the same order as the updates of the activity. The catalog is only told once
+     * the transaction has committed.
+     *
+     * @param activityId the id of the activity
+     * @param position the position to fill
+     * @return true if a spot was filled, false if the activity does not exist or has no open spot
+     *         for the position
+     */
+    @Transactional
+    public boolean fill(int activityId, Positions position) {
+        if (activityRepository.bumpVersion(activityId) == 0) {
+            return false;
+        }
+        if (positionsRepository.fillPosition(activityId, position) == 0) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return false;
+        }
+        Activity activity = activityRepository.findByActivityId(activityId).orElseThrow();
+        activity.refreshOpenPositions();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                activityCatalog.refresh(activity);
+            }
+        });
+        return true;
+    }
+}
@@ -1,9 +1,15 @@
 package nl.tudelft.sem.template.activity.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,6 +17,7 @@ import lombok.Setter;
 import nl.tudelft.sem.template.activity.domain.enums.Positions;
 
 @Entity
+@Table(indexes = @Index(name = "idx_required_positions_open", columnList = "position, requiredOfPosition"))
 @Getter
 @Setter
 @EqualsAndHashCode
@@ -24,9 +31,23 @@ public class RequiredPositions {
     // Position that needs to be filled
     private Positions position;
 
-    // Amount of the needed positions required
+    // Amount of the positions still open, in requests and responses alike; left out of the equality,
+    // so the count can be changed in place while the position is in the set of its activity
+    @EqualsAndHashCode.Exclude
     private int requiredOfPosition;
 
+    // Amount of the positions filled so far; it is only shown, as it is only changed by filling a seat
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @EqualsAndHashCode.Exclude
+    private int filledOfPosition;
+
+    // The version of the position, increased on every write so concurrent changes are detected
+    @Version
+    @JsonIgnore
+    @Setter(AccessLevel.PACKAGE)
+    @EqualsAndHashCode.Exclude
+    private long version;
+
 
     /**
      * Constructor method.
@@ -48,6 +69,7 @@ public class RequiredPositions {
             return false;
         }
         this.requiredOfPosition--;
+        this.filledOfPosition++;
         return true;
     }
 }
@@ -1,8 +1,13 @@
 package nl.tudelft.sem.template.activity.domain;
 
 import java.util.Optional;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * A DDD repository for querying and persisting user aggregate roots.
@@ -18,4 +23,29 @@ public interface RequiredPositionsRepository extends JpaRepository<RequiredPosit
      * Check if an existing position already uses an ID.
      */
     boolean existsById(int positionId);
-}
\ No newline at end of file
+
+    /**
+     * Fills one spot of the given position of an activity in a single conditional update.
+     * The spot is only taken while one is still open, so concurrent requests can never fill
+     * more spots than the activity has, and the number of updated rows tells whether it worked.
+     * The version of the position is increased, so a concurrent update of it is detected.
+     *
+     * @param activityId the id of the activity
+     * @param position the position to fill
+     * @return 1 if a spot was filled, 0 if the activity has no open spot for the position
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE RequiredPositions rp SET rp.requiredOfPosition = rp.requiredOfPosition - 1,"
+            + " rp.filledOfPosition = rp.filledOfPosition + 1, rp.version = rp.version + 1"
+            + " WHERE rp.requiredOfPosition > 0 AND rp.id = (SELECT MIN(p.id) FROM Activity a JOIN a.positions p"
+            + " WHERE a.activityId = :activityId AND p.position = :position AND p.requiredOfPosition > 0)")
+    int fillPosition(@Param("activityId") int activityId, @Param("position") Positions position);
+
+    /**
+     * Check if the activity has the given position at all, filled or not.
+     */
+    @Query("SELECT COUNT(p) > 0 FROM Activity a JOIN a.positions p"
+            + " WHERE a.activityId = :activityId AND p.position = :position")
+    boolean existsInActivity(@Param("activityId") int activityId, @Param("position") Positions position);
+}
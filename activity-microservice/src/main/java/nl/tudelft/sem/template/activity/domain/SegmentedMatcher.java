@@ -0,0 +1,159 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks the candidate activities of a matching request. Small candidate lists are checked
+ * lazily on the calling thread; larger ones are split into segments of whole days, which are
+ * checked in parallel on a fork-join pool. Either way the matches come back ordered by id.
+ * Candidates can also be fetched page by page, in which case every page is checked this way
+ * once the matches of the previous one have been consumed.
+ */
+@Component
+public class SegmentedMatcher {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    // The number of candidates from which they are checked in parallel
+    private final transient int threshold;
+
+    // The pool on which the segments are checked
+    private final transient ForkJoinPool pool;
+
+    /**
+     * Constructor method.
+     *
+     * @param threshold the number of candidates from which they are checked in parallel
+     * @param parallelism the number of threads checking segments, or 0 for one per processor
+     */
+    public SegmentedMatcher(@Value("${activity.matching.parallel-threshold:2048}") int threshold,
+                            @Value("${activity.matching.parallelism:0}") int parallelism) {
+        this.threshold = threshold;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Get the candidates after the cursor which pass the given check.
+     *
+     * @param candidates the candidate activities, ordered by their id
+     * @param after only candidates with a higher id are checked
+     * @param check the check the activities have to pass; it must be safe to call from several threads
+     * @return the activities which pass the check, ordered by their id
+     */
+    public Stream<Activity> match(List<Activity> candidates, int after, Predicate<Activity> check) {
+        List<Activity> remaining = candidates.subList(firstAfter(candidates, after), candidates.size());
+        if (remaining.isEmpty() || remaining.size() < threshold) {
+            return remaining.stream().filter(check);
+        }
+        List<Activity> matches = pool.invoke(new SegmentTask(segments(remaining), check));
+        matches.sort(Comparator.comparingInt(Activity::getActivityId));
+        return matches.stream();
+    }
+
+    /**
+     * Get the activities of the given pages which pass the given check. A page is only checked,
+     * and the next one only fetched, once the matches of the previous one have been consumed.
+     *
+     * @param pages the pages of candidate activities, ordered by their id
+     * @param check the check the activities have to pass; it must be safe to call from several threads
+     * @return the activities which pass the check, ordered by their id
+     */
+    public Stream<Activity> matchPages(Stream<List<Activity>> pages, Predicate<Activity> check) {
+        return pages.flatMap(page -> match(page, 0, check));
+    }
+
+    /**
+     * Get the number of candidates to fetch per page, which is just enough to check a full page in parallel.
+     *
+     * @return the size of a page of candidates
+     */
+    public int getPageSize() {
+        return Math.max(1, threshold);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Get the index of the first candidate with an id higher than the given one.
+     */
+    private static int firstAfter(List<Activity> candidates, int after) {
+        int low = 0;
+        int high = candidates.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (candidates.get(middle).getActivityId() <= after) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Groups the candidates by the day on which they start, then merges consecutive days until
+     * every segment holds enough candidates to be worth a task of its own.
+     */
+    private List<List<Activity>> segments(List<Activity> candidates) {
+        Map<Long, List<Activity>> days = new TreeMap<>();
+        for (Activity activity : candidates) {
+            days.computeIfAbsent(Math.floorDiv(activity.getStartInstant(), DAY), d -> new ArrayList<>()).add(activity);
+        }
+        int segmentSize = Math.max(1, candidates.size() / (pool.getParallelism() * 4));
+        List<List<Activity>> segments = new ArrayList<>();
+        List<Activity> segment = new ArrayList<>();
+        for (List<Activity> day : days.values()) {
+            segment.addAll(day);
+            if (segment.size() >= segmentSize) {
+                segments.add(segment);
+                segment = new ArrayList<>();
+            }
+        }
+        if (!segment.isEmpty()) {
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    /**
+     * Checks a range of segments, forking half of it off as long as it holds more than one segment.
+     */
+    private static class SegmentTask extends RecursiveTask<List<Activity>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<List<Activity>> segments;
+        private final transient Predicate<Activity> check;
+
+        SegmentTask(List<List<Activity>> segments, Predicate<Activity> check) {
+            this.segments = segments;
+            this.check = check;
+        }
+
+        @Override
+        protected List<Activity> compute() {
+            if (segments.size() == 1) {
+                return segments.get(0).stream().filter(check).collect(Collectors.toList());
+            }
+            int middle = segments.size() / 2;
+            SegmentTask right = new SegmentTask(segments.subList(middle, segments.size()), check);
+            right.fork();
+            List<Activity> matches = new SegmentTask(segments.subList(0, middle), check).compute();
+            matches.addAll(right.join());
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+
+@Embeddable
+@Getter
+@Setter
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesPosition {
+    // Position that needs to be filled in every training of the series
+    @Column
+    private Positions position;
+
+    // Amount of the position every training of the series starts with
+    @Column
+    private int requiredOfPosition;
+}
@@ -1,8 +1,10 @@
 package nl.tudelft.sem.template.activity.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalTime;
 import java.util.Date;
 import java.util.Set;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -16,6 +18,11 @@ import nl.tudelft.sem.template.activity.domain.enums.BoatType;
 @Setter
 @EqualsAndHashCode
 public class Training extends Activity {
+    // The ID of the series this training was created from, or null if it was created on its own
+    @Column
+    @JsonIgnore
+    private Integer seriesId;
+
     /**
      * Constructor method.
      *
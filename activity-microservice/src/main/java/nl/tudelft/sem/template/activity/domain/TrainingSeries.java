@@ -0,0 +1,156 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.OrderColumn;
+import javax.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+
+/**
+ * A training which repeats every week between two dates, stored as a single row. Its trainings
+ * are only created in the activity table once they come close enough to be looked for, after which
+ * they are matched, filled and archived like any other training.
+ */
+@Entity
+@Table(name = "training_series", indexes = @Index(name = "idx_training_series_next", columnList = "nextDate"))
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class TrainingSeries {
+    // ID of the series
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column
+    private int seriesId;
+
+    // The ID of the owner of the series
+    @Column
+    private int ownerId;
+
+    // The date of the first training; the series repeats on the same day of every week
+    @Column
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private Date firstDate;
+
+    // The date after which the series has no more trainings
+    @Column
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private Date lastDate;
+
+    // The hour when the trainings start.
+    @Column
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm")
+    private LocalTime startTime;
+
+    // The hour when the trainings end.
+    @Column
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm")
+    private LocalTime endTime;
+
+    // The type of boat in which the trainings take place.
+    @Column
+    private BoatType boatType;
+
+    // The positions every training of the series starts with
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "training_series_positions", joinColumns = @JoinColumn(name = "seriesId"))
+    @OrderColumn
+    private List<SeriesPosition> positions = new ArrayList<>();
+
+    // The date of the first training which has not been created yet, or null once all of them were
+    @Column
+    @JsonIgnore
+    private Date nextDate;
+
+    /**
+     * Constructor method.
+     *
+     * @param ownerId The ID of the owner of the series
+     * @param firstDate The date of the first training
+     * @param lastDate The date after which the series has no more trainings
+     * @param startTime The hour when the trainings start
+     * @param endTime The hour when the trainings end
+     * @param positions The positions every training starts with
+     * @param boatType The type of boat in which the trainings take place
+     */
+    public TrainingSeries(int ownerId, Date firstDate, Date lastDate, LocalTime startTime, LocalTime endTime,
+                          Set<RequiredPositions> positions, BoatType boatType) {
+        this.ownerId = ownerId;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.boatType = boatType;
+        for (RequiredPositions position : positions) {
+            this.positions.add(new SeriesPosition(position.getPosition(), position.getRequiredOfPosition()));
+        }
+        this.nextDate = firstDate;
+    }
+
+    /**
+     * Creates the trainings of the series which have not been created yet and take place up to
+     * the given day, and moves the series past them. Trainings on days before the given first day
+     * are skipped, since they could no longer be joined.
+     *
+     * @param from the first day for which trainings are still created
+     * @param until the last day for which trainings are created
+     * @param zone the time zone in which the dates of the activities are read
+     * @return the new trainings, not stored yet
+     */
+    public List<Training> expand(LocalDate from, LocalDate until, ZoneId zone) {
+        List<Training> trainings = new ArrayList<>();
+        if (nextDate == null) {
+            return trainings;
+        }
+        LocalDate last = toLocalDate(lastDate, zone);
+        LocalDate date = toLocalDate(nextDate, zone);
+        while (!date.isAfter(until) && !date.isAfter(last)) {
+            if (!date.isBefore(from)) {
+                trainings.add(occurrence(Date.from(date.atStartOfDay(zone).toInstant())));
+            }
+            date = date.plusWeeks(1);
+        }
+        nextDate = date.isAfter(last) ? null : Date.from(date.atStartOfDay(zone).toInstant());
+        return trainings;
+    }
+
+    /**
+     * Get the training of the series on the given date, with its own copy of the positions.
+     */
+    private Training occurrence(Date date) {
+        Set<RequiredPositions> required = new HashSet<>();
+        for (SeriesPosition position : positions) {
+            required.add(new RequiredPositions(position.getPosition(), position.getRequiredOfPosition()));
+        }
+        Training training = new Training(ownerId, date, startTime, endTime, required, boatType);
+        training.setSeriesId(seriesId);
+        return training;
+    }
+
+    private static LocalDate toLocalDate(Date date, ZoneId zone) {
+        return date.toInstant().atZone(zone).toLocalDate();
+    }
+}
@@ -0,0 +1,38 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A DDD repository for querying and persisting the training series.
+ */
+@Repository
+public interface TrainingSeriesRepository extends JpaRepository<TrainingSeries, Integer> {
+    /**
+     * Find a series by its ID.
+     */
+    Optional<TrainingSeries> findBySeriesId(int seriesId);
+
+    /**
+     * Find the series which still have trainings to create on or before the given date.
+     */
+    @Query("SELECT s FROM TrainingSeries s WHERE s.nextDate IS NOT NULL AND s.nextDate <= :until")
+    List<TrainingSeries> findDue(@Param("until") Date until);
+
+    /**
+     * Find the earliest date on which one of the series has a training which has not been created yet.
+     */
+    @Query("SELECT MIN(s.nextDate) FROM TrainingSeries s")
+    Date findEarliestNextDate();
+
+    /**
+     * Find the trainings of a series which have not started before the given moment.
+     */
+    @Query("SELECT t FROM Training t WHERE t.seriesId = :seriesId AND t.startInstant >= :now")
+    List<Training> findUpcomingTrainings(@Param("seriesId") int seriesId, @Param("now") long now);
+}
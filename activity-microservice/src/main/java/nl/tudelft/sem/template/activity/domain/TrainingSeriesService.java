@@ -0,0 +1,196 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Stores recurring trainings as a single series and creates their trainings lazily. A training of
+ * a series is only stored in the activity table once it takes place within the horizon, which is
+ * checked when a series is added and periodically after that, never while trainings are read; from
+ * then on it is an ordinary training, which can be matched, filled, updated and archived like any
+ * other. The activity table therefore never holds more than a few weeks of trainings of a series,
+ * however long the series runs. The horizon is thus also how far ahead the trainings of a series
+ * can be found and joined: a training is only addressable by its id once it is stored, and the
+ * series itself shows the dates further ahead.
+ */
+@Service
+@Slf4j
+public class TrainingSeriesService {
+    // The repository containing the series
+    private final transient TrainingSeriesRepository trainingSeriesRepository;
+
+    // The repository containing all the activities
+    private final transient ActivityRepository activityRepository;
+
+    // The in-memory index of the activities
+    private final transient ActivityCatalog activityCatalog;
+
+    // The feed pushing the created trainings to the subscribed users
+    private final transient ActivityFeed activityFeed;
+
+    // The locks serialising the writes to the same activity
+    private final transient ActivityLocks activityLocks;
+
+    // Runs every expansion in its own transaction
+    private final transient TransactionTemplate transactionTemplate;
+
+    // How many days ahead the trainings of the series are created
+    private final transient int horizonDays;
+
+    // The moment from which a series has trainings to create, in milliseconds since the epoch
+    private transient volatile long nextDue = Long.MIN_VALUE;
+
+    // The clock used to decide which trainings are within the horizon
+    private transient MyClock myClock = new MyClock();
+
+    /**
+     * Constructor method.
+     *
+     * @param trainingSeriesRepository The repository containing the series
+     * @param activityRepository The repository containing all the activities
+     * @param activityCatalog The in-memory index of the activities
+     * @param activityFeed The feed pushing the created trainings to the subscribed users
+     * @param activityLocks The locks serialising the writes to the same activity
+     * @param transactionManager The manager of the transactions in which the trainings are created
+     * @param horizonDays How many days ahead the trainings of the series are created
+     */
+    public TrainingSeriesService(TrainingSeriesRepository trainingSeriesRepository,
+                                 ActivityRepository activityRepository,
+                                 ActivityCatalog activityCatalog,
+                                 ActivityFeed activityFeed,
+                                 ActivityLocks activityLocks,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${activity.series.horizon-days:14}") int horizonDays) {
+        this.trainingSeriesRepository = trainingSeriesRepository;
+        this.activityRepository = activityRepository;
+        this.activityCatalog = activityCatalog;
+        this.activityFeed = activityFeed;
+        this.activityLocks = activityLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizonDays = Math.max(0, horizonDays);
+    }
+
+    /**
+     * Sets the clock, and checks the series again against it.
+     */
+    public void setMyClock(MyClock myClock) {
+        this.myClock = myClock;
+        this.nextDue = Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds a new series to the database, and creates its trainings within the horizon.
+     *
+     * @param series the series to be added to the database, without id
+     * @return the added series, with its generated id
+     */
+    public TrainingSeries addNewSeries(TrainingSeries series) {
+        series.setNextDate(series.getFirstDate());
+        TrainingSeries saved = trainingSeriesRepository.save(series);
+        nextDue = Long.MIN_VALUE;
+        expandDue();
+        return saved;
+    }
+
+    /**
+     * Get a series by its ID.
+     *
+     * @param seriesId the ID of the series
+     * @return the series, if it exists
+     */
+    public Optional<TrainingSeries> getSeries(int seriesId) {
+        return trainingSeriesRepository.findBySeriesId(seriesId);
+    }
+
+    /**
+     * Creates the trainings of every series which take place within the horizon and were not
+     * created yet. Trainings on days which have already passed are skipped. This is a single
+     * volatile read as long as no series has trainings entering the horizon.
+     *
+     * @return the number of created trainings
+     */
+    @Scheduled(fixedDelayString = "${activity.series.interval:3600000}",
+            initialDelayString = "${activity.series.interval:3600000}")
+    public int expandDue() {
+        if (myClock.getCurrentTime() < nextDue) {
+            return 0;
+        }
+        return expand();
+    }
+
+    /**
+     * Removes a series, together with its trainings which have not started yet.
+     * The trainings which already took place stay, so they are still archived. Every training is
+     * removed while holding its stripe, like any other removal of it; the series itself goes last,
+     * so when a stripe stays busy the series can be removed again to take the remaining trainings.
+     *
+     * @param series the series to remove
+     * @return the number of removed trainings
+     * @throws ActivityBusyException if one of the trainings stayed busy
+     */
+    public synchronized int deleteSeries(TrainingSeries series) {
+        List<Training> upcoming = trainingSeriesRepository.findUpcomingTrainings(series.getSeriesId(),
+                myClock.getCurrentTime());
+        int removed = 0;
+        for (Training training : upcoming) {
+            int id = training.getActivityId();
+            boolean deleted = activityLocks.withLock(id, () -> {
+                boolean found = transactionTemplate.execute(status -> activityRepository.findByActivityId(id)
+                        .map(current -> {
+                            activityRepository.delete(current);
+                            return true;
+                        }).orElse(false));
+                activityCatalog.remove(id);
+                return found;
+            });
+            if (deleted) {
+                removed++;
+            }
+        }
+        trainingSeriesRepository.deleteById(series.getSeriesId());
+        nextDue = Long.MIN_VALUE;
+        return removed;
+    }
+
+    private synchronized int expand() {
+        long now = myClock.getCurrentTime();
+        if (now < nextDue) {
+            return 0;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+        LocalDate until = today.plusDays(horizonDays);
+
+        List<Training> created = transactionTemplate.execute(status -> {
+            List<Training> trainings = new ArrayList<>();
+            List<TrainingSeries> due = trainingSeriesRepository.findDue(Date.from(until.atStartOfDay(zone).toInstant()));
+            for (TrainingSeries series : due) {
+                trainings.addAll(series.expand(today, until, zone));
+            }
+            trainingSeriesRepository.saveAll(due);
+            return activityRepository.saveAll(trainings);
+        });
+        if (!created.isEmpty()) {
+            activityCatalog.putAll(created);
+            created.forEach(activityFeed::publish);
+            log.info("Created {} trainings of series taking place up to {}", created.size(), until);
+        }
+
+        Date earliest = trainingSeriesRepository.findEarliestNextDate();
+        nextDue = earliest == null ? Long.MAX_VALUE
+                : earliest.toInstant().atZone(zone).toLocalDate().minusDays(horizonDays)
+                        .atStartOfDay(zone).toInstant().toEpochMilli();
+        return created.size();
+    }
+}
@@ -2,11 +2,14 @@ package nl.tudelft.sem.template.activity.domain;
 
 import java.util.List;
 import java.util.stream.Collectors;
-import nl.tudelft.sem.template.activity.domain.filters.AvailabilityValidator;
+import java.util.stream.Stream;
+import nl.tudelft.sem.template.activity.domain.filters.AdaptiveValidator;
 import nl.tudelft.sem.template.activity.domain.filters.CertificateValidator;
 import nl.tudelft.sem.template.activity.domain.filters.PositionValidator;
 import nl.tudelft.sem.template.activity.domain.filters.StartTimeValidator;
-import nl.tudelft.sem.template.activity.domain.filters.Validator;
+import nl.tudelft.sem.template.activity.models.ActivityPageResponseModel;
+import nl.tudelft.sem.template.activity.models.ActivityPositionsResponseModel;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,38 +17,67 @@ import org.springframework.transaction.annotation.Transactional;
 public class TrainingService {
     // The repository containing all the activities
     private final transient ActivityRepository activityRepository;
-
-    // The validator which checks if a user matches all the requirements of a training.
-    private final transient Validator handler;
+    // The in-memory index of the activities
+    private final transient ActivityCatalog activityCatalog;
+    // The results of earlier compatibility queries
+    private final transient CompatibilityCache compatibilityCache;
+    // Finds the compatible trainings in the way the matching mode asks for
+    private final transient CompatibilityMatcher compatibilityMatcher;
+    // The clock used to decide which trainings can no longer be joined, outside the catalog.
+    private transient MyClock myClock = new MyClock();
 
     /**
      * Constructor method.
      *
      * @param activityRepository The repository containing all the activities
+     * @param activityCatalog The in-memory index of the activities
+     * @param segmentedMatcher Checks the candidates against the validators
+     * @param compatibilityCache The results of earlier compatibility queries
+     * @param positionMatcher Matches the trainings against each of the positions a user can fill
+     * @param activityValidators Builds the validator which checks every requirement of a training
+     * @param matchingMode Whether to use the validator chain, the catalog indexes, the matching engine
+     *                     or the database queries
      */
-    public TrainingService(ActivityRepository activityRepository) {
+    public TrainingService(ActivityRepository activityRepository, ActivityCatalog activityCatalog,
+                           SegmentedMatcher segmentedMatcher, CompatibilityCache compatibilityCache,
+                           PositionMatcher positionMatcher,
+                           ActivityValidators activityValidators,
+                           @Value("${activity.matching.mode:CATALOG_INDEX}") MatchingMode matchingMode) {
         this.activityRepository = activityRepository;
-        this.handler = setupValidator();
+        this.activityCatalog = activityCatalog;
+        this.compatibilityCache = compatibilityCache;
+        this.compatibilityMatcher = new CompatibilityMatcher(false, activityCatalog, activityRepository,
+                segmentedMatcher, positionMatcher, activityValidators, setupValidator(), matchingMode);
+    }
+
+    public void setMatchingMode(MatchingMode matchingMode) {
+        compatibilityMatcher.setMatchingMode(matchingMode);
+    }
+
+    public void setMyClock(MyClock myClock) {
+        this.myClock = myClock;
+        compatibilityMatcher.setMyClock(myClock);
     }
 
     /**
-     * Sets up all the validators in the chain of responsibility for the training checks.
+     * Sets up the validators for the training checks, fused into a single validator
+     * which reorders them based on their cost and rejection rate. Availability and
+     * start time are not part of it, since the activity catalog only returns activities
+     * which fit in the availability windows of the user and can still be joined.
      *
-     * @return a validator with all the connections created
+     * @return a validator running the training checks
      */
-    public static Validator setupValidator() {
-        Validator certificateValidator = new CertificateValidator();
-        Validator availabilityValidator = new AvailabilityValidator();
-        Validator startTimeValidator = new StartTimeValidator();
-        ((StartTimeValidator) startTimeValidator).setMyClock(new MyClock());
-
-        certificateValidator.setNext(availabilityValidator);
-        availabilityValidator.setNext(startTimeValidator);
-
-        Validator positionValidator = new PositionValidator();
-        startTimeValidator.setNext(positionValidator);
+    public static AdaptiveValidator setupValidator() {
+        return new AdaptiveValidator(List.of(new CertificateValidator(), new PositionValidator()));
+    }
 
-        return certificateValidator;
+    /**
+     * Get the order in which the training checks currently run, in the current matching mode.
+     *
+     * @return the names of the validators, in the order in which they run
+     */
+    public List<String> getValidatorOrder() {
+        return compatibilityMatcher.getValidatorOrder();
     }
 
     /**
@@ -57,31 +89,115 @@ public class TrainingService {
      */
     public Training addNewTraining(Training newTraining) throws Exception {
         if (!activityRepository.existsByActivityId(newTraining.getActivityId())) {
-            return activityRepository.save(newTraining);
+            Training saved = activityRepository.save(newTraining);
+            activityCatalog.put(saved);
+            return saved;
         }
         throw new Exception();
     }
 
     /**
-     * Get all activities from database and filter only trainings.
+     * Adds many new trainings to the database in one transaction. The trainings and their positions
+     * are inserted in JDBC batches, and the catalog is updated once for all of them.
+     *
+     * @param newTrainings the trainings to be added to the database, without ids
+     * @return the added trainings, with their generated ids
+     */
+    public List<Training> addNewTrainings(List<Training> newTrainings) {
+        List<Training> saved = activityRepository.saveAll(newTrainings);
+        activityCatalog.putAll(saved);
+        return saved;
+    }
+
+    /**
+     * Get all the trainings from the catalog, which keeps them apart from the competitions.
      *
      * @return all the trainings stored in the database
      */
     public List<Activity> getAllTrainings() {
-        return activityRepository
-                .findAll().stream().filter(a -> a instanceof Training).collect(Collectors.toList());
+        return activityCatalog.allTrainings();
     }
 
     /**
-     * Get all the compatible trainings for a given user.
+     * Get the flat listing rows of all the trainings, with the spots left per position inlined.
+     *
+     * @return the listing rows of all the trainings, ordered by their id
+     */
+    public List<ActivityListing> getTrainingListings() {
+        return activityCatalog.trainingListings();
+    }
+
+    /**
+     * Get all the compatible trainings for a given user. The result is cached for users with the
+     * same matching profile, until the activities change or one of the trainings can no longer be joined.
      *
      * @param user the user for which we have to retrieve the trainings.
      * @return all the compatible trainings for a given user in the database.
      */
     public List<Activity> getAllCompatibleTrainings(User user) {
-        return activityRepository.findAll()
-                .stream()
-                .filter(a -> a instanceof Training && handler.handle(user, a))
-                .collect(Collectors.toList());
+        MatchingProfile profile = MatchingProfile.of(user);
+        long version = activityCatalog.getVersion();
+        List<Activity> cached = compatibilityCache.get(Training.class, profile, version, myClock.getCurrentTime());
+        if (cached != null) {
+            return cached;
+        }
+        List<Activity> trainings = streamCompatibleTrainings(user, 0).collect(Collectors.toList());
+        long validUntil = trainings.stream()
+                .mapToLong(a -> StartTimeValidator.latestJoin(false, a.getStartInstant()))
+                .min().orElse(Long.MAX_VALUE);
+        compatibilityCache.put(Training.class, profile, version, validUntil, trainings);
+        return trainings;
+    }
+
+    /**
+     * Get the best compatible trainings for a given user, in the given order. The matches are ranked
+     * as they are found, keeping only the best ones, instead of collecting and sorting all of them.
+     *
+     * @param user the user for which we have to retrieve the trainings.
+     * @param ranking the order in which the trainings are ranked
+     * @param limit the maximum number of trainings to return
+     * @return the best compatible trainings, from best to worst
+     */
+    public List<Activity> getTopCompatibleTrainings(User user, ActivityRanking ranking, int limit) {
+        return ranking.top(streamCompatibleTrainings(user, 0), user, limit);
+    }
+
+    /**
+     * Get one page of the compatible trainings for a given user, ordered by their id.
+     *
+     * @param user the user for which we have to retrieve the trainings.
+     * @param after the id of the last training of the previous page, or 0 for the first page
+     * @param limit the maximum number of trainings in the page
+     * @return the page, with the cursor of the next page if there are more trainings
+     */
+    public ActivityPageResponseModel getCompatibleTrainingsPage(User user, int after, int limit) {
+        return ActivityPageResponseModel.fromMatches(streamCompatibleTrainings(user, after), limit);
+    }
+
+    /**
+     * Get the compatible trainings for a user who can fill several positions, together with the
+     * positions each of them can take. The catalog is searched once for all the positions, and
+     * only the candidates are checked per position.
+     *
+     * @param user the user for which we have to retrieve the trainings, with the positions they can fill
+     * @return the compatible trainings with the positions they can take, ordered by their id
+     */
+    public List<ActivityPositionsResponseModel> getCompatibleTrainingPositions(User user) {
+        return compatibilityMatcher.matchPositions(user);
+    }
+
+    /**
+     * Get the compatible trainings for a given user as a lazy stream, ordered by their id.
+     * The candidates are fetched page by page from the cursor on, and a page is only fetched and
+     * checked once the matches of the previous one have been consumed, so a consumer which stops
+     * early never causes the remaining trainings to be read. Full pages are checked in parallel,
+     * segment by segment.
+     *
+     * @param user the user for which we have to retrieve the trainings.
+     * @param after only trainings with a higher id are returned
+     * @return the compatible trainings with an id higher than the given one
+     */
+    public Stream<Activity> streamCompatibleTrainings(User user, int after) {
+        return compatibilityMatcher.stream(user, after);
     }
 }
@@ -1,15 +1,16 @@
 package nl.tudelft.sem.template.activity.domain;
 
 import java.util.List;
-import lombok.AllArgsConstructor;
+import java.util.Set;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import nl.tudelft.sem.template.activity.domain.enums.BoatType;
 import nl.tudelft.sem.template.activity.domain.enums.Gender;
 import nl.tudelft.sem.template.activity.domain.enums.Level;
 import nl.tudelft.sem.template.activity.domain.enums.Positions;
 
 @Data
-@AllArgsConstructor
+@NoArgsConstructor
 public class User {
     // The id of the user.
     Long id;
@@ -40,4 +41,47 @@ public class User {
 
     // A list of availabilities of a user.
     List<Availability> availabilities;
+
+    // All the positions the user can fill, when asking which of them each activity can take.
+    Set<Positions> positions;
+
+    /**
+     * Constructor method.
+     *
+     * @param id The id of the user
+     * @param username The username of the user
+     * @param firstName The firstname of the user
+     * @param lastName The lastname of the user
+     * @param organisation The organization of which the user is part of
+     * @param certificate The boat certificate of the user
+     * @param gender The gender of the user
+     * @param level The level of the user
+     * @param position The position for which the user applied
+     * @param availabilities A list of availabilities of a user
+     */
+    public User(Long id, String username, String firstName, String lastName, String organisation,
+                BoatType certificate, Gender gender, Level level, Positions position,
+                List<Availability> availabilities) {
+        this.id = id;
+        this.username = username;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.organisation = organisation;
+        this.certificate = certificate;
+        this.gender = gender;
+        this.level = level;
+        this.position = position;
+        this.availabilities = availabilities;
+    }
+
+    /**
+     * Get a copy of this user applying for another position.
+     *
+     * @param position the position to apply for
+     * @return the copy, without the set of positions
+     */
+    public User withPosition(Positions position) {
+        return new User(id, username, firstName, lastName, organisation, certificate, gender, level,
+                position, availabilities);
+    }
 }
@@ -0,0 +1,136 @@
+package nl.tudelft.sem.template.activity.domain.filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.template.activity.domain.Activity;
+import nl.tudelft.sem.template.activity.domain.User;
+
+/**
+ * Runs a list of validators as a single predicate which stops at the first rejection.
+ * It measures the cost and the rejection rate of every validator on a sample of the checks
+ * and periodically reorders them, so that the cheapest and most selective ones run first.
+ * The validators must not have a next validator set; the one set on this validator is
+ * called once all of them accept the activity.
+ */
+@Slf4j
+public class AdaptiveValidator extends BaseValidator {
+    // One out of this many checks is timed
+    private static final int SAMPLE_RATE = 16;
+
+    // The validators are reordered after this many checks
+    private static final int REORDER_INTERVAL = 1024;
+
+    // The validators which are combined, in their original order
+    private final transient List<Validator> rules;
+
+    // The order in which the validators currently run, as indices in the rules
+    private transient volatile int[] order;
+
+    // Statistics of every rule, over the sampled checks
+    private final transient AtomicLongArray evaluations;
+    private final transient AtomicLongArray rejections;
+    private final transient AtomicLongArray nanos;
+
+    // The number of checks done so far
+    private final transient AtomicLong checks = new AtomicLong();
+
+    /**
+     * Constructor method.
+     *
+     * @param rules the validators to combine, in the order in which to run them initially
+     */
+    public AdaptiveValidator(List<Validator> rules) {
+        this.rules = new ArrayList<>(rules);
+        this.order = new int[rules.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        this.evaluations = new AtomicLongArray(rules.size());
+        this.rejections = new AtomicLongArray(rules.size());
+        this.nanos = new AtomicLongArray(rules.size());
+    }
+
+    @Override
+    public boolean handle(User user, Activity activity) {
+        long check = checks.incrementAndGet();
+        if (check % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+        boolean sampled = check % SAMPLE_RATE == 0;
+        for (int rule : order) {
+            if (!sampled) {
+                if (!rules.get(rule).handle(user, activity)) {
+                    return false;
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            boolean accepted = rules.get(rule).handle(user, activity);
+            nanos.addAndGet(rule, System.nanoTime() - start);
+            evaluations.incrementAndGet(rule);
+            if (!accepted) {
+                rejections.incrementAndGet(rule);
+                return false;
+            }
+        }
+        return super.checkNext(user, activity);
+    }
+
+    /**
+     * Get the names of the validators, in the order in which they currently run.
+     *
+     * @return the simple class names of the validators
+     */
+    public List<String> getOrder() {
+        List<String> names = new ArrayList<>();
+        for (int rule : order) {
+            names.add(rules.get(rule).getClass().getSimpleName());
+        }
+        return names;
+    }
+
+    /**
+     * Sorts the validators by their expected cost per rejection, i.e. the average time they take
+     * divided by the fraction of activities they reject. Validators which never rejected anything
+     * come after those, cheapest first, and validators which were never timed keep their position
+     * at the end. The statistics are halved afterwards so that the order follows recent checks.
+     */
+    private synchronized void reorder() {
+        int[] current = order;
+        int[] group = new int[rules.size()];
+        double[] score = new double[rules.size()];
+        for (int rule = 0; rule < score.length; rule++) {
+            long evaluated = evaluations.get(rule);
+            if (evaluated == 0) {
+                group[rule] = 2;
+                continue;
+            }
+            double cost = (double) nanos.get(rule) / evaluated;
+            long rejected = rejections.get(rule);
+            group[rule] = rejected == 0 ? 1 : 0;
+            score[rule] = rejected == 0 ? cost : cost * evaluated / rejected;
+
+            evaluations.set(rule, evaluated / 2);
+            rejections.set(rule, rejected / 2);
+            nanos.set(rule, nanos.get(rule) / 2);
+        }
+
+        List<Integer> sorted = new ArrayList<>();
+        for (int rule : current) {
+            sorted.add(rule);
+        }
+        sorted.sort(Comparator.<Integer>comparingInt(rule -> group[rule])
+                .thenComparingDouble(rule -> score[rule]));
+
+        int[] next = sorted.stream().mapToInt(Integer::intValue).toArray();
+        if (!Arrays.equals(current, next)) {
+            order = next;
+            log.info("Reordered validators to {}", getOrder());
+        }
+    }
+}
@@ -9,9 +9,9 @@ import nl.tudelft.sem.template.activity.domain.User;
 public class AvailabilityValidator extends BaseValidator {
     @Override
     public boolean handle(User user, Activity activity) {
+        LocalDate activityDate = activity.getActivityDate().toInstant()
+                .atZone(ZoneId.systemDefault()).toLocalDate();
         for (Availability availability : user.getAvailabilities()) {
-            LocalDate activityDate = activity.getActivityDate().toInstant()
-                    .atZone(ZoneId.systemDefault()).toLocalDate();
             if (availability.getDayOfWeek() == activityDate.getDayOfWeek().getValue()) {
                 if (!activity.getStartTime().isBefore(availability.getStartTime())
                     && !activity.getEndTime().isBefore(availability.getStartTime())
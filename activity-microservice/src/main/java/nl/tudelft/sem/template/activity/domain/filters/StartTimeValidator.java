@@ -1,42 +1,81 @@
 package nl.tudelft.sem.template.activity.domain.filters;
 
-import java.time.ZoneId;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 import nl.tudelft.sem.template.activity.domain.Activity;
 import nl.tudelft.sem.template.activity.domain.Competition;
 import nl.tudelft.sem.template.activity.domain.MyClock;
 import nl.tudelft.sem.template.activity.domain.User;
 
-@Data
-@NoArgsConstructor
+/**
+ * Checks that the activity starts late enough to still be joined. The validator only reads its
+ * clock, so a single instance can be shared by the threads matching activities in parallel.
+ */
 public class StartTimeValidator extends BaseValidator {
-    MyClock myClock;
+    // The minimum number of minutes between now and the start of a training
+    public static final long TRAINING_TIME = 30;
 
-    private final long trainingTime = 30;
+    // The minimum number of minutes between now and the start of a competition
+    public static final long COMPETITION_TIME = 24 * 60;
 
-    private final long competitionTime = 24 * 60;
+    // The clock giving the current time; only replaced by the tests
+    private transient volatile MyClock myClock;
+
+    /**
+     * Creates a validator which uses the system clock.
+     */
+    public StartTimeValidator() {
+        this(new MyClock());
+    }
+
+    /**
+     * Creates a validator which uses the given clock.
+     *
+     * @param myClock the clock giving the current time
+     */
+    public StartTimeValidator(MyClock myClock) {
+        this.myClock = myClock;
+    }
+
+    void setMyClock(MyClock myClock) {
+        this.myClock = myClock;
+    }
 
     @Override
     public boolean handle(User user, Activity activity) {
-        long activityDateWithTime = activity.getActivityDate().toInstant()
-                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
-        activityDateWithTime +=
-                (activity.getStartTime().getHour() * 60 + activity.getStartTime().getMinute()) * 60 * 1000;
         long currentDate = myClock.getCurrentTime();
 
-        long diff = (activityDateWithTime - currentDate) / (60 * 1000);
+        long diff = (activity.getStartInstant() - currentDate) / (60 * 1000);
 
         if (activity instanceof Competition) {
-            if (diff < competitionTime) {
+            if (diff < COMPETITION_TIME) {
                 return false;
             }
         } else {
-            if (diff < trainingTime) {
+            if (diff < TRAINING_TIME) {
                 return false;
             }
         }
         return super.checkNext(user, activity);
     }
 
+    /**
+     * Get the earliest start an activity can have to still be joined at the given moment.
+     *
+     * @param competition whether the activity is a competition or a training
+     * @param currentTime the current time, in epoch milliseconds
+     * @return the earliest allowed start, in epoch milliseconds
+     */
+    public static long earliestStart(boolean competition, long currentTime) {
+        return currentTime + (competition ? COMPETITION_TIME : TRAINING_TIME) * 60 * 1000;
+    }
+
+    /**
+     * Get the last moment at which an activity can still be joined.
+     *
+     * @param competition whether the activity is a competition or a training
+     * @param startInstant the start of the activity, in epoch milliseconds
+     * @return the last moment the activity can be joined, in epoch milliseconds
+     */
+    public static long latestJoin(boolean competition, long startInstant) {
+        return startInstant - (competition ? COMPETITION_TIME : TRAINING_TIME) * 60 * 1000;
+    }
 }
@@ -0,0 +1,37 @@
+package nl.tudelft.sem.template.activity.models;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nl.tudelft.sem.template.activity.domain.Activity;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityPageResponseModel {
+    // The activities in the page, ordered by their id
+    private List<Activity> activities;
+
+    // The cursor to pass to get the next page, or null if this is the last page
+    private Integer nextCursor;
+
+    /**
+     * Builds a page from the matching activities following the cursor. Only one activity
+     * more than the page holds is taken from the stream, to know if there is a next page.
+     *
+     * @param matches the matching activities after the cursor, ordered by their id
+     * @param limit the maximum number of activities in the page
+     * @return the page of activities
+     */
+    public static ActivityPageResponseModel fromMatches(Stream<Activity> matches, int limit) {
+        List<Activity> activities = matches.limit(limit + 1L).collect(Collectors.toList());
+        if (activities.size() <= limit) {
+            return new ActivityPageResponseModel(activities, null);
+        }
+        activities.remove(limit);
+        return new ActivityPageResponseModel(activities, activities.get(limit - 1).getActivityId());
+    }
+}
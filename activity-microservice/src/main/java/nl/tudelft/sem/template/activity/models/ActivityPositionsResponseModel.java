@@ -0,0 +1,19 @@
+package nl.tudelft.sem.template.activity.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nl.tudelft.sem.template.activity.domain.Activity;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityPositionsResponseModel {
+    // The compatible activity
+    private Activity activity;
+
+    // The positions of the user the activity can take, in the order of the enum
+    private List<Positions> positions;
+}
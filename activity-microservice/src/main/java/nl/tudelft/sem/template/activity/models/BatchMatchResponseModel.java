@@ -0,0 +1,20 @@
+package nl.tudelft.sem.template.activity.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchMatchResponseModel {
+    // The id of the user
+    private Long userId;
+
+    // The ids of the trainings the user is compatible with, in ascending order
+    private List<Integer> trainingIds;
+
+    // The ids of the competitions the user is compatible with, in ascending order
+    private List<Integer> competitionIds;
+}
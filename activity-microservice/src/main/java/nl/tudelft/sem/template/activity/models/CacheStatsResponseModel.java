@@ -0,0 +1,22 @@
+package nl.tudelft.sem.template.activity.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatsResponseModel {
+    // The number of lookups answered from the cache
+    private long hits;
+
+    // The number of lookups which had to be computed
+    private long misses;
+
+    // The number of entries dropped to stay within the capacity
+    private long evictions;
+
+    // The number of entries currently in the cache
+    private int size;
+}
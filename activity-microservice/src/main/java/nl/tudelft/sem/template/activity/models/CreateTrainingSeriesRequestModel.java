@@ -0,0 +1,31 @@
+package nl.tudelft.sem.template.activity.models;
+
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.Set;
+import lombok.Data;
+import nl.tudelft.sem.template.activity.domain.RequiredPositions;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+@Data
+public class CreateTrainingSeriesRequestModel {
+
+    private int ownerId;
+
+    // The date of the first training; the series repeats on the same day of every week
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private Date firstDate;
+
+    // The date after which the series has no more trainings
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private Date lastDate;
+
+    private Set<RequiredPositions> requiredPositions;
+
+    private BoatType boatType;
+
+    private LocalTime startTime;
+
+    private LocalTime endTime;
+}
@@ -0,0 +1,17 @@
+package nl.tudelft.sem.template.activity.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LockStatsResponseModel {
+    // The exclusive upper bounds of the wait time buckets, in milliseconds; the last bucket is unbounded
+    private List<Long> bucketBounds;
+
+    // The statistics of the stripes which were used so far
+    private List<StripeStatsResponseModel> stripes;
+}
@@ -0,0 +1,19 @@
+package nl.tudelft.sem.template.activity.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RetryStatsResponseModel {
+    // The number of times a change to an activity was tried
+    private long attempts;
+
+    // The number of tries which conflicted with a concurrent change and were run again
+    private long retries;
+
+    // The number of changes given up on because every try conflicted
+    private long failures;
+}
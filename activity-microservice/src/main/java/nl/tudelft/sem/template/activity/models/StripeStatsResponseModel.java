@@ -0,0 +1,29 @@
+package nl.tudelft.sem.template.activity.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StripeStatsResponseModel {
+    // The index of the stripe
+    private int stripe;
+
+    // The number of writes which got the lock of the stripe
+    private long acquisitions;
+
+    // The number of writes which had to wait for the lock
+    private long contended;
+
+    // The number of writes which were refused because the lock was not free in time
+    private long timeouts;
+
+    // The total time the writes waited for the lock, in milliseconds
+    private long waitMillis;
+
+    // The number of waits per wait time bucket
+    private List<Long> waitHistogram;
+}
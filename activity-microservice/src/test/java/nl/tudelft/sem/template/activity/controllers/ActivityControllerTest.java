@@ -1,23 +1,42 @@
 package nl.tudelft.sem.template.activity.controllers;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import nl.tudelft.sem.template.activity.authentication.AuthManager;
 import nl.tudelft.sem.template.activity.authentication.JwtTokenVerifier;
+import nl.tudelft.sem.template.activity.domain.Activity;
+import nl.tudelft.sem.template.activity.domain.ActivityCatalog;
 import nl.tudelft.sem.template.activity.domain.ActivityRepository;
 import nl.tudelft.sem.template.activity.domain.Competition;
 import nl.tudelft.sem.template.activity.domain.RequiredPositions;
 import nl.tudelft.sem.template.activity.domain.RequiredPositionsRepository;
 import nl.tudelft.sem.template.activity.domain.Training;
+import nl.tudelft.sem.template.activity.domain.TrainingService;
 import nl.tudelft.sem.template.activity.domain.enums.BoatType;
 import nl.tudelft.sem.template.activity.domain.enums.Gender;
 import nl.tudelft.sem.template.activity.domain.enums.Level;
@@ -27,6 +46,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
@@ -51,12 +72,18 @@ public class ActivityControllerTest {
     @Autowired
     private transient RequiredPositionsRepository positionsRepository;
 
+    @Autowired
+    private transient ActivityCatalog activityCatalog;
+
     @Autowired
     private transient JwtTokenVerifier mockJwtTokenVerifier;
 
     @Autowired
     private transient AuthManager mockAuthenticationManager;
 
+    @SpyBean
+    private transient TrainingService trainingService;
+
     private Training training = new Training(0, new Date(12345), LocalTime.of(10, 35),
             LocalTime.of(12, 45), Set.of(new RequiredPositions(Positions.COX, 2)),
             BoatType.C4);
@@ -100,7 +127,74 @@ public class ActivityControllerTest {
 
         assertThat(response).isEqualTo("{\"activityId\":1,\"ownerId\":0,\"activityDate\":\"1970-01-01\","
                 + "\"startTime\":\"10:35\",\"endTime\":\"12:45\",\"positions\":[{\"id\":2,\"position\":\"COX\","
-                + "\"requiredOfPosition\":2}],\"boatType\":\"C4\"}");
+                + "\"requiredOfPosition\":2,\"filledOfPosition\":0}],\"boatType\":\"C4\",\"competition\":false}");
+    }
+
+    @Test
+    public void retrieveActivityByIdNotModified() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        addTraining(training);
+
+        String etag = mockMvc.perform(get("/activities/1")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo("\"1-0-1-0-2\"");
+
+        ResultActions unchanged = mockMvc.perform(get("/activities/1")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .header("Authorization", "Bearer MockedToken"));
+        unchanged.andExpect(status().isNotModified());
+        assertThat(unchanged.andReturn().getResponse().getContentAsString()).isEmpty();
+
+        mockMvc.perform(put("/fillPosition")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"activityId\": \"1\", \"position\": \"COX\"}")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
+
+        ResultActions changed = mockMvc.perform(get("/activities/1")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .header("Authorization", "Bearer MockedToken"));
+        changed.andExpect(status().isOk());
+        assertThat(changed.andReturn().getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(changed.andReturn().getResponse().getContentAsString()).contains("\"requiredOfPosition\":1");
+    }
+
+    @Test
+    public void retrieveTrainingsNotModified() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        addTraining(training);
+
+        String etag = mockMvc.perform(get("/retrieveActivities/training")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        mockMvc.perform(get("/retrieveActivities/training")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isNotModified());
+        // The trainings are only read for the first response, not for the 304
+        verify(trainingService, times(1)).getAllTrainings();
+
+        mockMvc.perform(put("/fillPosition")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"activityId\": \"1\", \"position\": \"COX\"}")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/retrieveActivities/training")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
     }
 
     @Test
@@ -140,6 +234,57 @@ public class ActivityControllerTest {
         assertThat(response).isEqualTo("Training successfully added!");
     }
 
+    private String trainingJson(int ownerId, String boatType) {
+        return "{\"ownerId\": \"" + ownerId + "\", \"date\": \"2023-01-03\","
+                + " \"requiredPositions\": [{\"position\": \"COX\", \"requiredOfPosition\": \"1\"}],"
+                + " \"boatType\": " + boatType + ", \"startTime\": \"13:30\", \"endTime\": \"15:00\"}";
+    }
+
+    @Test
+    public void createTrainings() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        String requestJson = "[" + trainingJson(12, "\"C4\"") + ", " + trainingJson(12, "\"EIGHT_PLUS\"") + "]";
+
+        ResultActions result = mockMvc.perform(put("/createActivities/training")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson)
+                .header("Authorization", "Bearer MockedToken"));
+
+        // Assert
+        result.andExpect(status().isOk());
+
+        String response = result.andReturn().getResponse().getContentAsString();
+
+        assertThat(response).isEqualTo("2 trainings successfully added!");
+        assertThat(activityRepository.findAllTrainings()).hasSize(2)
+                .allSatisfy(activity -> assertThat(activity.getPositions()).hasSize(1));
+    }
+
+    @Test
+    public void createTrainingsStoresNothingIfOneIsIncomplete() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        String requestJson = "[" + trainingJson(12, "\"C4\"") + ", " + trainingJson(12, "null") + "]";
+
+        ResultActions result = mockMvc.perform(put("/createActivities/training")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson)
+                .header("Authorization", "Bearer MockedToken"));
+
+        // Assert
+        result.andExpect(status().isBadRequest());
+
+        String response = result.andReturn().getResponse().getContentAsString();
+
+        assertThat(response).isEqualTo("All fields must be introduced for training 1");
+        assertThat(activityRepository.findAll()).isEmpty();
+    }
+
     @Test
     public void createTrainingBadOwner() throws Exception {
         when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
@@ -714,7 +859,7 @@ public class ActivityControllerTest {
 
         assertThat(response).isEqualTo("[{\"activityId\":1,\"ownerId\":0,\"activityDate\":\"1970-01-01\","
                 + "\"startTime\":\"10:35\",\"endTime\":\"12:45\",\"positions\":[{\"id\":2,\"position\":\"COX\","
-                + "\"requiredOfPosition\":2}],\"boatType\":\"C4\"}]");
+                + "\"requiredOfPosition\":2,\"filledOfPosition\":0}],\"boatType\":\"C4\",\"competition\":false}]");
     }
 
     @Test
@@ -737,8 +882,32 @@ public class ActivityControllerTest {
 
         assertThat(response).isEqualTo("[{\"activityId\":3,\"ownerId\":0,\"activityDate\":\"1970-01-01\","
                 + "\"startTime\":\"10:35\",\"endTime\":\"12:45\",\"positions\":[{\"id\":4,\"position\":\"COX\","
-                + "\"requiredOfPosition\":2}],\"boatType\":\"C4\",\"allowedLevel\":\"AMATEUR\",\"allowedGender\":"
-                + "\"MALE\",\"organization\":\"tudelft\"}]");
+                + "\"requiredOfPosition\":2,\"filledOfPosition\":0}],\"boatType\":\"C4\",\"allowedLevel\":\"AMATEUR\","
+                + "\"allowedGender\":\"MALE\",\"organization\":\"tudelft\",\"competition\":true}]");
+    }
+
+    @Test
+    public void retrieveTrainingListings() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        addTraining(training2);
+        addCompetition(competition);
+
+        ResultActions result = mockMvc.perform(get("/retrieveActivities/training/listing")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer MockedToken"));
+
+        // Assert
+        result.andExpect(status().isOk());
+
+        String response = result.andReturn().getResponse().getContentAsString();
+
+        assertThat(response).isEqualTo("[{\"activityId\":1,\"competition\":false,\"ownerId\":2,"
+                + "\"activityDate\":\"1970-01-01\",\"startTime\":\"10:35\",\"endTime\":\"12:45\","
+                + "\"boatType\":\"C4\",\"positions\":{\"COX\":2,\"COACH\":0},\"openSpots\":2,"
+                + "\"allowedLevel\":null,\"allowedGender\":null,\"organization\":null}]");
     }
 
     @Test
@@ -767,6 +936,116 @@ public class ActivityControllerTest {
         assertThat(response).isEqualTo("Position successfully filled");
     }
 
+    @Test
+    public void fillPositionUntilFull() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        addTraining(training);
+
+        String requestJson = "{\n"
+                + "    \"activityId\": \"1\",\n"
+                + "    \"position\": \"COX\"\n"
+                + "}";
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(put("/fillPosition")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestJson)
+                    .header("Authorization", "Bearer MockedToken"))
+                    .andExpect(status().isOk());
+        }
+
+        ResultActions result = mockMvc.perform(put("/fillPosition")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson)
+                .header("Authorization", "Bearer MockedToken"));
+
+        // Assert
+        result.andExpect(status().isBadRequest());
+
+        String response = result.andReturn().getResponse().getContentAsString();
+
+        assertThat(response).isEqualTo("Position already filled");
+        Activity activity = activityRepository.findByActivityId(1).get();
+        assertThat(activity.getPositions()).extracting(RequiredPositions::getRequiredOfPosition).containsExactly(0);
+        assertThat(activity.hasOpenPosition(Positions.COX)).isFalse();
+    }
+
+    @Test
+    public void fillLastSeatConcurrently() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        addTraining(new Training(0, new Date(12345), LocalTime.of(10, 35), LocalTime.of(12, 45),
+                Set.of(new RequiredPositions(Positions.COX, 1)), BoatType.C4));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            statuses.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(put("/fillPosition")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"activityId\": \"1\", \"position\": \"COX\"}")
+                        .header("Authorization", "Bearer MockedToken"))
+                        .andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> status : statuses) {
+            results.add(status.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertThat(results).containsExactlyInAnyOrder(200, 400);
+        assertThat(activityRepository.findByActivityId(1).get().getPositions())
+                .extracting(RequiredPositions::getRequiredOfPosition).containsExactly(0);
+    }
+
+    @Test
+    public void fillDifferentPositionsConcurrently() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        addTraining(new Training(0, new Date(12345), LocalTime.of(10, 35), LocalTime.of(12, 45),
+                Set.of(new RequiredPositions(Positions.COX, 1), new RequiredPositions(Positions.COACH, 1)),
+                BoatType.C4));
+        // Filled before the fills, so they have to refresh it in the order they committed
+        assertThat(activityCatalog.allTrainings()).hasSize(1);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (Positions position : List.of(Positions.COX, Positions.COACH)) {
+            statuses.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(put("/fillPosition")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"activityId\": \"1\", \"position\": \"" + position + "\"}")
+                        .header("Authorization", "Bearer MockedToken"))
+                        .andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> status : statuses) {
+            assertThat(status.get(10, TimeUnit.SECONDS)).isEqualTo(200);
+        }
+        executor.shutdown();
+
+        // Each fill recomputed the open positions after the other one, so neither position is left open
+        Activity activity = activityRepository.findByActivityId(1).get();
+        assertThat(activity.hasOpenPosition(Positions.COX)).isFalse();
+        assertThat(activity.hasOpenPosition(Positions.COACH)).isFalse();
+        assertThat(activityCatalog.allTrainings()).extracting(a -> a.hasOpenPosition(Positions.COX)
+                || a.hasOpenPosition(Positions.COACH)).containsExactly(false);
+    }
+
     @Test
     public void fillPositionBadId() throws Exception {
         when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
@@ -1135,6 +1414,145 @@ public class ActivityControllerTest {
         assertThat(response).isEqualTo("Training successfully updated");
     }
 
+    @Test
+    public void patchTrainingKeepsUnchangedPositions() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        addTraining(training2);
+        Map<Positions, Integer> ids = new EnumMap<>(Positions.class);
+        activityRepository.findByActivityId(1).get().getPositions()
+                .forEach(pos -> ids.put(pos.getPosition(), pos.getId()));
+
+        String requestJson = "{\n"
+                + "    \"activityId\": \"1\",\n"
+                + "    \"ownerId\": \"2\",\n"
+                + "    \"requiredPositions\": [\n"
+                + "    {\n"
+                + "        \"position\": \"COX\",\n"
+                + "        \"requiredOfPosition\": \"1\"\n"
+                + "    },\n"
+                + "    {\n"
+                + "        \"position\": \"SCULLING_ROWER\",\n"
+                + "        \"requiredOfPosition\": \"2\"\n"
+                + "    }\n"
+                + "    ],\n"
+                + "    \"startTime\": \"09:00\"\n"
+                + "}";
+
+        ResultActions result = mockMvc.perform(patch("/updateActivity/training")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson)
+                .header("Authorization", "Bearer MockedToken"));
+
+        // Assert
+        result.andExpect(status().isOk());
+
+        Activity activity = activityRepository.findByActivityId(1).get();
+        assertThat(activity.getStartTime()).isEqualTo(LocalTime.of(9, 0));
+        assertThat(activity.getEndTime()).isEqualTo(LocalTime.of(12, 45));
+        assertThat(activity.getPositions()).extracting(RequiredPositions::getPosition)
+                .containsExactlyInAnyOrder(Positions.COX, Positions.SCULLING_ROWER);
+        RequiredPositions cox = activity.getPositions().stream()
+                .filter(pos -> pos.getPosition() == Positions.COX).findFirst().get();
+        assertThat(cox.getId()).isEqualTo(ids.get(Positions.COX));
+        assertThat(cox.getRequiredOfPosition()).isEqualTo(1);
+
+        mockMvc.perform(patch("/updateActivity/training")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"activityId\": \"1\", \"ownerId\": \"2\", \"endTime\": \"13:00\"}")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
+
+        assertThat(activityRepository.findByActivityId(1).get().getPositions()).hasSize(2);
+    }
+
+    @Test
+    public void updateTrainingKeepsFilledSeats() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        addTraining(new Training(2, new Date(12345), LocalTime.of(10, 35), LocalTime.of(12, 45),
+                Set.of(new RequiredPositions(Positions.COX, 2)), BoatType.C4));
+
+        mockMvc.perform(put("/fillPosition")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"activityId\": \"1\", \"position\": \"COX\"}")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
+
+        // The counts are the open seats, so patching one open seat leaves the filled seat taken
+        mockMvc.perform(patch("/updateActivity/training")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"activityId\": \"1\", \"ownerId\": \"2\","
+                        + " \"requiredPositions\": [{\"position\": \"COX\", \"requiredOfPosition\": \"3\"}]}")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
+
+        RequiredPositions cox = activityRepository.findByActivityId(1).get().getPositions().iterator().next();
+        assertThat(cox.getRequiredOfPosition()).isEqualTo(3);
+        assertThat(cox.getFilledOfPosition()).isEqualTo(1);
+
+        // Dropping a position with filled seats is rejected, and nothing else of the update is applied
+        ResultActions result = mockMvc.perform(patch("/updateActivity/training")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"activityId\": \"1\", \"ownerId\": \"2\", \"startTime\": \"09:00\","
+                        + " \"requiredPositions\": [{\"position\": \"SCULLING_ROWER\", \"requiredOfPosition\": \"1\"}]}")
+                .header("Authorization", "Bearer MockedToken"));
+
+        result.andExpect(status().isBadRequest());
+        assertThat(result.andReturn().getResponse().getContentAsString())
+                .isEqualTo("Positions cannot be negative, nor removed while seats are filled");
+        Activity activity = activityRepository.findByActivityId(1).get();
+        assertThat(activity.getStartTime()).isEqualTo(LocalTime.of(10, 35));
+        assertThat(activity.getPositions()).extracting(RequiredPositions::getPosition)
+                .containsExactly(Positions.COX);
+    }
+
+    @Test
+    public void updateTrainingWithTheRetrievedPositionsChangesNothing() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        addTraining(new Training(2, new Date(12345), LocalTime.of(10, 35), LocalTime.of(12, 45),
+                Set.of(new RequiredPositions(Positions.COX, 2)), BoatType.C4));
+
+        mockMvc.perform(put("/fillPosition")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"activityId\": \"1\", \"position\": \"COX\"}")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode retrieved = objectMapper.readTree(mockMvc.perform(get("/activities/1")
+                .header("Authorization", "Bearer MockedToken"))
+                .andReturn().getResponse().getContentAsString());
+        assertThat(retrieved.get("positions").get(0).get("requiredOfPosition").asInt()).isEqualTo(1);
+        assertThat(retrieved.get("positions").get(0).get("filledOfPosition").asInt()).isEqualTo(1);
+
+        // The positions are sent back as they were read, filled seats included
+        ObjectNode update = objectMapper.createObjectNode()
+                .put("activityId", retrieved.get("activityId").asInt())
+                .put("ownerId", retrieved.get("ownerId").asInt());
+        update.set("requiredPositions", retrieved.get("positions"));
+        mockMvc.perform(put("/updateActivity/training")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update))
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
+
+        JsonNode after = objectMapper.readTree(mockMvc.perform(get("/activities/1")
+                .header("Authorization", "Bearer MockedToken"))
+                .andReturn().getResponse().getContentAsString());
+        assertThat(after.get("positions")).isEqualTo(retrieved.get("positions"));
+        RequiredPositions cox = activityRepository.findByActivityId(1).get().getPositions().iterator().next();
+        assertThat(cox.getRequiredOfPosition()).isEqualTo(1);
+        assertThat(cox.getFilledOfPosition()).isEqualTo(1);
+    }
+
     @Test
     public void updateTrainingBadId() throws Exception {
         when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
@@ -1277,4 +1695,80 @@ public class ActivityControllerTest {
 
         assertThat(response).isEqualTo("Id provided for competition, please use 'updateActivity/competition'");
     }
+
+    @Test
+    public void retrieveCompatibleRejectsSortWithoutLimit() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        mockMvc.perform(get("/retrieveCompatible/training").param("sort", "TIGHTEST_FIT")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/retrieveCompatible/competition").param("sort", "TIGHTEST_FIT")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void retrieveCompatibleTrainingsNotModified() throws Exception {
+        when(mockAuthenticationManager.getNetId()).thenReturn("ExampleUser");
+        when(mockJwtTokenVerifier.validateToken(anyString())).thenReturn(true);
+        when(mockJwtTokenVerifier.getNetIdFromToken(anyString())).thenReturn("ExampleUser");
+
+        addTraining(training);
+        String user = "{\"organisation\": \"tudelft\", \"certificate\": \"C4\", \"gender\": \"MALE\","
+                + " \"level\": \"AMATEUR\", \"position\": \"COX\", \"availabilities\": []}";
+
+        for (String uri : List.of("/retrieveCompatible/training", "/retrieveCompatible/training/positions")) {
+            String etag = mockMvc.perform(get(uri)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(user)
+                    .header("Authorization", "Bearer MockedToken"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(etag).isNotNull();
+
+            ResultActions unchanged = mockMvc.perform(get(uri)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(user)
+                    .header(HttpHeaders.IF_NONE_MATCH, etag)
+                    .header("Authorization", "Bearer MockedToken"));
+            unchanged.andExpect(status().isNotModified());
+            assertThat(unchanged.andReturn().getResponse().getContentAsString()).isEmpty();
+
+            // Another user gets another tag
+            mockMvc.perform(get(uri)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(user.replace("AMATEUR", "PROFESSIONAL"))
+                    .header(HttpHeaders.IF_NONE_MATCH, etag)
+                    .header("Authorization", "Bearer MockedToken"))
+                    .andExpect(status().isOk());
+        }
+        // The trainings are only matched for the responses with a body
+        verify(trainingService, times(2)).getAllCompatibleTrainings(any());
+        verify(trainingService, times(2)).getCompatibleTrainingPositions(any());
+
+        String etag = mockMvc.perform(get("/retrieveCompatible/training")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(user)
+                .header("Authorization", "Bearer MockedToken"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(put("/fillPosition")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"activityId\": \"1\", \"position\": \"COX\"}")
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/retrieveCompatible/training")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(user)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .header("Authorization", "Bearer MockedToken"))
+                .andExpect(status().isOk());
+    }
 }
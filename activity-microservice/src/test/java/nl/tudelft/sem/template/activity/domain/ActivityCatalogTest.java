@@ -0,0 +1,200 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.DATE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.WEEK_BEFORE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.positions;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class ActivityCatalogTest {
+    @Autowired
+    private transient ActivityCatalog activityCatalog;
+
+    @Autowired
+    private transient ActivityRepository activityRepository;
+
+    private List<Activity> activities;
+
+    private static final long MINUTE = 60 * 1000;
+
+    private final MyClock myClock = mock(MyClock.class);
+
+    private final User user = user(1L, Positions.COX, "org");
+
+    @BeforeEach
+    public void clearDatabase() {
+        activities = activityRepository.findAll();
+        activityRepository.deleteAll();
+        activityCatalog.invalidate();
+        when(myClock.getCurrentTime()).thenReturn(WEEK_BEFORE);
+        activityCatalog.setMyClock(myClock);
+    }
+
+    @AfterEach
+    public void resetDatabase() {
+        activityRepository.deleteAll();
+        activityRepository.saveAll(activities);
+        activityCatalog.invalidate();
+        activityCatalog.setMyClock(new MyClock());
+    }
+
+    private Training training(BoatType boatType, Set<RequiredPositions> positions) {
+        return activityRepository.save(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions, boatType));
+    }
+
+    private Competition competition(Level level, Gender gender, String organization) {
+        return activityRepository.save(new Competition(2, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), level, gender, BoatType.C4, organization));
+    }
+
+    @Test
+    public void testLoadsFromRepository() {
+        Training training = training(BoatType.C4, positions(Positions.COX, 1));
+
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).extracting(Activity::getActivityId)
+                .containsExactly(training.getActivityId());
+    }
+
+    @Test
+    public void testTrainingBuckets() {
+        Training fits = training(BoatType.FOUR_PLUS, positions(Positions.COX, 1));
+        training(BoatType.EIGHT_PLUS, positions(Positions.COX, 1));
+        training(BoatType.C4, positions(Positions.COACH, 1));
+        training(BoatType.C4, positions(Positions.COX, 0));
+        competition(Level.AMATEUR, Gender.MALE, "org");
+
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).extracting(Activity::getActivityId)
+                .containsExactly(fits.getActivityId());
+    }
+
+    @Test
+    public void testCompetitionBuckets() {
+        Competition fits = competition(Level.AMATEUR, Gender.MALE, "org");
+        competition(Level.PROFESSIONAL, Gender.MALE, "org");
+        competition(Level.AMATEUR, Gender.FEMALE, "org");
+        competition(Level.AMATEUR, Gender.MALE, "other");
+        training(BoatType.C4, positions(Positions.COX, 1));
+
+        assertThat(activityCatalog.candidateCompetitions(user, 0, 10)).extracting(Activity::getActivityId)
+                .containsExactly(fits.getActivityId());
+    }
+
+    @Test
+    public void testPutReindexes() {
+        Training training = training(BoatType.C4, positions(Positions.COX, 1));
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).extracting(Activity::getActivityId)
+                .containsExactly(training.getActivityId());
+
+        training.getPositions().forEach(RequiredPositions::fillPosition);
+        activityCatalog.put(activityRepository.save(training));
+
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void testRefreshKeepsTheLatestVersion() {
+        Training training = training(BoatType.C4, positions(Positions.COX, 1));
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).hasSize(1);
+
+        Activity filled = activityRepository.findByActivityId(training.getActivityId()).get();
+        filled.fillPosition(Positions.COX);
+        filled.setVersion(training.getVersion() + 2);
+        activityCatalog.refresh(filled);
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).isEmpty();
+
+        // A change which committed earlier but arrives later is ignored
+        training.setVersion(training.getVersion() + 1);
+        activityCatalog.refresh(training);
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).isEmpty();
+
+        // A deleted activity is not put back
+        activityCatalog.remove(training.getActivityId());
+        filled.setVersion(filled.getVersion() + 1);
+        activityCatalog.refresh(filled);
+        assertThat(activityCatalog.allTrainings()).isEmpty();
+    }
+
+    @Test
+    public void testAvailability() {
+        Training fits = training(BoatType.C4, positions(Positions.COX, 1));
+        activityRepository.save(new Training(1, DATE, LocalTime.of(19, 30),
+                LocalTime.of(21, 0), positions(Positions.COX, 1), BoatType.C4));
+
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).extracting(Activity::getActivityId)
+                .containsExactly(fits.getActivityId());
+    }
+
+    @Test
+    public void testRemove() {
+        Training training = training(BoatType.C4, positions(Positions.COX, 1));
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).extracting(Activity::getActivityId)
+                .containsExactly(training.getActivityId());
+
+        activityCatalog.remove(training.getActivityId());
+
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void testPrunesActivitiesStartingTooSoon() {
+        Training training = training(BoatType.C4, positions(Positions.COX, 1));
+        competition(Level.AMATEUR, Gender.MALE, "org");
+        when(myClock.getCurrentTime()).thenReturn(training.getStartInstant() - 60 * MINUTE);
+
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).extracting(Activity::getActivityId)
+                .containsExactly(training.getActivityId());
+        assertThat(activityCatalog.candidateCompetitions(user, 0, 10)).isEmpty();
+
+        when(myClock.getCurrentTime()).thenReturn(training.getStartInstant() - 10 * MINUTE);
+
+        assertThat(activityCatalog.candidateTrainings(user, 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void testPrunesWithMatchingEngine() {
+        Training training = training(BoatType.C4, positions(Positions.COX, 1));
+        Competition competition = competition(Level.AMATEUR, Gender.MALE, "org");
+
+        assertThat(activityCatalog.matchCompetitions(user))
+                .containsExactly(competition.getActivityId());
+
+        when(myClock.getCurrentTime()).thenReturn(training.getStartInstant() - 60 * MINUTE);
+
+        assertThat(activityCatalog.matchTrainings(user))
+                .containsExactly(training.getActivityId());
+        assertThat(activityCatalog.matchCompetitions(user)).isEmpty();
+    }
+
+    @Test
+    public void testPagesFromTheCursor() {
+        Training first = training(BoatType.C4, positions(Positions.COX, 1));
+        Training second = training(BoatType.C4, positions(Positions.COX, 1));
+        Training third = training(BoatType.C4, positions(Positions.COX, 1));
+
+        assertThat(activityCatalog.candidateTrainings(user, 0, 2)).extracting(Activity::getActivityId)
+                .containsExactly(first.getActivityId(), second.getActivityId());
+        assertThat(activityCatalog.candidateTrainings(user, second.getActivityId(), 2))
+                .extracting(Activity::getActivityId).containsExactly(third.getActivityId());
+        assertThat(activityCatalog.trainingsAfter(first.getActivityId(), 1)).extracting(Activity::getActivityId)
+                .containsExactly(second.getActivityId());
+        assertThat(activityCatalog.activitiesAfter(activityCatalog.matchTrainings(user), first.getActivityId(), 5))
+                .extracting(Activity::getActivityId).containsExactly(second.getActivityId(), third.getActivityId());
+    }
+}
@@ -0,0 +1,86 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.DATE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.WEEK_BEFORE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.positions;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ActivityFeedTest {
+    private final ExecutorService dispatcher = mock(ExecutorService.class);
+
+    private final ActivityFeed activityFeed = new ActivityFeed(60000, new PositionMatcher(),
+            new ActivityValidators(), dispatcher);
+
+    @BeforeEach
+    public void setup() {
+        MyClock myClock = mock(MyClock.class);
+        when(myClock.getCurrentTime()).thenReturn(WEEK_BEFORE);
+        activityFeed.setMyClock(myClock);
+    }
+
+    @Test
+    public void testPublishesToMatchingSubscribers() {
+        activityFeed.subscribe(user(1L, Positions.COX, "org"));
+        activityFeed.subscribe(user(1L, Positions.COACH, "org"));
+        activityFeed.subscribe(user(1L, Positions.COX, "other"));
+
+        assertThat(activityFeed.publish(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4))).isEqualTo(2);
+        assertThat(activityFeed.publish(new Competition(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), Level.AMATEUR, Gender.MALE,
+                BoatType.C4, "org"))).isEqualTo(1);
+        assertThat(activityFeed.publish(new Training(1, DATE, LocalTime.of(19, 30),
+                LocalTime.of(21, 0), positions(Positions.COX, 1), BoatType.C4))).isEqualTo(0);
+        assertThat(activityFeed.publish(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 0), BoatType.C4))).isEqualTo(0);
+    }
+
+    @Test
+    public void testMatchesAnyOfSeveralPositions() {
+        User user = user(1L, null, "org");
+        user.setPositions(EnumSet.of(Positions.COX, Positions.COACH));
+        activityFeed.subscribe(user);
+
+        assertThat(activityFeed.publish(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COACH, 1), BoatType.C4))).isEqualTo(1);
+    }
+
+    @Test
+    public void testSendsOnTheDispatcher() {
+        activityFeed.subscribe(user(1L, Positions.COX, "org"));
+        activityFeed.subscribe(user(2L, Positions.COX, "org"));
+
+        activityFeed.publish(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COACH, 1), BoatType.C4));
+        verify(dispatcher, never()).execute(any());
+
+        activityFeed.publish(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+        verify(dispatcher, times(2)).execute(any());
+    }
+
+    @Test
+    public void testSubscriberCount() {
+        activityFeed.subscribe(user(1L, Positions.COX, "org"));
+        activityFeed.subscribe(user(1L, Positions.COX, "org"));
+
+        assertThat(activityFeed.getSubscriberCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,56 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+
+/**
+ * The date, positions and users shared by the tests of the activities.
+ */
+final class ActivityFixtures {
+    // The day on which the test activities take place
+    static final Date DATE = new Date(12345);
+
+    // A week before the test activities, when they can all still be joined
+    static final long WEEK_BEFORE = DATE.getTime() - 7 * 24 * 60 * 60 * 1000L;
+
+    private ActivityFixtures() {
+    }
+
+    /**
+     * Creates the positions of an activity which needs people for a single position.
+     *
+     * @param position the position which has to be filled
+     * @param required how many people are still needed for it
+     * @return a mutable set with the one position
+     */
+    static Set<RequiredPositions> positions(Positions position, int required) {
+        Set<RequiredPositions> s = new HashSet<>();
+        s.add(new RequiredPositions(position, required));
+        return s;
+    }
+
+    /**
+     * Creates an amateur male user with a four plus certificate, who is available
+     * from 8:00 to 20:00 on the day of the test activities.
+     *
+     * @param id the id of the user
+     * @param position the position the user can fill
+     * @param organisation the organisation of the user
+     * @return the user
+     */
+    static User user(long id, Positions position, String organisation) {
+        return new User(id, "matei", "matei", "matei", organisation, BoatType.FOUR_PLUS, Gender.MALE,
+                Level.AMATEUR, position, new ArrayList<>(List.of(new Availability(
+                DATE.toInstant().atZone(ZoneId.systemDefault()).getDayOfWeek().getValue(),
+                LocalTime.of(8, 0), LocalTime.of(20, 0)))));
+    }
+}
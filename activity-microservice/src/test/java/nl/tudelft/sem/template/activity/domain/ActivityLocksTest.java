@@ -0,0 +1,70 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import nl.tudelft.sem.template.activity.models.LockStatsResponseModel;
+import nl.tudelft.sem.template.activity.models.StripeStatsResponseModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ActivityLocksTest {
+    private final ActivityLocks activityLocks = new ActivityLocks(4, 50);
+
+    private final CountDownLatch locked = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private Thread holder;
+
+    @BeforeEach
+    public void holdLock() throws InterruptedException {
+        holder = new Thread(() -> activityLocks.withLock(1, () -> {
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        locked.await();
+    }
+
+    @AfterEach
+    public void releaseLock() throws InterruptedException {
+        release.countDown();
+        holder.join();
+    }
+
+    @Test
+    public void testSameActivityTimesOut() {
+        assertThatThrownBy(() -> activityLocks.withLock(1, () -> "written"))
+                .isInstanceOf(ActivityBusyException.class);
+
+        StripeStatsResponseModel stats = activityLocks.getStats().getStripes().get(0);
+        assertThat(stats.getStripe()).isEqualTo(activityLocks.stripe(1));
+        assertThat(stats.getAcquisitions()).isEqualTo(1);
+        assertThat(stats.getContended()).isEqualTo(1);
+        assertThat(stats.getTimeouts()).isEqualTo(1);
+        assertThat(stats.getWaitMillis()).isGreaterThanOrEqualTo(40);
+        assertThat(stats.getWaitHistogram().stream().mapToLong(Long::longValue).sum()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOtherStripeIsNotBlocked() {
+        int other = 2;
+        while (activityLocks.stripe(other) == activityLocks.stripe(1)) {
+            other++;
+        }
+
+        assertThat(activityLocks.withLock(other, () -> "written")).isEqualTo("written");
+
+        LockStatsResponseModel stats = activityLocks.getStats();
+        assertThat(stats.getStripes()).extracting(StripeStatsResponseModel::getContended).containsOnly(0L);
+        assertThat(stats.getStripes()).hasSize(2);
+    }
+}
@@ -0,0 +1,74 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.DATE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.junit.jupiter.api.Test;
+
+public class ActivityRankingTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private final User user = user(1L, Positions.COX, "org");
+
+    private Training training(int id, Date date, LocalTime startTime, LocalTime endTime, int seats) {
+        Set<RequiredPositions> positions = new HashSet<>();
+        positions.add(new RequiredPositions(Positions.COX, seats));
+        Training training = new Training(1, date, startTime, endTime, positions, BoatType.C4);
+        training.setActivityId(id);
+        return training;
+    }
+
+    private List<Integer> top(ActivityRanking ranking, int limit, Activity... activities) {
+        List<Integer> ids = new ArrayList<>();
+        for (Activity activity : ranking.top(List.of(activities).stream(), user, limit)) {
+            ids.add(activity.getActivityId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testSoonestStart() {
+        assertThat(top(ActivityRanking.SOONEST_START, 2,
+                training(1, new Date(DATE.getTime() + DAY), LocalTime.of(9, 0), LocalTime.of(10, 0), 1),
+                training(2, DATE, LocalTime.of(12, 0), LocalTime.of(13, 0), 1),
+                training(3, DATE, LocalTime.of(9, 0), LocalTime.of(10, 0), 1),
+                training(4, DATE, LocalTime.of(12, 0), LocalTime.of(13, 0), 1)))
+                .containsExactly(3, 2);
+    }
+
+    @Test
+    public void testTightestFit() {
+        assertThat(top(ActivityRanking.TIGHTEST_FIT, 2,
+                training(1, DATE, LocalTime.of(9, 0), LocalTime.of(10, 0), 1),
+                training(2, DATE, LocalTime.of(8, 0), LocalTime.of(19, 0), 1),
+                training(3, DATE, LocalTime.of(8, 0), LocalTime.of(20, 0), 1)))
+                .containsExactly(3, 2);
+    }
+
+    @Test
+    public void testMostOpenSeats() {
+        assertThat(top(ActivityRanking.MOST_OPEN_SEATS, 3,
+                training(1, DATE, LocalTime.of(9, 0), LocalTime.of(10, 0), 2),
+                training(2, DATE, LocalTime.of(9, 0), LocalTime.of(10, 0), 5),
+                training(3, DATE, LocalTime.of(9, 0), LocalTime.of(10, 0), 1),
+                training(4, DATE, LocalTime.of(9, 0), LocalTime.of(10, 0), 3)))
+                .containsExactly(2, 4, 1);
+    }
+
+    @Test
+    public void testFewerMatchesThanLimit() {
+        assertThat(top(ActivityRanking.SOONEST_START, 20,
+                training(2, DATE, LocalTime.of(12, 0), LocalTime.of(13, 0), 1),
+                training(1, DATE, LocalTime.of(9, 0), LocalTime.of(10, 0), 1)))
+                .containsExactly(1, 2);
+    }
+}
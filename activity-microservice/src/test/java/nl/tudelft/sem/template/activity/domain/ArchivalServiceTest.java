@@ -0,0 +1,116 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.DATE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.positions;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.List;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+public class ArchivalServiceTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    @Autowired
+    private transient ArchivalService archivalService;
+
+    @Autowired
+    private transient ActivityRepository activityRepository;
+
+    @Autowired
+    private transient ArchivedActivityRepository archivedActivityRepository;
+
+    @Autowired
+    private transient ActivityCatalog activityCatalog;
+
+    @Autowired
+    private transient PlatformTransactionManager transactionManager;
+
+    private List<Activity> activities;
+
+    @BeforeEach
+    public void clearDatabase() {
+        activities = activityRepository.findAll();
+        activityRepository.deleteAll();
+        activityCatalog.invalidate();
+        MyClock myClock = mock(MyClock.class);
+        when(myClock.getCurrentTime()).thenReturn(DATE.getTime() + 2 * DAY);
+        archivalService.setMyClock(myClock);
+    }
+
+    @AfterEach
+    public void resetDatabase() {
+        archivedActivityRepository.deleteAll();
+        activityRepository.deleteAll();
+        activityRepository.saveAll(activities);
+        activityCatalog.invalidate();
+        archivalService.setMyClock(new MyClock());
+    }
+
+    @Test
+    public void testArchivesPastActivities() {
+        Training past = activityRepository.save(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+        Competition pastCompetition = activityRepository.save(new Competition(2, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COACH, 2), Level.AMATEUR, Gender.MALE, BoatType.C4, "org"));
+        Training today = activityRepository.save(new Training(1, new Date(DATE.getTime() + 2 * DAY),
+                LocalTime.of(10, 30), LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+
+        assertThat(archivalService.archivePastActivities()).isEqualTo(2);
+
+        assertThat(activityRepository.findAll()).extracting(Activity::getActivityId)
+                .containsExactly(today.getActivityId());
+        assertThat(activityCatalog.activitiesStartingFrom(0)).extracting(Activity::getActivityId)
+                .containsExactly(today.getActivityId());
+
+        ArchivedActivity archived = archivalService.getArchivedActivity(pastCompetition.getActivityId()).get();
+        assertThat(archived.isCompetition()).isTrue();
+        assertThat(archived.getOrganization()).isEqualTo("org");
+        assertThat(archived.getPositions()).containsExactly(new ArchivedPosition(Positions.COACH, 2));
+        assertThat(archivalService.getHistory(1)).extracting(ArchivedActivity::getActivityId)
+                .containsExactly(past.getActivityId());
+        assertThat(archivalService.getHistory(null)).hasSize(2);
+    }
+
+    @Test
+    public void testNothingToArchive() {
+        activityRepository.save(new Training(1, new Date(DATE.getTime() + 3 * DAY), LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+
+        assertThat(archivalService.archivePastActivities()).isEqualTo(0);
+        assertThat(archivalService.getHistory(null)).isEmpty();
+    }
+
+    @Test
+    public void testRollbackKeepsCatalog() {
+        Training past = activityRepository.save(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+        assertThat(activityCatalog.activitiesStartingFrom(0)).extracting(Activity::getActivityId)
+                .containsExactly(past.getActivityId());
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            archivalService.archivePastActivities();
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(activityRepository.findAll()).extracting(Activity::getActivityId)
+                .containsExactly(past.getActivityId());
+        assertThat(activityCatalog.activitiesStartingFrom(0)).extracting(Activity::getActivityId)
+                .containsExactly(past.getActivityId());
+    }
+}
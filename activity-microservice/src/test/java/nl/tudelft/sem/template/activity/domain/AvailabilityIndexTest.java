@@ -0,0 +1,99 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AvailabilityIndexTest {
+    // 2023-01-02 is a Monday
+    private static final Date MONDAY = Date.from(LocalDate.of(2023, 1, 2)
+            .atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new AvailabilityIndex();
+    }
+
+    private void training(int id, LocalTime startTime, LocalTime endTime) {
+        Training training = new Training(1, MONDAY, startTime, endTime, new HashSet<>(), BoatType.C4);
+        training.setActivityId(id);
+        index.put(training);
+    }
+
+    @Test
+    public void testContainedInWindow() {
+        training(1, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        training(2, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        training(3, LocalTime.of(10, 0), LocalTime.of(13, 0));
+        training(4, LocalTime.of(12, 0), LocalTime.of(12, 0));
+
+        assertThat(index.containedIn(List.of(new Availability(1, LocalTime.of(10, 0), LocalTime.of(12, 0)))))
+                .containsExactly(1, 4);
+    }
+
+    @Test
+    public void testOtherDay() {
+        training(1, LocalTime.of(10, 0), LocalTime.of(11, 0));
+
+        assertThat(index.containedIn(List.of(new Availability(2, LocalTime.of(8, 0), LocalTime.of(20, 0)))))
+                .isEmpty();
+    }
+
+    @Test
+    public void testManySmallWindows() {
+        training(1, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        training(2, LocalTime.of(14, 0), LocalTime.of(15, 0));
+        training(3, LocalTime.of(10, 30), LocalTime.of(14, 30));
+
+        assertThat(index.containedIn(List.of(
+                new Availability(1, LocalTime.of(9, 0), LocalTime.of(12, 0)),
+                new Availability(1, LocalTime.of(13, 0), LocalTime.of(16, 0)))))
+                .containsExactly(1, 2);
+    }
+
+    @Test
+    public void testInvertedWindow() {
+        training(1, LocalTime.of(12, 25), LocalTime.of(12, 25));
+
+        assertThat(index.containedIn(List.of(new Availability(1, LocalTime.of(12, 30), LocalTime.of(12, 20)))))
+                .isEmpty();
+    }
+
+    @Test
+    public void testPutReplacesAndRemove() {
+        training(1, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        training(2, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        training(1, LocalTime.of(18, 0), LocalTime.of(19, 0));
+        index.remove(2);
+
+        assertThat(index.containedIn(List.of(new Availability(1, LocalTime.of(9, 0), LocalTime.of(12, 0)))))
+                .isEmpty();
+        assertThat(index.containedIn(List.of(new Availability(1, LocalTime.of(17, 0), LocalTime.of(20, 0)))))
+                .containsExactly(1);
+    }
+
+    @Test
+    public void testFitsInAgreesWithContainedIn() {
+        training(1, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        training(2, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        training(3, LocalTime.of(10, 0), LocalTime.of(13, 0));
+        List<Availability> windows = List.of(
+                new Availability(1, LocalTime.of(10, 0), LocalTime.of(12, 0)),
+                new Availability(2, LocalTime.of(8, 0), LocalTime.of(20, 0)));
+
+        assertThat(index.fitsIn(1, windows)).isTrue();
+        assertThat(index.fitsIn(2, windows)).isFalse();
+        assertThat(index.fitsIn(3, windows)).isFalse();
+        assertThat(index.fitsIn(4, windows)).isFalse();
+    }
+}
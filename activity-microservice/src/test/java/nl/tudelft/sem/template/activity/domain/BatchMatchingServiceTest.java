@@ -0,0 +1,89 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.DATE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.WEEK_BEFORE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.positions;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalTime;
+import java.util.List;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import nl.tudelft.sem.template.activity.models.BatchMatchResponseModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class BatchMatchingServiceTest {
+    @Autowired
+    private transient BatchMatchingService batchMatchingService;
+
+    @Autowired
+    private transient ActivityCatalog activityCatalog;
+
+    @Autowired
+    private transient ActivityRepository activityRepository;
+
+    private List<Activity> activities;
+
+    private final MyClock myClock = mock(MyClock.class);
+
+    @BeforeEach
+    public void clearDatabase() {
+        activities = activityRepository.findAll();
+        activityRepository.deleteAll();
+        activityCatalog.invalidate();
+        when(myClock.getCurrentTime()).thenReturn(WEEK_BEFORE);
+        activityCatalog.setMyClock(myClock);
+        batchMatchingService.setMyClock(myClock);
+    }
+
+    @AfterEach
+    public void resetDatabase() {
+        activityRepository.deleteAll();
+        activityRepository.saveAll(activities);
+        activityCatalog.invalidate();
+        activityCatalog.setMyClock(new MyClock());
+        batchMatchingService.setMyClock(new MyClock());
+    }
+
+    @Test
+    public void testMatchesEveryUser() {
+        Training cox = activityRepository.save(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+        Training coach = activityRepository.save(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COACH, 1), BoatType.C4));
+        activityRepository.save(new Training(1, DATE, LocalTime.of(19, 30),
+                LocalTime.of(21, 0), positions(Positions.COX, 1), BoatType.C4));
+        Competition competition = activityRepository.save(new Competition(2, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), Level.AMATEUR, Gender.MALE, BoatType.C4, "org"));
+
+        List<BatchMatchResponseModel> result = batchMatchingService.match(List.of(
+                user(1L, Positions.COX, "org"), user(2L, Positions.COACH, "org"),
+                user(3L, Positions.COX, "org"), user(4L, Positions.COX, "other")));
+
+        assertThat(result).containsExactly(
+                new BatchMatchResponseModel(1L, List.of(cox.getActivityId()), List.of(competition.getActivityId())),
+                new BatchMatchResponseModel(2L, List.of(coach.getActivityId()), List.of()),
+                new BatchMatchResponseModel(3L, List.of(cox.getActivityId()), List.of(competition.getActivityId())),
+                new BatchMatchResponseModel(4L, List.of(cox.getActivityId()), List.of()));
+    }
+
+    @Test
+    public void testSkipsActivitiesStartingTooSoon() {
+        Training training = activityRepository.save(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+        when(myClock.getCurrentTime()).thenReturn(training.getStartInstant());
+
+        assertThat(batchMatchingService.match(List.of(user(1L, Positions.COX, "org"))))
+                .containsExactly(new BatchMatchResponseModel(1L, List.of(), List.of()));
+    }
+}
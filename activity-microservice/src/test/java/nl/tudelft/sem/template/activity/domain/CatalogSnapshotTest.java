@@ -0,0 +1,155 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.DATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CatalogSnapshotTest {
+    @TempDir
+    private transient Path directory;
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    public void setUp() {
+        snapshot = new CatalogSnapshot(directory.resolve("catalog.snapshot").toString());
+    }
+
+    private static Training training(int id, long version, int positionId) {
+        Set<RequiredPositions> positions = new HashSet<>();
+        RequiredPositions position = new RequiredPositions(Positions.COX, 1);
+        position.setId(positionId);
+        position.setVersion(version);
+        positions.add(position);
+        Training training = new Training(1, DATE, LocalTime.of(10, 30), LocalTime.of(12, 0), positions, BoatType.C4);
+        training.setActivityId(id);
+        training.setVersion(version);
+        return training;
+    }
+
+    private static Competition competition(int id) {
+        Set<RequiredPositions> positions = new HashSet<>();
+        RequiredPositions position = new RequiredPositions(Positions.COACH, 0);
+        position.setId(id + 1);
+        positions.add(position);
+        Competition competition = new Competition(2, DATE, LocalTime.of(9, 0), LocalTime.of(11, 15), positions,
+                Level.AMATEUR, Gender.FEMALE, BoatType.EIGHT_PLUS, "org");
+        competition.setActivityId(id);
+        return competition;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Training training = training(1, 3, 2);
+        training.setSeriesId(7);
+        Competition competition = competition(3);
+
+        snapshot.write(List.of(training, competition));
+        List<Activity> read = snapshot.read().get();
+
+        assertThat(read).extracting(ActivityFingerprint::of)
+                .containsExactly(ActivityFingerprint.of(training), ActivityFingerprint.of(competition));
+        Training readTraining = (Training) read.get(0);
+        assertThat(readTraining.getSeriesId()).isEqualTo(7);
+        assertThat(readTraining.getStartInstant()).isEqualTo(training.getStartInstant());
+        assertThat(readTraining.getPositions()).isEqualTo(training.getPositions());
+        assertThat(readTraining.hasOpenPosition(Positions.COX)).isTrue();
+        Competition readCompetition = (Competition) read.get(1);
+        assertThat(readCompetition.getOrganization()).isEqualTo("org");
+        assertThat(readCompetition.getAllowedGender()).isEqualTo(Gender.FEMALE);
+        assertThat(readCompetition.getEndTime()).isEqualTo(LocalTime.of(11, 15));
+        assertThat(readCompetition.hasOpenPosition(Positions.COACH)).isFalse();
+    }
+
+    @Test
+    public void testDamagedSnapshotIsIgnored() throws IOException {
+        snapshot.write(List.of(training(1, 0, 2)));
+        Path file = directory.resolve("catalog.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+
+        assertThat(snapshot.read()).isEmpty();
+    }
+
+    @Test
+    public void testTruncatedSnapshotIsIgnored() throws IOException {
+        snapshot.write(List.of(training(1, 0, 2)));
+        Path file = directory.resolve("catalog.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertThat(snapshot.read()).isEmpty();
+    }
+
+    @Test
+    public void testDisabledSnapshot() throws IOException {
+        CatalogSnapshot disabled = new CatalogSnapshot("");
+        disabled.write(List.of(training(1, 0, 2)));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.read()).isEmpty();
+    }
+
+    @Test
+    public void testWriterSkipsUnchangedAndUnfilledCatalog() {
+        ActivityCatalog activityCatalog = mock(ActivityCatalog.class);
+        when(activityCatalog.getVersion()).thenReturn(1L);
+        when(activityCatalog.copyActivities()).thenReturn(Optional.empty(),
+                Optional.of(List.of(training(1, 0, 2))));
+        CatalogSnapshotWriter writer = new CatalogSnapshotWriter(activityCatalog, snapshot);
+
+        writer.writeSnapshot();
+        assertThat(snapshot.read()).isEmpty();
+
+        writer.writeSnapshot();
+        writer.writeSnapshot();
+        assertThat(snapshot.read().get()).extracting(Activity::getActivityId).containsExactly(1);
+        verify(activityCatalog, times(2)).copyActivities();
+    }
+
+    @Test
+    public void testCatalogReloadsOnlyChangedActivities() throws IOException {
+        Training unchanged = training(1, 0, 2);
+        Training changed = training(3, 0, 4);
+        Training removed = training(5, 0, 6);
+        snapshot.write(List.of(unchanged, changed, removed));
+
+        Training changedNow = training(3, 1, 4);
+        Training added = training(7, 0, 8);
+        ActivityRepository activityRepository = mock(ActivityRepository.class);
+        when(activityRepository.findFingerprints()).thenReturn(List.of(ActivityFingerprint.of(unchanged),
+                ActivityFingerprint.of(changedNow), ActivityFingerprint.of(added)));
+        when(activityRepository.findAllWithPositions(any())).thenReturn(List.of(changedNow, added));
+
+        ActivityCatalog activityCatalog = new ActivityCatalog(new CatalogLoader(activityRepository, snapshot));
+
+        assertThat(activityCatalog.activitiesStartingFrom(0)).extracting(Activity::getActivityId)
+                .containsExactly(1, 3, 7);
+        assertThat(activityCatalog.activitiesStartingFrom(0).get(1).getVersion()).isEqualTo(1);
+        verify(activityRepository).findAllWithPositions(List.of(3, 7));
+        verify(activityRepository, never()).findAll();
+    }
+}
@@ -0,0 +1,72 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import nl.tudelft.sem.template.activity.models.CacheStatsResponseModel;
+import org.junit.jupiter.api.Test;
+
+public class CompatibilityCacheTest {
+    private final CompatibilityCache cache = new CompatibilityCache(2);
+
+    private MatchingProfile profile(String organisation, Availability... availabilities) {
+        return MatchingProfile.of(new User(1L, "matei", "matei", "matei", organisation, BoatType.C4,
+                Gender.MALE, Level.AMATEUR, Positions.COX, new ArrayList<>(List.of(availabilities))));
+    }
+
+    private MatchingProfile profile(String organisation) {
+        return profile(organisation, new Availability(1, LocalTime.of(8, 0), LocalTime.of(20, 0)));
+    }
+
+    @Test
+    public void testProfileIgnoresAvailabilityOrder() {
+        Availability monday = new Availability(1, LocalTime.of(8, 0), LocalTime.of(20, 0));
+        Availability tuesday = new Availability(2, LocalTime.of(8, 0), LocalTime.of(20, 0));
+
+        assertThat(profile("org", monday, tuesday)).isEqualTo(profile("org", tuesday, monday, monday));
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        assertThat(cache.get(Training.class, profile("org"), 1, 0)).isNull();
+        cache.put(Training.class, profile("org"), 1, Long.MAX_VALUE, List.of());
+
+        assertThat(cache.get(Training.class, profile("org"), 1, 0)).isEmpty();
+        assertThat(cache.get(Competition.class, profile("org"), 1, 0)).isNull();
+        assertThat(cache.getStats()).isEqualTo(new CacheStatsResponseModel(1, 2, 0, 1));
+    }
+
+    @Test
+    public void testNewVersionInvalidates() {
+        cache.put(Training.class, profile("org"), 1, Long.MAX_VALUE, List.of());
+
+        assertThat(cache.get(Training.class, profile("org"), 2, 0)).isNull();
+        assertThat(cache.getStats().getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void testExpires() {
+        cache.put(Training.class, profile("org"), 1, 100, List.of());
+
+        assertThat(cache.get(Training.class, profile("org"), 1, 100)).isEmpty();
+        assertThat(cache.get(Training.class, profile("org"), 1, 101)).isNull();
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        cache.put(Training.class, profile("a"), 1, Long.MAX_VALUE, List.of());
+        cache.put(Training.class, profile("b"), 1, Long.MAX_VALUE, List.of());
+        cache.get(Training.class, profile("a"), 1, 0);
+        cache.put(Training.class, profile("c"), 1, Long.MAX_VALUE, List.of());
+
+        assertThat(cache.get(Training.class, profile("a"), 1, 0)).isNotNull();
+        assertThat(cache.get(Training.class, profile("b"), 1, 0)).isNull();
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+    }
+}
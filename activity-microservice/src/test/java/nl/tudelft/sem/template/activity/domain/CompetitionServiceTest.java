@@ -1,7 +1,13 @@
 package nl.tudelft.sem.template.activity.domain;
 
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.DATE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.WEEK_BEFORE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.positions;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.user;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.time.LocalTime;
 import java.util.Date;
@@ -30,18 +36,32 @@ public class CompetitionServiceTest {
     @Autowired
     private transient ActivityRepository activityRepository;
 
+    @Autowired
+    private transient ActivityCatalog activityCatalog;
+
     private List<Activity> activities;
 
+    private final User user = user(1L, Positions.COX, "org");
+
     @BeforeEach
     public void clearDatabase() {
         activities = activityRepository.findAll();
         activityRepository.deleteAll();
+        MyClock myClock = mock(MyClock.class);
+        when(myClock.getCurrentTime()).thenReturn(WEEK_BEFORE);
+        competitionService.setMyClock(myClock);
+        activityCatalog.invalidate();
+        activityCatalog.setMyClock(myClock);
     }
 
     @AfterEach
     public void resetDatabase() {
         activityRepository.deleteAll();
         activityRepository.saveAll(activities);
+        competitionService.setMatchingMode(MatchingMode.CATALOG_INDEX);
+        competitionService.setMyClock(new MyClock());
+        activityCatalog.invalidate();
+        activityCatalog.setMyClock(new MyClock());
     }
 
     @Test
@@ -92,4 +112,23 @@ public class CompetitionServiceTest {
         assertThat(competitions.size()).isEqualTo(1);
         assertThat(competitions.get(0)).isEqualTo(newCompetition);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetCompatibleCompetitionsFromDatabase() throws Exception {
+        Competition fits = competitionService.addNewCompetition(new Competition(2, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), Level.AMATEUR, Gender.MALE, BoatType.C4, "org"));
+        competitionService.addNewCompetition(new Competition(2, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), Level.PROFESSIONAL, Gender.MALE, BoatType.C4, "org"));
+        competitionService.addNewCompetition(new Competition(2, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), Level.AMATEUR, Gender.FEMALE, BoatType.C4, "org"));
+        competitionService.addNewCompetition(new Competition(2, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), Level.AMATEUR, Gender.MALE, BoatType.C4, "other"));
+        competitionService.addNewCompetition(new Competition(2, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 0), Level.AMATEUR, Gender.MALE, BoatType.C4, "org"));
+
+        competitionService.setMatchingMode(MatchingMode.DATABASE);
+
+        assertThat(competitionService.getAllCompatibleCompetitions(user)).extracting(Activity::getActivityId)
+                .containsExactly(fits.getActivityId());
+    }
+}
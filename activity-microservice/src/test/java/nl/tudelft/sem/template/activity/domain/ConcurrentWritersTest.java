@@ -0,0 +1,109 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.DATE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.positions;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class ConcurrentWritersTest {
+    @Autowired
+    private transient OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private transient ActivityRepository activityRepository;
+
+    @Autowired
+    private transient PositionService positionService;
+
+    @Autowired
+    private transient ActivityCatalog activityCatalog;
+
+    private List<Activity> activities;
+
+    @BeforeEach
+    public void clearDatabase() {
+        activities = activityRepository.findAll();
+        activityRepository.deleteAll();
+        activityCatalog.invalidate();
+    }
+
+    @AfterEach
+    public void resetDatabase() {
+        activityRepository.deleteAll();
+        activityRepository.saveAll(activities);
+        activityCatalog.invalidate();
+    }
+
+    @Test
+    public void testConflictingWriterIsRetried() throws Exception {
+        int id = activityRepository.save(new Training(1, DATE, LocalTime.of(10, 30), LocalTime.of(12, 0),
+                positions(Positions.COX, 3), BoatType.C4)).getActivityId();
+        long retries = optimisticRetry.getStats().getRetries();
+
+        // Both writers read the same version before either of them writes, so one of them has to retry
+        CyclicBarrier bothRead = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Activity>> writers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            writers.add(executor.submit(() -> {
+                boolean[] first = {true};
+                return optimisticRetry.run(() -> {
+                    Activity activity = activityRepository.findByActivityId(id).get();
+                    assertThat(activity.fillPosition(Positions.COX)).isTrue();
+                    if (first[0]) {
+                        first[0] = false;
+                        await(bothRead);
+                    }
+                    return activityRepository.saveAndFlush(activity);
+                });
+            }));
+        }
+        for (Future<Activity> writer : writers) {
+            writer.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(activityRepository.findByActivityId(id).get().getPositions())
+                .extracting(RequiredPositions::getRequiredOfPosition).containsExactly(1);
+        assertThat(optimisticRetry.getStats().getRetries()).isGreaterThan(retries);
+    }
+
+    @Test
+    public void testFillInvalidatesTheClaimOfAnUpdate() {
+        int id = activityRepository.save(new Training(1, DATE, LocalTime.of(10, 30), LocalTime.of(12, 0),
+                positions(Positions.COX, 3), BoatType.C4)).getActivityId();
+        long read = activityRepository.findByActivityId(id).get().getVersion();
+
+        // A fill which commits between the read and the claim of an update makes the update try again
+        assertThat(positionService.fill(id, Positions.COX)).isTrue();
+        assertThat(optimisticRetry.run(() -> activityRepository.claim(id, read))).isZero();
+
+        long current = activityRepository.findByActivityId(id).get().getVersion();
+        assertThat(current).isGreaterThan(read);
+        assertThat(optimisticRetry.run(() -> activityRepository.claim(id, current))).isOne();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.positions;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import nl.tudelft.sem.template.activity.domain.filters.AvailabilityValidator;
+import nl.tudelft.sem.template.activity.domain.filters.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MatchingEngineTest {
+    // 2100-01-04 is a Monday, far enough in the future for the start time validator
+    private static final Date MONDAY = Date.from(LocalDate.of(2100, 1, 4)
+            .atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+    private MatchingEngine engine;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        engine = new MatchingEngine();
+        List<Availability> availabilities = new ArrayList<>();
+        availabilities.add(new Availability(1, LocalTime.of(8, 0), LocalTime.of(20, 0)));
+        user = new User(1L, "matei", "matei", "matei", "org", BoatType.FOUR_PLUS, Gender.MALE,
+                Level.AMATEUR, Positions.COX, availabilities);
+    }
+
+    private Training training(int id, BoatType boatType, Set<RequiredPositions> positions) {
+        Training training = new Training(1, MONDAY, LocalTime.of(10, 30), LocalTime.of(12, 0),
+                positions, boatType);
+        training.setActivityId(id);
+        engine.put(training, training.getOpenPositions());
+        return training;
+    }
+
+    private Competition competition(int id, Level level, Gender gender, String organization) {
+        Competition competition = new Competition(2, MONDAY, LocalTime.of(10, 30), LocalTime.of(12, 0),
+                positions(Positions.COX, 1), level, gender, BoatType.C4, organization);
+        competition.setActivityId(id);
+        engine.put(competition, competition.getOpenPositions());
+        return competition;
+    }
+
+    @Test
+    public void testMatchTrainings() {
+        training(1, BoatType.FOUR_PLUS, positions(Positions.COX, 1));
+        training(2, BoatType.EIGHT_PLUS, positions(Positions.COX, 1));
+        training(3, BoatType.C4, positions(Positions.COACH, 1));
+        training(4, BoatType.C4, positions(Positions.COX, 0));
+        training(5, BoatType.C4, positions(Positions.COX, 3));
+        competition(6, Level.AMATEUR, Gender.MALE, "org");
+
+        assertThat(engine.matchTrainings(user, 0)).containsExactly(1, 5);
+    }
+
+    @Test
+    public void testMatchCompetitions() {
+        competition(1, Level.AMATEUR, Gender.MALE, "org");
+        competition(2, Level.PROFESSIONAL, Gender.MALE, "org");
+        competition(3, Level.AMATEUR, Gender.FEMALE, "org");
+        competition(4, Level.AMATEUR, Gender.MALE, "other");
+        training(5, BoatType.C4, positions(Positions.COX, 1));
+
+        assertThat(engine.matchCompetitions(user, 0)).containsExactly(1);
+    }
+
+    @Test
+    public void testUnknownOrganization() {
+        competition(1, Level.AMATEUR, Gender.MALE, "other");
+        user.setOrganisation("org");
+
+        assertThat(engine.matchCompetitions(user, 0)).isEmpty();
+    }
+
+    @Test
+    public void testDayOfWeekPrefilter() {
+        training(1, BoatType.C4, positions(Positions.COX, 1));
+        user.getAvailabilities().clear();
+        user.getAvailabilities().add(new Availability(2, LocalTime.of(8, 0), LocalTime.of(20, 0)));
+
+        assertThat(engine.matchTrainings(user, 0)).isEmpty();
+    }
+
+    @Test
+    public void testPutReplacesAndRemoveFreesSlot() {
+        Training training = training(1, BoatType.C4, positions(Positions.COX, 1));
+        training(2, BoatType.C4, positions(Positions.COX, 1));
+
+        training.getPositions().forEach(RequiredPositions::fillPosition);
+        engine.put(training, Activity.openPositionsOf(training.getPositions()));
+        assertThat(engine.matchTrainings(user, 0)).containsExactly(2);
+
+        engine.remove(2);
+        training(3, BoatType.C4, positions(Positions.COX, 1));
+        assertThat(engine.matchTrainings(user, 0)).containsExactly(3);
+    }
+
+    @Test
+    public void testStartsFrom() {
+        Training training = training(1, BoatType.C4, positions(Positions.COX, 1));
+
+        assertThat(engine.matchTrainings(user, training.getStartInstant())).containsExactly(1);
+        assertThat(engine.matchTrainings(user, training.getStartInstant() + 1)).isEmpty();
+    }
+
+    @Test
+    public void testGrowsColumns() {
+        for (int id = 1; id <= 200; id++) {
+            training(id, BoatType.C4, positions(Positions.COX, 1));
+        }
+
+        assertThat(engine.matchTrainings(user, 0)).hasSize(200).startsWith(1).endsWith(200);
+    }
+
+    @Test
+    public void testSameResultAsValidatorChain() {
+        List<Activity> all = new ArrayList<>();
+        for (int id = 1; id <= 30; id++) {
+            all.add(training(id, BoatType.values()[id % 3], positions(Positions.values()[id % 5], id % 2)));
+            all.add(competition(100 + id, Level.values()[id % 2], Gender.values()[id % 3],
+                    id % 4 == 0 ? "org" : "other"));
+        }
+        user.setPosition(Positions.values()[1]);
+
+        Validator trainingValidator = TrainingService.setupValidator();
+        trainingValidator.setNext(new AvailabilityValidator());
+        Validator competitionValidator = CompetitionService.setupValidator();
+        competitionValidator.setNext(new AvailabilityValidator());
+
+        List<Integer> trainings = new ArrayList<>();
+        List<Integer> competitions = new ArrayList<>();
+        for (Activity activity : all) {
+            if (activity instanceof Training && trainingValidator.handle(user, activity)) {
+                trainings.add(activity.getActivityId());
+            }
+            if (activity instanceof Competition && competitionValidator.handle(user, activity)) {
+                competitions.add(activity.getActivityId());
+            }
+        }
+
+        assertThat(trainings).isNotEmpty();
+        assertThat(engine.matchTrainings(user, 0)).containsExactlyElementsOf(trainings);
+        assertThat(engine.matchCompetitions(user, 0)).containsExactlyElementsOf(competitions);
+    }
+}
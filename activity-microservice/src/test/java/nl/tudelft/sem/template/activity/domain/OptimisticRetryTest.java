@@ -0,0 +1,60 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.persistence.OptimisticLockException;
+import nl.tudelft.sem.template.activity.models.RetryStatsResponseModel;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class OptimisticRetryTest {
+    private final OptimisticRetry optimisticRetry = new OptimisticRetry(mock(PlatformTransactionManager.class),
+            3, 0, 0);
+
+    @Test
+    public void testRetriesUntilNoConflict() {
+        AtomicInteger tries = new AtomicInteger();
+
+        String result = optimisticRetry.run(() -> {
+            if (tries.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Activity.class, 1);
+            }
+            return "updated";
+        });
+
+        assertThat(result).isEqualTo("updated");
+        assertThat(tries.get()).isEqualTo(3);
+        assertThat(optimisticRetry.getStats()).isEqualTo(new RetryStatsResponseModel(3, 2, 0));
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        AtomicInteger tries = new AtomicInteger();
+
+        assertThatThrownBy(() -> optimisticRetry.run(() -> {
+            tries.incrementAndGet();
+            throw new OptimisticLockException();
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(tries.get()).isEqualTo(3);
+        assertThat(optimisticRetry.getStats()).isEqualTo(new RetryStatsResponseModel(3, 2, 1));
+    }
+
+    @Test
+    public void testOtherFailuresAreNotRetried() {
+        AtomicInteger tries = new AtomicInteger();
+
+        assertThatThrownBy(() -> optimisticRetry.run(() -> {
+            tries.incrementAndGet();
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(tries.get()).isEqualTo(1);
+        assertThat(optimisticRetry.getStats().getRetries()).isZero();
+    }
+}
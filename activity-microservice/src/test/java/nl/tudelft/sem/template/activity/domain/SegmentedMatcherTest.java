@@ -0,0 +1,64 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.junit.jupiter.api.Test;
+
+public class SegmentedMatcherTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private List<Activity> candidates(int count) {
+        List<Activity> candidates = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            Set<RequiredPositions> positions = new HashSet<>();
+            positions.add(new RequiredPositions(Positions.COX, 1));
+            Training training = new Training(1, new Date((id % 7) * DAY), LocalTime.of(10, 30),
+                    LocalTime.of(12, 0), positions, BoatType.C4);
+            training.setActivityId(id);
+            candidates.add(training);
+        }
+        return candidates;
+    }
+
+    private List<Integer> ids(SegmentedMatcher matcher, List<Activity> candidates, int after) {
+        return matcher.match(candidates, after, a -> a.getActivityId() % 3 == 0)
+                .map(Activity::getActivityId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        List<Activity> candidates = candidates(1000);
+        SegmentedMatcher sequential = new SegmentedMatcher(Integer.MAX_VALUE, 1);
+        SegmentedMatcher parallel = new SegmentedMatcher(1, 4);
+
+        List<Integer> expected = ids(sequential, candidates, 0);
+
+        assertThat(expected).hasSize(333).isSorted();
+        assertThat(ids(parallel, candidates, 0)).containsExactlyElementsOf(expected);
+        sequential.shutdown();
+        parallel.shutdown();
+    }
+
+    @Test
+    public void testSkipsCandidatesBeforeCursor() {
+        List<Activity> candidates = candidates(100);
+        SegmentedMatcher sequential = new SegmentedMatcher(Integer.MAX_VALUE, 1);
+        SegmentedMatcher parallel = new SegmentedMatcher(1, 4);
+
+        assertThat(ids(sequential, candidates, 90)).containsExactly(93, 96, 99);
+        assertThat(ids(parallel, candidates, 90)).containsExactly(93, 96, 99);
+        assertThat(ids(parallel, candidates, 100)).isEmpty();
+        sequential.shutdown();
+        parallel.shutdown();
+    }
+}
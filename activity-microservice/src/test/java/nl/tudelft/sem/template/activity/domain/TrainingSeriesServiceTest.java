@@ -0,0 +1,171 @@
+package nl.tudelft.sem.template.activity.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class TrainingSeriesServiceTest {
+    // A Monday; the series below runs on the Tuesdays of a term
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 7);
+
+    @Autowired
+    private transient TrainingSeriesService trainingSeriesService;
+
+    @Autowired
+    private transient TrainingSeriesRepository trainingSeriesRepository;
+
+    @Autowired
+    private transient ActivityRepository activityRepository;
+
+    @Autowired
+    private transient ActivityCatalog activityCatalog;
+
+    @Autowired
+    private transient TrainingService trainingService;
+
+    @Autowired
+    private transient PositionService positionService;
+
+    private List<Activity> activities;
+
+    private MyClock myClock;
+
+    @BeforeEach
+    public void clearDatabase() {
+        activities = activityRepository.findAll();
+        activityRepository.deleteAll();
+        activityCatalog.invalidate();
+        myClock = mock(MyClock.class);
+        setToday(TODAY);
+    }
+
+    @AfterEach
+    public void resetDatabase() {
+        trainingSeriesRepository.deleteAll();
+        activityRepository.deleteAll();
+        activityRepository.saveAll(activities);
+        activityCatalog.invalidate();
+        trainingSeriesService.setMyClock(new MyClock());
+    }
+
+    private void setToday(LocalDate today) {
+        when(myClock.getCurrentTime()).thenReturn(today.atTime(12, 0)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        trainingSeriesService.setMyClock(myClock);
+    }
+
+    private static Date date(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static long start(LocalDate date) {
+        return date.atTime(6, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private TrainingSeries addTermSeries() {
+        Set<RequiredPositions> positions = new HashSet<>();
+        positions.add(new RequiredPositions(Positions.PORT_SIDE_ROWER, 4));
+        positions.add(new RequiredPositions(Positions.COX, 1));
+        return trainingSeriesService.addNewSeries(new TrainingSeries(1, date(TODAY.plusDays(1)),
+                date(TODAY.plusWeeks(12)), LocalTime.of(6, 0), LocalTime.of(7, 30), positions, BoatType.EIGHT_PLUS));
+    }
+
+    @Test
+    public void testOnlyTrainingsWithinHorizonAreCreated() {
+        TrainingSeries series = addTermSeries();
+
+        List<Activity> trainings = activityRepository.findAllTrainings();
+        assertThat(trainings).hasSize(2);
+        assertThat(trainings).extracting(Activity::getStartInstant)
+                .containsExactly(start(TODAY.plusDays(1)), start(TODAY.plusDays(8)));
+        assertThat(trainings).allSatisfy(training -> {
+            assertThat(((Training) training).getSeriesId()).isEqualTo(series.getSeriesId());
+            assertThat(training.getPositions()).hasSize(2);
+        });
+        assertThat(activityCatalog.activitiesStartingFrom(0)).hasSize(2);
+
+        assertThat(trainingSeriesService.expandDue()).isZero();
+        assertThat(activityRepository.findAllTrainings()).hasSize(2);
+    }
+
+    @Test
+    public void testTrainingsAreCreatedAsTheyEnterHorizon() {
+        addTermSeries();
+
+        setToday(TODAY.plusDays(7));
+        assertThat(trainingSeriesService.expandDue()).isEqualTo(1);
+        assertThat(activityRepository.findAllTrainings()).extracting(Activity::getStartInstant)
+                .containsExactly(start(TODAY.plusDays(1)), start(TODAY.plusDays(8)), start(TODAY.plusDays(15)));
+
+        setToday(TODAY.plusWeeks(20));
+        assertThat(trainingSeriesService.expandDue()).isZero();
+        assertThat(trainingSeriesRepository.findEarliestNextDate()).isNull();
+    }
+
+    @Test
+    public void testTrainingPastHorizonCanBeFoundAndJoinedOnceItEntersIt() {
+        addTermSeries();
+        LocalDate later = TODAY.plusDays(22);
+        User user = new User(1L, "matei", "matei", "matei", "org", BoatType.EIGHT_PLUS, Gender.MALE,
+                Level.AMATEUR, Positions.COX, List.of(new Availability(later.getDayOfWeek().getValue(),
+                LocalTime.of(5, 30), LocalTime.of(8, 0))));
+
+        // Three weeks ahead, the training is beyond the horizon and cannot be found yet
+        assertThat(trainingService.getAllTrainings()).extracting(Activity::getStartInstant)
+                .doesNotContain(start(later));
+        assertThat(trainingService.getAllCompatibleTrainings(user)).extracting(Activity::getStartInstant)
+                .doesNotContain(start(later));
+
+        // The scheduled expansion stores it as soon as it is within the horizon, from then on like any training
+        setToday(TODAY.plusDays(8));
+        assertThat(trainingSeriesService.expandDue()).isEqualTo(2);
+        Activity training = trainingService.getAllTrainings().stream()
+                .filter(activity -> activity.getStartInstant() == start(later)).findFirst().orElseThrow();
+        assertThat(trainingService.getAllCompatibleTrainings(user)).extracting(Activity::getActivityId)
+                .contains(training.getActivityId());
+        assertThat(positionService.fill(training.getActivityId(), Positions.COX)).isTrue();
+        assertThat(activityRepository.findByActivityId(training.getActivityId()).get().hasOpenPosition(Positions.COX))
+                .isFalse();
+    }
+
+    @Test
+    public void testReadsDoNotCreateTrainings() {
+        addTermSeries();
+
+        setToday(TODAY.plusDays(7));
+        trainingService.getAllTrainings();
+        trainingService.getTrainingListings();
+        assertThat(activityRepository.findAllTrainings()).hasSize(2);
+
+        assertThat(trainingSeriesService.expandDue()).isEqualTo(1);
+        assertThat(activityRepository.findAllTrainings()).hasSize(3);
+    }
+
+    @Test
+    public void testDeleteSeriesRemovesUpcomingTrainings() {
+        TrainingSeries series = addTermSeries();
+
+        assertThat(trainingSeriesService.deleteSeries(series)).isEqualTo(2);
+        assertThat(activityRepository.findAllTrainings()).isEmpty();
+        assertThat(activityCatalog.activitiesStartingFrom(0)).isEmpty();
+        assertThat(trainingSeriesService.getSeries(series.getSeriesId())).isEmpty();
+    }
+}
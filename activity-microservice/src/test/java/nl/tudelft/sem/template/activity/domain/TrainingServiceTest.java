@@ -1,17 +1,27 @@
 package nl.tudelft.sem.template.activity.domain;
 
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.DATE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.WEEK_BEFORE;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.positions;
+import static nl.tudelft.sem.template.activity.domain.ActivityFixtures.user;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.time.LocalTime;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import nl.tudelft.sem.template.activity.domain.enums.BoatType;
 import nl.tudelft.sem.template.activity.domain.enums.Gender;
 import nl.tudelft.sem.template.activity.domain.enums.Level;
 import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import nl.tudelft.sem.template.activity.models.ActivityPageResponseModel;
+import nl.tudelft.sem.template.activity.models.ActivityPositionsResponseModel;
 import org.assertj.core.api.ThrowableAssert;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,18 +39,32 @@ public class TrainingServiceTest {
     @Autowired
     private transient ActivityRepository activityRepository;
 
+    @Autowired
+    private transient ActivityCatalog activityCatalog;
+
     private List<Activity> activities;
 
+    private final User user = user(1L, Positions.COX, "org");
+
     @BeforeEach
     public void clearDatabase() {
         activities = activityRepository.findAll();
         activityRepository.deleteAll();
+        MyClock myClock = mock(MyClock.class);
+        when(myClock.getCurrentTime()).thenReturn(WEEK_BEFORE);
+        trainingService.setMyClock(myClock);
+        activityCatalog.invalidate();
+        activityCatalog.setMyClock(myClock);
     }
 
     @AfterEach
     public void resetDatabase() {
         activityRepository.deleteAll();
         activityRepository.saveAll(activities);
+        trainingService.setMatchingMode(MatchingMode.CATALOG_INDEX);
+        trainingService.setMyClock(new MyClock());
+        activityCatalog.invalidate();
+        activityCatalog.setMyClock(new MyClock());
     }
 
     @Test
@@ -91,4 +115,124 @@ public class TrainingServiceTest {
         assertThat(trainings.size()).isEqualTo(1);
         assertThat(trainings.get(0)).isEqualTo(newTraining);
     }
+
+    @Test
+    public void testGetCompatibleTrainingsFromDatabase() throws Exception {
+        Training fits = trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+        trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 0), BoatType.C4));
+        trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COACH, 1), BoatType.C4));
+        trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.EIGHT_PLUS));
+        trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(19, 30),
+                LocalTime.of(21, 0), positions(Positions.COX, 1), BoatType.C4));
+
+        trainingService.setMatchingMode(MatchingMode.DATABASE);
+
+        assertThat(trainingService.getAllCompatibleTrainings(user)).extracting(Activity::getActivityId)
+                .containsExactly(fits.getActivityId());
+    }
+
+    @Test
+    public void testEveryModeFindsTheSameTrainings() throws Exception {
+        Training fits = trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+        trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 0), BoatType.C4));
+        trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.EIGHT_PLUS));
+        trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(19, 30),
+                LocalTime.of(21, 0), positions(Positions.COX, 1), BoatType.C4));
+
+        for (MatchingMode mode : MatchingMode.values()) {
+            trainingService.setMatchingMode(mode);
+            assertThat(trainingService.streamCompatibleTrainings(user, 0)).extracting(Activity::getActivityId)
+                    .as(mode.name()).containsExactly(fits.getActivityId());
+        }
+    }
+
+    @Test
+    public void testValidatorOrderFollowsTheMode() {
+        assertThat(trainingService.getValidatorOrder())
+                .containsExactlyInAnyOrder("CertificateValidator", "PositionValidator");
+
+        trainingService.setMatchingMode(MatchingMode.VALIDATOR_CHAIN);
+        assertThat(trainingService.getValidatorOrder()).containsExactlyInAnyOrder("CertificateValidator",
+                "PositionValidator", "AvailabilityValidator", "StartTimeValidator");
+
+        trainingService.setMatchingMode(MatchingMode.DATABASE);
+        assertThat(trainingService.getValidatorOrder()).containsExactly("AvailabilityValidator");
+    }
+
+    @Test
+    public void testStreamsLazily() throws Exception {
+        for (MatchingMode mode : List.of(MatchingMode.VALIDATOR_CHAIN, MatchingMode.CATALOG_INDEX,
+                MatchingMode.DATABASE)) {
+            trainingService.setMatchingMode(mode);
+            Training first = trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                    LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+
+            Iterator<Activity> matches = trainingService.streamCompatibleTrainings(user, 0).iterator();
+            assertThat(matches.next().getActivityId()).as(mode.name()).isEqualTo(first.getActivityId());
+
+            // Only the page which was consumed has been read, so a training added behind it is still found
+            Training added = trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                    LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+            assertThat(matches.next().getActivityId()).as(mode.name()).isEqualTo(added.getActivityId());
+            assertThat(matches.hasNext()).as(mode.name()).isFalse();
+
+            activityRepository.deleteAll();
+            activityCatalog.invalidate();
+        }
+    }
+
+    @Test
+    public void testGetCompatibleTrainingsPage() throws Exception {
+        Training first = trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+        trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COACH, 1), BoatType.C4));
+        Training second = trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+        Training third = trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+
+        trainingService.setMatchingMode(MatchingMode.DATABASE);
+
+        ActivityPageResponseModel page = trainingService.getCompatibleTrainingsPage(user, 0, 2);
+        assertThat(page.getActivities()).extracting(Activity::getActivityId)
+                .containsExactly(first.getActivityId(), second.getActivityId());
+        assertThat(page.getNextCursor()).isEqualTo(second.getActivityId());
+
+        page = trainingService.getCompatibleTrainingsPage(user, page.getNextCursor(), 2);
+        assertThat(page.getActivities()).extracting(Activity::getActivityId)
+                .containsExactly(third.getActivityId());
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testGetCompatibleTrainingsForSeveralPositions() throws Exception {
+        Set<RequiredPositions> both = positions(Positions.COX, 1);
+        both.add(new RequiredPositions(Positions.SCULLING_ROWER, 2));
+        Training cox = trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COX, 1), BoatType.C4));
+        Training rower = trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.SCULLING_ROWER, 1), BoatType.C4));
+        Training coxAndRower = trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), both, BoatType.C4));
+        trainingService.addNewTraining(new Training(1, DATE, LocalTime.of(10, 30),
+                LocalTime.of(12, 0), positions(Positions.COACH, 1), BoatType.C4));
+
+        User member = user.withPosition(null);
+        member.setPositions(EnumSet.of(Positions.SCULLING_ROWER, Positions.COX));
+
+        List<ActivityPositionsResponseModel> matches = trainingService.getCompatibleTrainingPositions(member);
+        assertThat(matches).extracting(m -> m.getActivity().getActivityId())
+                .containsExactly(cox.getActivityId(), rower.getActivityId(), coxAndRower.getActivityId());
+        assertThat(matches).extracting(ActivityPositionsResponseModel::getPositions).containsExactly(
+                List.of(Positions.COX), List.of(Positions.SCULLING_ROWER),
+                List.of(Positions.COX, Positions.SCULLING_ROWER));
+    }
 }
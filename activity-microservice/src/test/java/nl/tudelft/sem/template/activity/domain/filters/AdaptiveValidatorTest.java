@@ -0,0 +1,82 @@
+package nl.tudelft.sem.template.activity.domain.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.activity.domain.Activity;
+import nl.tudelft.sem.template.activity.domain.Availability;
+import nl.tudelft.sem.template.activity.domain.Competition;
+import nl.tudelft.sem.template.activity.domain.RequiredPositions;
+import nl.tudelft.sem.template.activity.domain.User;
+import nl.tudelft.sem.template.activity.domain.enums.BoatType;
+import nl.tudelft.sem.template.activity.domain.enums.Gender;
+import nl.tudelft.sem.template.activity.domain.enums.Level;
+import nl.tudelft.sem.template.activity.domain.enums.Positions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class AdaptiveValidatorTest {
+    private final User user = new User(1L, "matei", "matei", "matei", "org", BoatType.C4, Gender.MALE,
+            Level.PROFESSIONAL, Positions.COX, new ArrayList<>(List.of(new Availability(1,
+            LocalTime.of(10, 30), LocalTime.of(12, 0)))));
+
+    private Activity competition(Gender gender, String organization) {
+        Set<RequiredPositions> positions = new HashSet<>();
+        positions.add(new RequiredPositions(Positions.COX, 2));
+        return new Competition(2, new Date(1234),
+                LocalTime.of(10, 30), LocalTime.of(12, 0), positions,
+                Level.PROFESSIONAL, gender, BoatType.C4, organization);
+    }
+
+    @Test
+    public void testAllAccept() {
+        Validator validator = new AdaptiveValidator(List.of(new GenderValidator(), new OrganizationValidator()));
+
+        assertTrue(validator.handle(user, competition(Gender.MALE, "org")));
+    }
+
+    @Test
+    public void testOneRejects() {
+        Validator validator = new AdaptiveValidator(List.of(new GenderValidator(), new OrganizationValidator()));
+
+        assertFalse(validator.handle(user, competition(Gender.MALE, "other")));
+        assertFalse(validator.handle(user, competition(Gender.FEMALE, "org")));
+    }
+
+    @Test
+    public void testCallsNext() {
+        Validator validator = new AdaptiveValidator(List.of(new GenderValidator()));
+        validator.setNext(new OrganizationValidator());
+
+        assertFalse(validator.handle(user, competition(Gender.MALE, "other")));
+    }
+
+    @Test
+    public void testInitialOrder() {
+        AdaptiveValidator validator = new AdaptiveValidator(List.of(new GenderValidator(),
+                new OrganizationValidator()));
+
+        assertEquals(List.of("GenderValidator", "OrganizationValidator"), validator.getOrder());
+    }
+
+    @Test
+    public void testMovesSelectiveValidatorFirst() {
+        AdaptiveValidator validator = new AdaptiveValidator(List.of(new GenderValidator(),
+                new OrganizationValidator()));
+
+        Activity activity = competition(Gender.MALE, "other");
+        for (int i = 0; i < 2048; i++) {
+            assertFalse(validator.handle(user, activity));
+        }
+
+        assertEquals(List.of("OrganizationValidator", "GenderValidator"), validator.getOrder());
+    }
+}
@@ -175,4 +175,33 @@ public class PositionValidatorTest {
 
         assertFalse(validator.handle(user, activity));
     }
+
+    @Test
+    public void testPositionFilledUpdatesOpenPositions() {
+        List<Availability> availabilities = new ArrayList<>();
+        availabilities.add(new Availability(1,
+                LocalTime.of(10, 30), LocalTime.of(12, 0)));
+        User user = new User(1L, "matei", "matei", "matei", "org", BoatType.C4, Gender.MALE,
+                Level.PROFESSIONAL, Positions.COX, availabilities);
+
+        RequiredPositions cox = new RequiredPositions(Positions.COX, 1);
+        Set<RequiredPositions> positions = new HashSet<>();
+        positions.add(cox);
+        Activity activity = new Training(2, new Date(1234),
+                LocalTime.of(10, 30), LocalTime.of(12, 0), positions, BoatType.C4);
+
+        Validator validator = new PositionValidator();
+        assertTrue(validator.handle(user, activity));
+
+        cox.fillPosition();
+        activity.refreshOpenPositions();
+        assertFalse(activity.hasOpenPosition(Positions.COX));
+        assertFalse(validator.handle(user, activity));
+
+        RequiredPositions coach = new RequiredPositions(Positions.COACH, 1);
+        activity.addPosition(coach);
+        assertTrue(activity.hasOpenPosition(Positions.COACH));
+        activity.removePosition(coach);
+        assertFalse(activity.hasOpenPosition(Positions.COACH));
+    }
 }
@@ -4,15 +4,19 @@ import java.util.ArrayList;
 import java.util.List;
 import javassist.tools.web.BadHttpRequest;
 import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.template.user.domain.Activity;
 import nl.tudelft.sem.template.user.domain.Availability;
 import nl.tudelft.sem.template.user.domain.AvailabilityRepository;
 import nl.tudelft.sem.template.user.domain.Competition;
 import nl.tudelft.sem.template.user.domain.Positions;
 import nl.tudelft.sem.template.user.domain.Training;
 import nl.tudelft.sem.template.user.domain.User;
+import nl.tudelft.sem.template.user.domain.UserIndex;
 import nl.tudelft.sem.template.user.domain.UserRepository;
 import nl.tudelft.sem.template.user.domain.UserService;
 import nl.tudelft.sem.template.user.domain.enums.Position;
+import nl.tudelft.sem.template.user.models.ActivityPositionsModel;
+import nl.tudelft.sem.template.user.models.CandidateResponseModel;
 import nl.tudelft.sem.template.user.models.CreateAvailability;
 import nl.tudelft.sem.template.user.models.CreateCompetitionRequestModel;
 import nl.tudelft.sem.template.user.models.CreateTrainingRequestModel;
@@ -53,19 +57,23 @@ public class UserController {
 
     private final transient AvailabilityRepository availabilityRepository;
 
+    private final transient UserIndex userIndex;
+
     /**
      * Instantiates a new controller.
      *
      * @param userRepository         repository of users.
      * @param userService            with the logic for the controllers.
      * @param availabilityRepository repository for availability.
+     * @param userIndex              in-memory index of the users, to find the members for an activity.
      */
     @Autowired
     public UserController(UserRepository userRepository, UserService userService,
-                          AvailabilityRepository availabilityRepository) {
+                          AvailabilityRepository availabilityRepository, UserIndex userIndex) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.availabilityRepository = availabilityRepository;
+        this.userIndex = userIndex;
     }
 
 
@@ -99,12 +107,14 @@ public class UserController {
     @PostMapping("/saveUser")
     public ResponseEntity<String> saveUser(@RequestBody UserRequestModel requestModel)
             throws Exception {
-        User user;
+        UserResponseModel saved;
         try {
-            userService.save(requestModel);
+            saved = userService.save(requestModel);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, INCORRECT_FORMAT);
         }
+        // The user is committed by now; the index repairs itself if it cannot take them in
+        userIndex.put(userRepository.findById(saved.getId()));
         return ResponseEntity.ok().body("User successfully added!");
     }
 
@@ -120,6 +130,7 @@ public class UserController {
         if (userService.existsById(id)) {
             User user = userRepository.findById(id);
             userRepository.delete(user);
+            userIndex.remove(id);
             return ResponseEntity.ok().build();
         } else {
             return ResponseEntity.notFound().build();
@@ -165,7 +176,7 @@ public class UserController {
             availability.setStartTime(createAvailability.getStartTime());
             availability.setEndTime(createAvailability.getEndTime());
             user.addAvailability(availability);
-            userRepository.save(user);
+            userIndex.put(userRepository.save(user));
             return ResponseEntity.ok().body("availability successfully updated!");
         } else {
             return ResponseEntity.badRequest().body("User does not exist!");
@@ -204,7 +215,7 @@ public class UserController {
                 Availability availability = user.getAvailabilities().stream()
                         .filter(a -> a.getId() == availabilityId).findFirst().get();
                 user.getAvailabilities().remove(availability);
-                userRepository.save(user);
+                userIndex.put(userRepository.save(user));
                 return ResponseEntity.ok().body("Availability successfully deleted!");
             } else {
                 return ResponseEntity.badRequest().body("Availability does not exist!");
@@ -232,7 +243,7 @@ public class UserController {
                     .build();
             availability = availabilityRepository.save(availability);
             user.getAvailabilities().add(availability);
-            userRepository.save(user);
+            userIndex.put(userRepository.save(user));
 
             return ResponseEntity.ok().body(availability.toString() + " successfully added!");
         } else {
@@ -300,6 +311,64 @@ public class UserController {
         }
     }
 
+    /**
+     * Endpoint for retrieving the competitions a user can participate in for any of their positions.
+     *
+     * @param bearerToken the token provided when authenticating
+     * @return the competitions the user can participate in, each with the positions it can take
+     */
+    @GetMapping("/retrieve/competitions/positions")
+    public ResponseEntity<List<ActivityPositionsModel<Competition>>> retrieveCompetitionPositions(
+            @RequestHeader(AUTHORIZATION) String bearerToken) {
+        try {
+            User user = userService.findByUsername();
+            return ResponseEntity.ok().body(userService.getCompetitionPositions(user, bearerToken));
+        } catch (Exception e) {
+            log.info(e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Endpoint for retrieving the trainings a user can participate in for any of their positions.
+     *
+     * @param bearerToken the token provided when authenticating
+     * @return the trainings the user can participate in, each with the positions it can take
+     */
+    @GetMapping("/retrieve/trainings/positions")
+    public ResponseEntity<List<ActivityPositionsModel<Training>>> retrieveTrainingPositions(
+            @RequestHeader(AUTHORIZATION) String bearerToken) {
+        try {
+            User user = userService.findByUsername();
+            return ResponseEntity.ok().body(userService.getTrainingPositions(user, bearerToken));
+        } catch (Exception e) {
+            log.info(e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Endpoint for retrieving the members who could fill the open positions of an activity.
+     *
+     * @param bearerToken the token provided when authenticating
+     * @param id          the id of the activity
+     * @return the eligible members with the open positions they can fill
+     */
+    @GetMapping("/candidates/{id}")
+    public ResponseEntity<List<CandidateResponseModel>> retrieveCandidates(
+            @RequestHeader(AUTHORIZATION) String bearerToken, @PathVariable int id) {
+        try {
+            Activity activity = userService.getActivity(id, bearerToken);
+            if (activity == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok().body(userIndex.candidates(activity));
+        } catch (Exception e) {
+            log.info(e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Endpoint for sending a request to join an activity.
      *
@@ -396,6 +465,45 @@ public class UserController {
         }
     }
 
+    /**
+     * Endpoint for creating many trainings at once, e.g. the trainings of a whole term.
+     *
+     * @param bearerToken           the token provided when authenticating
+     * @param trainingRequestModels the trainings to be added
+     * @return how many trainings were added
+     */
+    @PutMapping("/create/trainings")
+    public ResponseEntity<String> createTrainings(@RequestHeader(AUTHORIZATION) String bearerToken,
+                                                  @RequestBody List<CreateTrainingRequestModel> trainingRequestModels) {
+        try {
+            User user = userService.findByUsername();
+            trainingRequestModels.forEach(model -> model.setOwnerId(user.getId().intValue()));
+            return ResponseEntity.ok().body(userService.saveTrainings(trainingRequestModels, bearerToken));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint for creating many competitions at once.
+     *
+     * @param bearerToken              the token provided when authenticating
+     * @param competitionRequestModels the competitions to be added
+     * @return how many competitions were added
+     */
+    @PutMapping("/create/competitions")
+    public ResponseEntity<String> createCompetitions(
+            @RequestHeader(AUTHORIZATION) String bearerToken,
+            @RequestBody List<CreateCompetitionRequestModel> competitionRequestModels) {
+        try {
+            User user = userService.findByUsername();
+            competitionRequestModels.forEach(model -> model.setOwnerId(user.getId().intValue()));
+            return ResponseEntity.ok().body(userService.saveCompetitions(competitionRequestModels, bearerToken));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Endpoint for deleting an activity. Only the owner id can do this.
      *
@@ -1,7 +1,7 @@
 package nl.tudelft.sem.template.user.domain;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalTime;
 import java.util.Date;
 import java.util.Set;
@@ -39,8 +39,8 @@ public abstract class Activity {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm")
     private LocalTime endTime;
 
-    // A set of positions that still need to be filled
-    @JsonIgnore
+    // A set of positions that still need to be filled, read from the activity service but not passed on
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private Set<RequiredPositions> positions;
 
     // The type of boat in which the current activity takes place.
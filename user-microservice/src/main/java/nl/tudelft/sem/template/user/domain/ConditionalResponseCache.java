@@ -0,0 +1,77 @@
+package nl.tudelft.sem.template.user.domain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The last response read from each address of the activity service, with its entity tag. A read
+ * which sends a request body is kept apart per request. The tag is sent back with the next read of
+ * the same address and request, and when the activity service answers that nothing changed, the
+ * kept response is used instead of downloading and decoding it again.
+ * The least recently used responses are dropped once the cache is full.
+ */
+public class ConditionalResponseCache {
+    // The responses, from the least to the most recently used
+    private final transient Map<String, Entry> entries;
+
+    /**
+     * Constructor method.
+     *
+     * @param capacity the maximum number of responses kept
+     */
+    public ConditionalResponseCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the last response read from an address.
+     *
+     * @param uri the address, followed by the request sent to it, if any
+     * @return the response with its entity tag, or null if none is kept
+     */
+    public synchronized Entry get(String uri) {
+        return entries.get(uri);
+    }
+
+    /**
+     * Keeps a response read from an address, replacing the previous one.
+     *
+     * @param uri the address, followed by the request sent to it, if any
+     * @param etag the entity tag of the response
+     * @param body the decoded body of the response
+     */
+    public synchronized void put(String uri, String etag, Object body) {
+        entries.put(uri, new Entry(etag, body));
+    }
+
+    /**
+     * Forgets the response read from an address.
+     *
+     * @param uri the address, followed by the request sent to it, if any
+     */
+    public synchronized void remove(String uri) {
+        entries.remove(uri);
+    }
+
+    /**
+     * A response with its entity tag.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        // The entity tag, with its quotes
+        private final transient String etag;
+
+        // The decoded body
+        private final transient Object body;
+    }
+}
@@ -0,0 +1,17 @@
+package nl.tudelft.sem.template.user.domain;
+
+import java.time.ZoneId;
+
+/**
+ * The current time and the time zone the rules of the activity service are applied with. The zone is
+ * the one the activity service reads the day of the week of an activity in, the default one of the system.
+ */
+public class MyClock {
+    public long getCurrentTime() {
+        return System.currentTimeMillis();
+    }
+
+    public ZoneId getZone() {
+        return ZoneId.systemDefault();
+    }
+}
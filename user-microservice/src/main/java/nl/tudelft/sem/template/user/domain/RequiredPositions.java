@@ -18,9 +18,12 @@ public class RequiredPositions {
     // Position that needs to be filled
     private Position position;
 
-    // Amount of the needed positions required
+    // Amount of the positions still open
     private int requiredOfPosition;
 
+    // Amount of the positions filled so far
+    private int filledOfPosition;
+
 
     /**
      * Constructor method.
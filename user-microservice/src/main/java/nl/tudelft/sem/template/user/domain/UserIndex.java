@@ -0,0 +1,328 @@
+package nl.tudelft.sem.template.user.domain;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import nl.tudelft.sem.template.user.domain.enums.BoatType;
+import nl.tudelft.sem.template.user.domain.enums.Gender;
+import nl.tudelft.sem.template.user.domain.enums.Level;
+import nl.tudelft.sem.template.user.domain.enums.Position;
+import nl.tudelft.sem.template.user.models.CandidateResponseModel;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-memory index of all the users, keyed by the attributes the activity validators check.
+ * Finding the members who could fill the open positions of an activity only visits the users
+ * that are in every bucket matching the activity, instead of matching every user separately.
+ */
+@Component
+@Slf4j
+public class UserIndex {
+    // The minimum number of minutes between now and the start of a training, as in the activity service
+    public static final long TRAINING_TIME = 30;
+
+    // The minimum number of minutes between now and the start of a competition, as in the activity service
+    public static final long COMPETITION_TIME = 24 * 60;
+
+    // The repository containing all the users
+    private final transient UserRepository userRepository;
+
+    // Guards all the maps below
+    private final transient ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Whether the index has been filled from the repository
+    private transient volatile boolean loaded;
+
+    // The indexed profiles, by the id of their user
+    private final transient Map<Long, Profile> profiles = new HashMap<>();
+
+    // The user ids grouped by the attributes the validators check
+    private final transient Map<Position, Set<Long>> byPosition = new EnumMap<>(Position.class);
+    private final transient Map<BoatType, Set<Long>> byCertificate = new EnumMap<>(BoatType.class);
+    private final transient Map<Integer, Set<Long>> byDay = new HashMap<>();
+    private final transient Map<Gender, Set<Long>> byGender = new EnumMap<>(Gender.class);
+    private final transient Map<Level, Set<Long>> byLevel = new EnumMap<>(Level.class);
+    private final transient Map<String, Set<Long>> byOrganisation = new HashMap<>();
+
+    // The clock and zone used to decide whether an activity can still be joined and on which day it is
+    private transient MyClock myClock = new MyClock();
+
+    /**
+     * Constructor method.
+     *
+     * @param userRepository The repository containing all the users
+     */
+    public UserIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Adds a user to the index, or re-indexes them if they were already present. The user has already
+     * been saved when this is called, so a failure is not passed on to the caller; the whole index is
+     * dropped instead, and filled again from the repository on the next access.
+     *
+     * @param user the user that was created or modified
+     */
+    @Transactional(readOnly = true)
+    public void put(User user) {
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            unindex(user.getId());
+            index(user);
+        } catch (RuntimeException e) {
+            log.warn("Could not index a user, the index will be reloaded", e);
+            clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a user from the index.
+     *
+     * @param id the id of the user that was deleted
+     */
+    @Transactional(readOnly = true)
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setMyClock(MyClock myClock) {
+        this.myClock = myClock;
+    }
+
+    /**
+     * Drops the whole index; it will be filled again from the repository on the next access.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the members who could fill one of the open positions of the given activity, with the
+     * same rules as the validators of the activity service: a high enough certificate, an open
+     * position they can fill and an availability window around the activity, and for competitions
+     * also the allowed gender, the organisation and a high enough level. An activity which starts
+     * too soon to still be joined has no candidates.
+     *
+     * @param activity the activity, with its open positions
+     * @return the eligible members with the open positions they can fill, ordered by their id
+     */
+    @Transactional(readOnly = true)
+    public List<CandidateResponseModel> candidates(Activity activity) {
+        // The activity service sends the date without a time, which is read as midnight UTC, and adds the
+        // start time to it; the day of the week is read in the zone the activity service uses
+        long startInstant = activity.getActivityDate().getTime()
+                + (activity.getStartTime().getHour() * 60L + activity.getStartTime().getMinute()) * 60 * 1000;
+        long cutoff = activity instanceof Competition ? COMPETITION_TIME : TRAINING_TIME;
+        if (startInstant < myClock.getCurrentTime() + cutoff * 60 * 1000) {
+            return List.of();
+        }
+        int day = activity.getActivityDate().toInstant().atZone(myClock.getZone()).getDayOfWeek().getValue();
+
+        readLockLoaded();
+        try {
+            Set<Position> open = EnumSet.noneOf(Position.class);
+            if (activity.getPositions() != null) {
+                for (RequiredPositions position : activity.getPositions()) {
+                    if (position.getRequiredOfPosition() > 0) {
+                        open.add(position.getPosition());
+                    }
+                }
+            }
+
+            List<Set<Long>> required = new ArrayList<>();
+            required.add(union(byPosition, open::contains));
+            required.add(union(byCertificate, certificate -> certificate.compareTo(activity.getBoatType()) >= 0));
+            required.add(byDay.getOrDefault(day, Collections.emptySet()));
+            if (activity instanceof Competition) {
+                Competition competition = (Competition) activity;
+                required.add(byGender.getOrDefault(competition.getAllowedGender(), Collections.emptySet()));
+                required.add(byOrganisation.getOrDefault(competition.getOrganization(), Collections.emptySet()));
+                required.add(union(byLevel, level -> level.compareTo(competition.getAllowedLevel()) <= 0));
+            }
+
+            List<CandidateResponseModel> result = new ArrayList<>();
+            for (Long id : intersect(required)) {
+                Profile profile = profiles.get(id);
+                if (profile.availableFor(day, activity.getStartTime(), activity.getEndTime())) {
+                    List<Position> positions = new ArrayList<>(profile.positions);
+                    positions.retainAll(open);
+                    result.add(new CandidateResponseModel(id, profile.username, positions));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the read lock, filling the index first if this was not done yet.
+     */
+    private void readLockLoaded() {
+        lock.readLock().lock();
+        if (loaded) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fills the index from the repository if this was not done yet; the write lock must be held.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        clear();
+        for (User user : userRepository.findAll()) {
+            index(user);
+        }
+        loaded = true;
+        log.info("User index loaded with {} users", profiles.size());
+    }
+
+    private void clear() {
+        profiles.clear();
+        for (Map<?, Set<Long>> buckets : List.of(byPosition, byCertificate, byDay, byGender, byLevel, byOrganisation)) {
+            buckets.clear();
+        }
+    }
+
+    private void index(User user) {
+        Profile profile = new Profile(user);
+        Long id = user.getId();
+        profiles.put(id, profile);
+        for (Position position : profile.positions) {
+            add(byPosition, position, id);
+        }
+        for (Availability availability : profile.availabilities) {
+            add(byDay, availability.getDayOfWeek(), id);
+        }
+        add(byCertificate, user.getCertificate(), id);
+        add(byGender, user.getGender(), id);
+        add(byLevel, user.getLevel(), id);
+        add(byOrganisation, user.getOrganisation(), id);
+    }
+
+    private void unindex(Long id) {
+        if (profiles.remove(id) == null) {
+            return;
+        }
+        for (Map<?, Set<Long>> buckets : List.of(byPosition, byCertificate, byDay, byGender, byLevel, byOrganisation)) {
+            buckets.values().removeIf(bucket -> bucket.remove(id) && bucket.isEmpty());
+        }
+    }
+
+    private static <K> void add(Map<K, Set<Long>> buckets, K key, Long id) {
+        if (key != null) {
+            buckets.computeIfAbsent(key, k -> new TreeSet<>()).add(id);
+        }
+    }
+
+    /**
+     * Walks the smallest bucket and keeps the users that are present in all the others.
+     */
+    private static Set<Long> intersect(List<Set<Long>> required) {
+        Set<Long> smallest = required.get(0);
+        for (Set<Long> bucket : required) {
+            if (bucket.size() < smallest.size()) {
+                smallest = bucket;
+            }
+        }
+        Set<Long> result = new TreeSet<>();
+        for (Long id : smallest) {
+            if (required.stream().allMatch(bucket -> bucket.contains(id))) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the users in the buckets whose key meets the given condition.
+     */
+    private static <K> Set<Long> union(Map<K, Set<Long>> buckets, Predicate<K> condition) {
+        Set<Long> result = new TreeSet<>();
+        buckets.forEach((key, ids) -> {
+            if (condition.test(key)) {
+                result.addAll(ids);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * A copy of the attributes of a user, so the index does not hold on to the entity.
+     */
+    private static class Profile {
+        private final transient String username;
+        private final transient List<Position> positions = new ArrayList<>();
+        private final transient List<Availability> availabilities = new ArrayList<>();
+
+        Profile(User user) {
+            this.username = user.getUsername();
+            if (user.getPositions() != null) {
+                for (Positions position : user.getPositions()) {
+                    if (!positions.contains(position.getPosition())) {
+                        positions.add(position.getPosition());
+                    }
+                }
+            }
+            if (user.getAvailabilities() != null) {
+                for (Availability availability : user.getAvailabilities()) {
+                    availabilities.add(new Availability(availability.getId(), availability.getDayOfWeek(),
+                            availability.getStartTime(), availability.getEndTime()));
+                }
+            }
+        }
+
+        /**
+         * Whether one of the availability windows on the given day holds the whole activity.
+         */
+        boolean availableFor(int day, LocalTime startTime, LocalTime endTime) {
+            for (Availability availability : availabilities) {
+                if (availability.getDayOfWeek() == day
+                        && !startTime.isBefore(availability.getStartTime())
+                        && !endTime.isAfter(availability.getEndTime())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
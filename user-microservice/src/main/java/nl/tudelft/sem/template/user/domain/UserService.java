@@ -1,11 +1,19 @@
 package nl.tudelft.sem.template.user.domain;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import nl.tudelft.sem.template.user.authentication.AuthManager;
 import nl.tudelft.sem.template.user.domain.enums.Position;
 import nl.tudelft.sem.template.user.domain.enums.Status;
+import nl.tudelft.sem.template.user.models.ActivityPositionsModel;
 import nl.tudelft.sem.template.user.models.CreateCompetitionRequestModel;
 import nl.tudelft.sem.template.user.models.CreateTrainingRequestModel;
 import nl.tudelft.sem.template.user.models.RequestActivitiesModel;
@@ -19,8 +27,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 
@@ -28,10 +41,16 @@ import reactor.core.publisher.Mono;
 @Slf4j
 public class UserService {
     public static final String AUTHORIZATION = "Authorization";
+    // The maximum number of activity responses kept to be revalidated
+    private static final int ACTIVITY_READS = 256;
     private final transient UserRepository userRepository;
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final transient AuthManager authManager;
     private final transient WebClient webClient;
+    // The activities last read from the activity service, revalidated with their entity tags
+    private final transient ConditionalResponseCache activityReads = new ConditionalResponseCache(ACTIVITY_READS);
+    // Reads the activities as the decoder of the web client does, once their type is known
+    private final transient ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
 
     /**
      * Creates new instance of  UserService.
@@ -165,7 +184,9 @@ public class UserService {
     }
 
     /**
-     * Method for retrieving all the competitions a user can participate in.
+     * Method for retrieving all the competitions a user can participate in. The last list read for
+     * the same user and position is revalidated with its entity tag, so it is only downloaded again
+     * once it changed; it is shared, so it must not be modified.
      *
      * @param user     the user for which to retrieve the competitions
      * @param position the position the user wants to fill
@@ -173,46 +194,128 @@ public class UserService {
      * @return All the competitions the user can participate in.
      */
     public List<Competition> getCompetitions(User user, Position position, String token) {
-        RequestActivitiesModel activitiesModel = new RequestActivitiesModel(user.getId(), user.getUsername(),
-                user.getFirstName(), user.getLastName(), user.getOrganisation(), user.getCertificate(),
-                user.getGender(), user.getLevel(), position, new ArrayList<>(user.getAvailabilities()));
+        log.info("Trying to get all activities for the user {}", user.getId());
+        return getConditionally("http://localhost:8083/retrieveCompatible/competition",
+                mapToActivitiesModel(user, position), token, response -> response
+                        .bodyToMono(new ParameterizedTypeReference<List<Competition>>() {
+                        }).block());
+    }
+
+    /**
+     * Method for streaming the competitions a user can participate in. The activity service
+     * sends every competition as soon as it is matched, so they can be used before all of them
+     * have arrived, and cancelling the stream stops the transfer.
+     *
+     * @param user     the user for which to retrieve the competitions
+     * @param position the position the user wants to fill
+     * @param token    the token provided when authenticating
+     * @return the competitions the user can participate in, ordered by their id
+     */
+    public Flux<Competition> streamCompetitions(User user, Position position, String token) {
         log.info("Trying to get all activities for the user {}", user.getId());
         return webClient
                 .method(HttpMethod.GET)
-                .uri("http://localhost:8083/retrieveCompatible/competition")
-                .body(Mono.just(activitiesModel), RequestActivitiesModel.class)
+                .uri("http://localhost:8083/retrieveCompatible/competition/stream")
+                .body(Mono.just(mapToActivitiesModel(user, position)), RequestActivitiesModel.class)
                 .header(AUTHORIZATION, token)
+                .accept(MediaType.APPLICATION_STREAM_JSON)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<List<Competition>>() {
-                }).block();
+                .bodyToFlux(Competition.class);
     }
 
     /**
-     * Method for retrieving all the trainings a user can participate in.
+     * Method for retrieving all the trainings a user can participate in, revalidated like the
+     * competitions.
      *
      * @param user     the user for which to retrieve the trainings
      * @param position the position the user wants to fill
      * @param token    the token provided when authenticating
      * @return All the trainings the user can participate in.
      */
-
     public List<Training> getTrainings(User user, Position position, String token) {
-        RequestActivitiesModel activitiesModel = new RequestActivitiesModel(user.getId(), user.getUsername(),
-                user.getFirstName(), user.getLastName(), user.getOrganisation(), user.getCertificate(),
-                user.getGender(), user.getLevel(), position, new ArrayList<>(user.getAvailabilities()));
+        log.info("Trying to get all activities for the user {}", user.getId());
+        return getConditionally("http://localhost:8083/retrieveCompatible/training",
+                mapToActivitiesModel(user, position), token, response -> response
+                        .bodyToMono(new ParameterizedTypeReference<List<Training>>() {
+                        }).block());
+    }
+
+    /**
+     * Method for streaming the trainings a user can participate in. The activity service
+     * sends every training as soon as it is matched, so they can be used before all of them
+     * have arrived, and cancelling the stream stops the transfer.
+     *
+     * @param user     the user for which to retrieve the trainings
+     * @param position the position the user wants to fill
+     * @param token    the token provided when authenticating
+     * @return the trainings the user can participate in, ordered by their id
+     */
+    public Flux<Training> streamTrainings(User user, Position position, String token) {
         log.info("Trying to get all activities for the user {}", user.getId());
         return webClient
                 .method(HttpMethod.GET)
-                .uri("http://localhost:8083/retrieveCompatible/training")
-                .body(Mono.just(activitiesModel), RequestActivitiesModel.class)
+                .uri("http://localhost:8083/retrieveCompatible/training/stream")
+                .body(Mono.just(mapToActivitiesModel(user, position)), RequestActivitiesModel.class)
                 .header(AUTHORIZATION, token)
+                .accept(MediaType.APPLICATION_STREAM_JSON)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<List<Training>>() {
-                }).block();
+                .bodyToFlux(Training.class);
     }
 
     /**
-     * Method for sending a request to join an activity.
+     * Method for retrieving the competitions a user can participate in for any of their positions,
+     * with a single request to the activity service instead of one per position. The result is
+     * revalidated like the competitions for a single position.
+     *
+     * @param user  the user for which to retrieve the competitions
+     * @param token the token provided when authenticating
+     * @return the competitions the user can participate in, each with the positions it can take
+     */
+    public List<ActivityPositionsModel<Competition>> getCompetitionPositions(User user, String token) {
+        log.info("Trying to get all competitions for every position of the user {}", user.getId());
+        return getConditionally("http://localhost:8083/retrieveCompatible/competition/positions",
+                mapToActivitiesModel(user), token, response -> response
+                        .bodyToMono(new ParameterizedTypeReference<List<ActivityPositionsModel<Competition>>>() {
+                        }).block());
+    }
+
+    /**
+     * Method for retrieving the trainings a user can participate in for any of their positions,
+     * with a single request to the activity service instead of one per position.
+     *
+     * @param user  the user for which to retrieve the trainings
+     * @param token the token provided when authenticating
+     * @return the trainings the user can participate in, each with the positions it can take
+     */
+    public List<ActivityPositionsModel<Training>> getTrainingPositions(User user, String token) {
+        log.info("Trying to get all trainings for every position of the user {}", user.getId());
+        return getConditionally("http://localhost:8083/retrieveCompatible/training/positions",
+                mapToActivitiesModel(user), token, response -> response
+                        .bodyToMono(new ParameterizedTypeReference<List<ActivityPositionsModel<Training>>>() {
+                        }).block());
+    }
+
+    private RequestActivitiesModel mapToActivitiesModel(User user, Position position) {
+        return new RequestActivitiesModel(user.getId(), user.getUsername(),
+                user.getFirstName(), user.getLastName(), user.getOrganisation(), user.getCertificate(),
+                user.getGender(), user.getLevel(), position, new ArrayList<>(user.getAvailabilities()), null);
+    }
+
+    private RequestActivitiesModel mapToActivitiesModel(User user) {
+        Set<Position> positions = EnumSet.noneOf(Position.class);
+        if (user.getPositions() != null) {
+            for (Positions p : user.getPositions()) {
+                positions.add(p.getPosition());
+            }
+        }
+        return new RequestActivitiesModel(user.getId(), user.getUsername(),
+                user.getFirstName(), user.getLastName(), user.getOrganisation(), user.getCertificate(),
+                user.getGender(), user.getLevel(), null, new ArrayList<>(user.getAvailabilities()), positions);
+    }
+
+    /**
+     * Method for sending a request to join an activity. The compatible activities are streamed
+     * and the search stops at the activity with the given id.
      *
      * @param user     the user which is to join the activity.
      * @param position the position the user wants to fill.
@@ -221,37 +324,25 @@ public class UserService {
      * @throws Exception if for any reason the user cannot join the activity
      */
     public void joinActivity(User user, Positions position, long id, String token) throws Exception {
-        List<Training> trainings = getTrainings(user, position.getPosition(), token);
-        for (Training training : trainings) {
-            if (training.getActivityId() == id) {
-                RequestRequestModel requestModel = new RequestRequestModel((long) (training.getOwnerId()),
-                        (long) (training.getActivityId()), user.getId(), Status.PENDING, position.getPosition());
-                webClient
-                        .method(HttpMethod.POST)
-                        .uri("http://localhost:8086/request")
-                        .body(Mono.just(requestModel), RequestRequestModel.class)
-                        .header(AUTHORIZATION, token)
-                        .retrieve()
-                        .bodyToMono(Object.class).block();
-                return;
-            }
+        Activity activity = streamTrainings(user, position.getPosition(), token)
+                .filter(training -> training.getActivityId() == id)
+                .cast(Activity.class)
+                .switchIfEmpty(streamCompetitions(user, position.getPosition(), token)
+                        .filter(competition -> competition.getActivityId() == id))
+                .next()
+                .block();
+        if (activity == null) {
+            throw new Exception("Activity does not exist or user cannot join it");
         }
-        List<Competition> competitions = getCompetitions(user, position.getPosition(), token);
-        for (Competition competition : competitions) {
-            if (competition.getActivityId() == id) {
-                RequestRequestModel requestModel = new RequestRequestModel((long) (competition.getOwnerId()),
-                        (long) (competition.getActivityId()), user.getId(), Status.PENDING, position.getPosition());
-                webClient
-                        .method(HttpMethod.POST)
-                        .uri("http://localhost:8086/request")
-                        .body(Mono.just(requestModel), RequestRequestModel.class)
-                        .header(AUTHORIZATION, token)
-                        .retrieve()
-                        .bodyToMono(Object.class).block();
-                return;
-            }
-        }
-        throw new Exception("Activity does not exist or user cannot join it");
+        RequestRequestModel requestModel = new RequestRequestModel((long) (activity.getOwnerId()),
+                (long) (activity.getActivityId()), user.getId(), Status.PENDING, position.getPosition());
+        webClient
+                .method(HttpMethod.POST)
+                .uri("http://localhost:8086/request")
+                .body(Mono.just(requestModel), RequestRequestModel.class)
+                .header(AUTHORIZATION, token)
+                .retrieve()
+                .bodyToMono(Object.class).block();
     }
 
     /**
@@ -309,6 +400,116 @@ public class UserService {
         return message;
     }
 
+    /**
+     * Method for creating many trainings in one request.
+     *
+     * @param trainings the training models to be added
+     * @param token     the token provided when authenticating
+     * @return whether the trainings were successfully added
+     */
+    public String saveTrainings(List<CreateTrainingRequestModel> trainings, String token) {
+        return webClient
+                .method(HttpMethod.PUT)
+                .uri("http://localhost:8083/createActivities/training")
+                .bodyValue(trainings)
+                .header(AUTHORIZATION, token)
+                .retrieve()
+                .bodyToMono(String.class).block();
+    }
+
+    /**
+     * Method for creating many competitions in one request.
+     *
+     * @param competitions the competition models to be added
+     * @param token        the token provided when authenticating
+     * @return whether the competitions were successfully added
+     */
+    public String saveCompetitions(List<CreateCompetitionRequestModel> competitions, String token) {
+        return webClient
+                .method(HttpMethod.PUT)
+                .uri("http://localhost:8083/createActivities/competition")
+                .bodyValue(competitions)
+                .header(AUTHORIZATION, token)
+                .retrieve()
+                .bodyToMono(String.class).block();
+    }
+
+    /**
+     * Method for retrieving an activity with its open positions, revalidated with its entity tag.
+     * The activity service says whether it is a training or a competition, and it is read as that.
+     *
+     * @param activityId the id of the activity
+     * @param token      the token provided when authenticating
+     * @return the training or competition with the given id
+     */
+    public Activity getActivity(int activityId, String token) {
+        return getConditionally("http://localhost:8083/activities/" + activityId, null, token, response -> {
+            JsonNode activity = response.bodyToMono(JsonNode.class).block();
+            if (activity == null) {
+                return null;
+            }
+            try {
+                return objectMapper.treeToValue(activity,
+                        activity.path("competition").asBoolean() ? Competition.class : Training.class);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Reads from the activity service, sending the entity tag of the last response read from the
+     * same address with the same request. If the activity service answers that it did not change,
+     * the last response is returned without downloading it again; it is shared, so it must not be
+     * modified.
+     *
+     * @param uri     the address to read from
+     * @param request the body of the request, or null to send none
+     * @param token   the token provided when authenticating
+     * @param decode  reads the response, if it changed
+     * @param <T>     the type the response is decoded to
+     * @return the response, or null if the activity service sent none
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getConditionally(String uri, Object request, String token, Function<ClientResponse, T> decode) {
+        String key;
+        try {
+            key = request == null ? uri : uri + " " + objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        ConditionalResponseCache.Entry cached = activityReads.get(key);
+        WebClient.RequestBodySpec spec = webClient
+                .method(HttpMethod.GET)
+                .uri(uri)
+                .header(AUTHORIZATION, token)
+                .headers(headers -> {
+                    if (cached != null) {
+                        headers.setIfNoneMatch(cached.getEtag());
+                    }
+                });
+        ClientResponse response = (request == null ? spec : spec.bodyValue(request)).exchange().block();
+        if (response == null) {
+            return null;
+        }
+        if (response.statusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+            response.releaseBody().block();
+            return (T) cached.getBody();
+        }
+        if (!response.statusCode().is2xxSuccessful()) {
+            activityReads.remove(key);
+            throw response.createException().block();
+        }
+        T body = decode.apply(response);
+        String etag = response.headers().asHttpHeaders().getETag();
+        if (etag != null && body != null) {
+            activityReads.put(key, etag, body);
+        } else {
+            activityReads.remove(key);
+        }
+        return body;
+    }
+
     /**
      * Method for deleting an activity.
      *
@@ -0,0 +1,19 @@
+package nl.tudelft.sem.template.user.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nl.tudelft.sem.template.user.domain.Activity;
+import nl.tudelft.sem.template.user.domain.enums.Position;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityPositionsModel<T extends Activity> {
+    // The compatible activity
+    private T activity;
+
+    // The positions of the user the activity can take
+    private List<Position> positions;
+}
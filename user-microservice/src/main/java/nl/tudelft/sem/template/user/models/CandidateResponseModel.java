@@ -0,0 +1,21 @@
+package nl.tudelft.sem.template.user.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nl.tudelft.sem.template.user.domain.enums.Position;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CandidateResponseModel {
+    // The id of the member
+    private Long userId;
+
+    // The username of the member
+    private String username;
+
+    // The open positions of the activity the member can fill
+    private List<Position> positions;
+}
@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.user.models;
 
 import java.util.List;
+import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import nl.tudelft.sem.template.user.domain.Availability;
@@ -42,4 +43,7 @@ public class RequestActivitiesModel {
 
     // A list of availabilities of a user.
     List<Availability> availabilities;
+
+    // All the positions the user can fill, when asking which of them each activity can take.
+    Set<Position> positions;
 }
@@ -0,0 +1,165 @@
+package nl.tudelft.sem.template.user.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import nl.tudelft.sem.template.user.domain.enums.BoatType;
+import nl.tudelft.sem.template.user.domain.enums.Gender;
+import nl.tudelft.sem.template.user.domain.enums.Level;
+import nl.tudelft.sem.template.user.domain.enums.Position;
+import nl.tudelft.sem.template.user.models.CandidateResponseModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UserIndexTest {
+    // Thursday the first of January 1970, midnight UTC
+    private static final Date DATE = new Date(0);
+
+    private static final long DAY = 24 * 60 * 60 * 1000;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final UserIndex userIndex = new UserIndex(userRepository);
+
+    private static MyClock clock(long currentTime, ZoneId zone) {
+        return new MyClock() {
+            @Override
+            public long getCurrentTime() {
+                return currentTime;
+            }
+
+            @Override
+            public ZoneId getZone() {
+                return zone;
+            }
+        };
+    }
+
+    private User user(long id, String organisation, BoatType certificate, Position... positions) {
+        List<Positions> userPositions = new ArrayList<>();
+        for (Position position : positions) {
+            userPositions.add(new Positions(null, position));
+        }
+        return new User(id, "user" + id, Gender.MALE, "first", "last", Level.AMATEUR, organisation, certificate,
+                new ArrayList<>(List.of(new Availability(null, 4, LocalTime.of(8, 0), LocalTime.of(20, 0)))),
+                userPositions);
+    }
+
+    private Training training(LocalTime startTime, LocalTime endTime, BoatType boatType,
+                              RequiredPositions... positions) {
+        return new Training(1, DATE, startTime, endTime, Set.of(positions), boatType);
+    }
+
+    @BeforeEach
+    void setup() {
+        userIndex.setMyClock(clock(-2 * DAY, ZoneOffset.UTC));
+        when(userRepository.findAll()).thenReturn(List.of(
+                user(1L, "org", BoatType.C4, Position.COX, Position.COACH),
+                user(2L, "org", BoatType.C4, Position.SCULLING_ROWER),
+                user(3L, "other", BoatType.EIGHT_PLUS, Position.COX)));
+    }
+
+    @Test
+    void candidatesForTraining() {
+        Training training = training(LocalTime.of(10, 30), LocalTime.of(12, 0), BoatType.C4,
+                new RequiredPositions(Position.COX, 1), new RequiredPositions(Position.COACH, 1),
+                new RequiredPositions(Position.SCULLING_ROWER, 0));
+
+        assertThat(userIndex.candidates(training)).containsExactly(
+                new CandidateResponseModel(1L, "user1", List.of(Position.COX, Position.COACH)),
+                new CandidateResponseModel(3L, "user3", List.of(Position.COX)));
+    }
+
+    @Test
+    void candidatesRespectCertificateAndAvailability() {
+        assertThat(userIndex.candidates(training(LocalTime.of(10, 30), LocalTime.of(12, 0), BoatType.EIGHT_PLUS,
+                new RequiredPositions(Position.COX, 1)))).extracting(CandidateResponseModel::getUserId)
+                .containsExactly(3L);
+        assertThat(userIndex.candidates(training(LocalTime.of(19, 30), LocalTime.of(21, 0), BoatType.C4,
+                new RequiredPositions(Position.COX, 1)))).isEmpty();
+    }
+
+    @Test
+    void candidatesForCompetition() {
+        Competition competition = new Competition(1, DATE, LocalTime.of(10, 30), LocalTime.of(12, 0),
+                Set.of(new RequiredPositions(Position.COX, 1)), Level.AMATEUR, Gender.MALE, BoatType.C4, "org");
+
+        assertThat(userIndex.candidates(competition)).extracting(CandidateResponseModel::getUserId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void putAndRemoveKeepIndexCurrent() {
+        Training training = training(LocalTime.of(10, 30), LocalTime.of(12, 0), BoatType.C4,
+                new RequiredPositions(Position.SCULLING_ROWER, 1));
+        User moved = user(2L, "org", BoatType.C4, Position.SCULLING_ROWER);
+        moved.getAvailabilities().clear();
+
+        userIndex.put(moved);
+        assertThat(userIndex.candidates(training)).isEmpty();
+
+        userIndex.put(user(4L, "org", BoatType.C4, Position.SCULLING_ROWER));
+        assertThat(userIndex.candidates(training)).extracting(CandidateResponseModel::getUserId)
+                .containsExactly(4L);
+
+        userIndex.remove(4L);
+        assertThat(userIndex.candidates(training)).isEmpty();
+    }
+
+    @Test
+    void failedPutReloadsIndex() {
+        Training training = training(LocalTime.of(10, 30), LocalTime.of(12, 0), BoatType.C4,
+                new RequiredPositions(Position.SCULLING_ROWER, 1));
+        User saved = user(4L, "org", BoatType.C4, Position.SCULLING_ROWER);
+        List<User> users = List.of(user(2L, "org", BoatType.C4, Position.SCULLING_ROWER), saved);
+        when(userRepository.findAll()).thenThrow(new IllegalStateException()).thenReturn(users);
+
+        userIndex.put(saved);
+
+        assertThat(userIndex.candidates(training)).extracting(CandidateResponseModel::getUserId)
+                .containsExactly(2L, 4L);
+    }
+
+    @Test
+    void candidatesNearMidnightUseTheZoneOfTheActivityService() {
+        // Midnight UTC on Thursday is still Wednesday evening in New York
+        userIndex.setMyClock(clock(-2 * DAY, ZoneId.of("America/New_York")));
+        User wednesday = user(5L, "org", BoatType.C4, Position.COX);
+        wednesday.getAvailabilities().set(0, new Availability(null, 3, LocalTime.MIDNIGHT, LocalTime.of(1, 0)));
+        User thursday = user(6L, "org", BoatType.C4, Position.COX);
+        thursday.getAvailabilities().set(0, new Availability(null, 4, LocalTime.MIDNIGHT, LocalTime.of(1, 0)));
+        when(userRepository.findAll()).thenReturn(List.of(wednesday, thursday));
+
+        assertThat(userIndex.candidates(training(LocalTime.of(0, 15), LocalTime.of(0, 45), BoatType.C4,
+                new RequiredPositions(Position.COX, 1)))).extracting(CandidateResponseModel::getUserId)
+                .containsExactly(5L);
+    }
+
+    @Test
+    void candidatesRespectStartTimeCutoff() {
+        // Both activities start at half past ten on the first of January 1970, UTC
+        long start = (10 * 60 + 30) * 60 * 1000;
+        Training training = training(LocalTime.of(10, 30), LocalTime.of(12, 0), BoatType.C4,
+                new RequiredPositions(Position.COX, 1));
+        Competition competition = new Competition(1, DATE, LocalTime.of(10, 30), LocalTime.of(12, 0),
+                Set.of(new RequiredPositions(Position.COX, 1)), Level.AMATEUR, Gender.MALE, BoatType.C4, "org");
+
+        userIndex.setMyClock(clock(start - UserIndex.TRAINING_TIME * 60 * 1000, ZoneOffset.UTC));
+        assertThat(userIndex.candidates(training)).isNotEmpty();
+        userIndex.setMyClock(clock(start - UserIndex.TRAINING_TIME * 60 * 1000 + 1, ZoneOffset.UTC));
+        assertThat(userIndex.candidates(training)).isEmpty();
+
+        userIndex.setMyClock(clock(start - UserIndex.COMPETITION_TIME * 60 * 1000, ZoneOffset.UTC));
+        assertThat(userIndex.candidates(competition)).isNotEmpty();
+        userIndex.setMyClock(clock(start - UserIndex.COMPETITION_TIME * 60 * 1000 + 1, ZoneOffset.UTC));
+        assertThat(userIndex.candidates(competition)).isEmpty();
+    }
+}
@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.user.domain;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doNothing;
@@ -9,15 +10,23 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import nl.tudelft.sem.template.user.authentication.AuthManager;
 import nl.tudelft.sem.template.user.domain.enums.BoatType;
 import nl.tudelft.sem.template.user.domain.enums.Gender;
 import nl.tudelft.sem.template.user.domain.enums.Level;
+import nl.tudelft.sem.template.user.domain.enums.Position;
 import nl.tudelft.sem.template.user.models.UserRequestModel;
 import nl.tudelft.sem.template.user.models.UserResponseModel;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 
 
@@ -95,4 +104,83 @@ class UserServiceTest {
         when(userRepository.findAllById(10L)).thenReturn(List.of(new User()));
         assertEquals(1, userService.findAllById(10L).size());
     }
+
+    @Test
+    void getActivityRevalidatesWithEtag() {
+        String etag = "\"1-0-1-0-2\"";
+        List<String> sentTags = new ArrayList<>();
+        WebClient activityService = WebClient.builder().exchangeFunction(request -> {
+            String sent = request.headers().getFirst(HttpHeaders.IF_NONE_MATCH);
+            sentTags.add(sent);
+            if (etag.equals(sent)) {
+                return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.ETAG, etag)
+                    .body("{\"activityId\":1,\"ownerId\":2,\"activityDate\":\"1970-01-01\",\"startTime\":\"10:35\","
+                            + "\"endTime\":\"12:45\",\"positions\":[{\"id\":2,\"position\":\"COX\","
+                            + "\"requiredOfPosition\":2}],\"boatType\":\"C4\",\"allowedLevel\":\"AMATEUR\","
+                            + "\"allowedGender\":\"MALE\",\"organization\":\"org\",\"competition\":true}")
+                    .build());
+        }).build();
+        UserService service = new UserService(userRepository, authManager, activityService);
+
+        Activity first = service.getActivity(1, "Bearer token");
+        Activity second = service.getActivity(1, "Bearer token");
+
+        assertTrue(first instanceof Competition);
+        assertSame(first, second);
+        assertEquals(Arrays.asList(null, etag), sentTags);
+    }
+
+    @Test
+    void getActivityReadsTheTypeTheActivityServiceSends() {
+        String training = "{\"activityId\":1,\"ownerId\":2,\"activityDate\":\"1970-01-01\",\"startTime\":\"10:35\","
+                + "\"endTime\":\"12:45\",\"positions\":[],\"boatType\":\"C4\",\"competition\":false}";
+        // A competition open to every organization still is a competition
+        String competition = "{\"activityId\":2,\"ownerId\":2,\"activityDate\":\"1970-01-01\",\"startTime\":\"10:35\","
+                + "\"endTime\":\"12:45\",\"positions\":[],\"boatType\":\"C4\",\"allowedLevel\":\"AMATEUR\","
+                + "\"allowedGender\":\"MALE\",\"organization\":null,\"competition\":true}";
+        WebClient activityService = WebClient.builder().exchangeFunction(request -> Mono.just(
+                ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(request.url().getPath().endsWith("/1") ? training : competition)
+                        .build())).build();
+        UserService service = new UserService(userRepository, authManager, activityService);
+
+        assertTrue(service.getActivity(1, "Bearer token") instanceof Training);
+        assertTrue(service.getActivity(2, "Bearer token") instanceof Competition);
+    }
+
+    @Test
+    void getTrainingsRevalidatesWithEtagPerRequest() {
+        String etag = "\"1-5-0-1f\"";
+        List<String> sentTags = new ArrayList<>();
+        WebClient activityService = WebClient.builder().exchangeFunction(request -> {
+            String sent = request.headers().getFirst(HttpHeaders.IF_NONE_MATCH);
+            sentTags.add(sent);
+            if (etag.equals(sent)) {
+                return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.ETAG, etag)
+                    .body("[{\"activityId\":1,\"ownerId\":2,\"activityDate\":\"1970-01-01\",\"startTime\":\"10:35\","
+                            + "\"endTime\":\"12:45\",\"positions\":[],\"boatType\":\"C4\",\"competition\":false}]")
+                    .build());
+        }).build();
+        UserService service = new UserService(userRepository, authManager, activityService);
+        User user = new User(10L, "abc", Gender.MALE, "test", "test", Level.AMATEUR, "org", BoatType.C4,
+                List.of(), List.of());
+
+        List<Training> first = service.getTrainings(user, Position.COX, "Bearer token");
+        List<Training> second = service.getTrainings(user, Position.COX, "Bearer token");
+        // Another position is another request, which has no tag yet
+        service.getTrainings(user, Position.COACH, "Bearer token");
+
+        assertEquals(1, first.size());
+        assertSame(first, second);
+        assertEquals(Arrays.asList(null, etag, null), sentTags);
+    }
 }